@@ -0,0 +1,16 @@
+package by.egrius.app.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Ограничение частоты и числа параллельных вызовов эндпоинта для одного пользователя.
+ * value - имя эндпоинта в настройках rate-limit.&lt;value&gt;.*, недостающие берутся из rate-limit.default.*
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+    String value();
+}
@@ -0,0 +1,39 @@
+package by.egrius.app.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+
+/**
+ * Метрики регионов кэша второго уровня по статистике самого Caffeine (monitoring.statistics
+ * в hibernate-cache.conf): cache.gets с result=hit/miss, cache.puts, cache.evictions по каждому региону.
+ * Работают без статистики Hibernate, которая включается только профилем stats.
+ */
+@Configuration
+public class CacheMetricsConfig {
+
+    @Bean
+    public MeterBinder hibernateCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            RegionFactory regionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getServiceRegistry()
+                    .getService(RegionFactory.class);
+            if (!(regionFactory instanceof JCacheRegionFactory jcache)) {
+                return;
+            }
+            CacheManager cacheManager = jcache.getCacheManager();
+            for (String name : cacheManager.getCacheNames()) {
+                Cache<Object, Object> cache = cacheManager.getCache(name);
+                JCacheMetrics.monitor(registry, cache);
+            }
+        };
+    }
+}
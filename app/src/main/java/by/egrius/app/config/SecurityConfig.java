@@ -1,5 +1,8 @@
 package by.egrius.app.config;
 
+import by.egrius.app.security.CachingPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -10,6 +13,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
 import java.net.http.HttpRequest;
+import java.time.Duration;
 
 
 @Configuration
@@ -22,14 +26,19 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/user/create-user").permitAll()
+                        // Порт actuator слушает только 127.0.0.1
+                        .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
                         .anyRequest().authenticated()
         )
                 .httpBasic(Customizer.withDefaults())
                 .build();
     }
 
+    // Проверка BCrypt на каждом запросе HTTP Basic - основной расход CPU, поэтому успешные
+    // проверки кэшируются на ttl-seconds
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.credentials-cache.ttl-seconds:60}") long ttlSeconds,
+                                           @Value("${security.credentials-cache.max-size:10000}") long maxSize) {
+        return new CachingPasswordEncoder(new BCryptPasswordEncoder(), Duration.ofSeconds(ttlSeconds), maxSize);
     }
 }
@@ -1,26 +1,40 @@
 package by.egrius.app.controller;
 
+import by.egrius.app.annotation.RateLimited;
 import by.egrius.app.dto.fileDTO.*;
 import by.egrius.app.dto.request.FileAnalysisRequestDto;
+import by.egrius.app.dto.request.FileBulkDeleteRequestDto;
 import by.egrius.app.dto.request.FileDeleteRequestDto;
 import by.egrius.app.dto.request.StopWordsUpdateDto;
 import by.egrius.app.dto.response.PageResponse;
 import by.egrius.app.entity.enums.PatternType;
 import by.egrius.app.security.UserPrincipal;
+import by.egrius.app.service.CsvProfileService;
 import by.egrius.app.service.FileAnalysisService;
+import by.egrius.app.service.FileEventTimelineService;
+import by.egrius.app.service.FileProgressService;
+import by.egrius.app.service.FileSearchIndexService;
+import by.egrius.app.service.FileStatsViewService;
+import by.egrius.app.service.GrepService;
+import by.egrius.app.service.PositionalIndexService;
 import by.egrius.app.service.RegexMatchService;
 import by.egrius.app.service.UploadedFileService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.nio.file.AccessDeniedException;
+import java.time.Instant;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -33,8 +47,16 @@ public class FileController {
     private final UploadedFileService uploadedFileService;
     private final FileAnalysisService fileAnalysisService;
     private final RegexMatchService regexMatchService;
+    private final CsvProfileService csvProfileService;
+    private final FileSearchIndexService fileSearchIndexService;
+    private final GrepService grepService;
+    private final PositionalIndexService positionalIndexService;
+    private final FileEventTimelineService fileEventTimelineService;
+    private final FileProgressService fileProgressService;
+    private final FileStatsViewService fileStatsViewService;
 
     @PostMapping("/upload")
+    @RateLimited("upload")
     public ResponseEntity<UploadedFileReadDto> uploadFile(@RequestParam("file") MultipartFile fileToUpload,
                                                           @AuthenticationPrincipal UserPrincipal userPrincipal) {
 
@@ -62,6 +84,19 @@ public class FileController {
         return ResponseEntity.ok(response);
     }
 
+    // Страницы по курсору от новых файлов к старым; cursor - nextCursor предыдущей страницы.
+    // Отдельный путь: ответ другой формы, а /show-files, /search и /filter/by-type по-прежнему отдают PageResponse
+    @GetMapping("/show-files/page")
+    public ResponseEntity<FileListPageDto> showUploadedFilesPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+
+        return ResponseEntity.ok(uploadedFileService.showUploadedFilesPage(
+                userPrincipal.getId(), cursor, limit, withTotal));
+    }
+
     @GetMapping("/by-filename")
     public ResponseEntity<UploadedFileReadDto> getUploadedFileByFilename(@RequestParam String filename,
                                                                          @AuthenticationPrincipal UserPrincipal userPrincipal) {
@@ -90,19 +125,53 @@ public class FileController {
         return ResponseEntity.ok().build();
     }
 
+    @DeleteMapping("/delete/bulk")
+    public ResponseEntity<FileBulkDeleteResultDto> deleteFiles(@Valid @RequestBody FileBulkDeleteRequestDto requestDto,
+                                                               @AuthenticationPrincipal UserPrincipal userPrincipal)
+            throws AccessDeniedException {
+
+        int deleted = uploadedFileService.removeFiles(userPrincipal.getId(), requestDto.rawPassword(),
+                requestDto.fileIds(), requestDto.uploadedBefore());
+        return ResponseEntity.ok(new FileBulkDeleteResultDto(deleted));
+    }
+
+    @GetMapping("/{fileId}/lines")
+    public ResponseEntity<FileLinesReadDto> getFileLines(
+            @PathVariable UUID fileId,
+            @RequestParam int from,
+            @RequestParam int to,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+
+        FileLinesReadDto lines = uploadedFileService.getFileLines(userPrincipal.getId(), fileId, from, to);
+        return ResponseEntity.ok(lines);
+    }
+
+    // term может быть фразой; индекс строится при анализе файла
+    @GetMapping("/{fileId}/kwic")
+    public ResponseEntity<KwicReadDto> getKeywordInContext(
+            @PathVariable UUID fileId,
+            @RequestParam String term,
+            @RequestParam(defaultValue = "40") int window,
+            @RequestParam(defaultValue = "50") int limit,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+
+        uploadedFileService.checkFileOwnership(userPrincipal.getId(), fileId);
+
+        KwicReadDto kwic = positionalIndexService.kwic(fileId, term, window, Math.min(limit, 200));
+        return ResponseEntity.ok(kwic);
+    }
+
     // ============ АНАЛИЗ ТЕКСТА ============
 
     @PostMapping("/{fileId}/analyze")
+    @RateLimited("analyze")
     public ResponseEntity<FileAnalysisReadDto> analyzeFile(
             @PathVariable UUID fileId,
             @Valid @RequestBody FileAnalysisRequestDto request,
             @AuthenticationPrincipal UserPrincipal userPrincipal) {
 
-        // Проверка прав доступа
-        uploadedFileService.showUploadedFileById(userPrincipal.getId(), fileId);
-
-        FileAnalysisReadDto analysis = fileAnalysisService.createAnalysis(
-                fileId, request.topN(), request.excludeStopWords());
+        FileAnalysisReadDto analysis = fileAnalysisService.createAnalysis(userPrincipal.getId(),
+                fileId, request.topN(), request.excludeStopWords(), request.includeWordLengths());
 
         return ResponseEntity.status(HttpStatus.CREATED).body(analysis);
     }
@@ -110,15 +179,27 @@ public class FileController {
     @GetMapping("/{fileId}/analysis")
     public ResponseEntity<FileAnalysisReadDto> getFileAnalysis(
             @PathVariable UUID fileId,
+            @RequestParam(defaultValue = "false") boolean includeWordLengths,
             @AuthenticationPrincipal UserPrincipal userPrincipal) {
 
-        uploadedFileService.showUploadedFileById(userPrincipal.getId(), fileId);
-
-        return fileAnalysisService.getAnalysisByFileId(fileId)
+        return fileAnalysisService.getAnalysisByFileId(userPrincipal.getId(), fileId, includeWordLengths)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Поток событий обработки файла вместо опроса /analysis
+    @GetMapping(value = "/{fileId}/progress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProgress(
+            @PathVariable UUID fileId,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+
+        uploadedFileService.checkFileOwnership(userPrincipal.getId(), fileId);
+
+        return fileProgressService.subscribe(fileId, () -> new FileProgressSnapshotDto(
+                fileAnalysisService.hasAnalysis(fileId),
+                regexMatchService.hasRegexMatch(fileId)));
+    }
+
     @PutMapping("/analysis/stopwords")
     public ResponseEntity<Void> updateStopWords(
             @Valid @RequestBody StopWordsUpdateDto updateDto) {
@@ -130,14 +211,13 @@ public class FileController {
     // ============ REGEX ПОИСК ============
 
     @PostMapping("/{fileId}/regex")
+    @RateLimited("regex")
     public ResponseEntity<RegexMatchReadDto> findPatterns(
             @PathVariable UUID fileId,
             @RequestBody Set<PatternType> patternTypes,
             @AuthenticationPrincipal UserPrincipal userPrincipal) {
 
-        uploadedFileService.showUploadedFileById(userPrincipal.getId(), fileId);
-
-        RegexMatchReadDto matches = regexMatchService.createRegexMatch(fileId, patternTypes);
+        RegexMatchReadDto matches = regexMatchService.createRegexMatch(userPrincipal.getId(), fileId, patternTypes);
         return ResponseEntity.status(HttpStatus.CREATED).body(matches);
     }
 
@@ -146,9 +226,7 @@ public class FileController {
             @PathVariable UUID fileId,
             @AuthenticationPrincipal UserPrincipal userPrincipal) {
 
-        uploadedFileService.showUploadedFileById(userPrincipal.getId(), fileId);
-
-        return regexMatchService.getRegexMatchByFileId(fileId)
+        return regexMatchService.getRegexMatchByFileId(userPrincipal.getId(), fileId)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -159,11 +237,9 @@ public class FileController {
             @PathVariable PatternType patternType,
             @AuthenticationPrincipal UserPrincipal userPrincipal) {
 
-        uploadedFileService.showUploadedFileById(userPrincipal.getId(), fileId);
-
-        List<PatternMatchDto> matches = regexMatchService.getPatternMatchesByType(fileId, patternType)
+        List<PatternMatchDto> matches = regexMatchService.getPatternMatchesByType(userPrincipal.getId(), fileId, patternType)
                 .stream()
-                .map(pm -> new PatternMatchDto(pm.getPatternType(), pm.getMatch()))
+                .map(pm -> new PatternMatchDto(pm.getPatternType(), pm.getMatch(), pm.getLineNumber()))
                 .toList();
 
         return ResponseEntity.ok(matches);
@@ -174,8 +250,7 @@ public class FileController {
             @PathVariable UUID fileId,
             @AuthenticationPrincipal UserPrincipal userPrincipal) {
 
-        uploadedFileService.showUploadedFileById(userPrincipal.getId(), fileId);
-        regexMatchService.deleteRegexMatch(fileId);
+        regexMatchService.deleteRegexMatch(userPrincipal.getId(), fileId);
         return ResponseEntity.noContent().build();
     }
 
@@ -186,20 +261,21 @@ public class FileController {
             @PathVariable UUID fileId,
             @AuthenticationPrincipal UserPrincipal userPrincipal) {
 
-        UploadedFileReadDto file = uploadedFileService.showUploadedFileById(userPrincipal.getId(), fileId);
+        FileStatsDto stats = fileStatsViewService.getStats(userPrincipal.getId(), fileId);
 
-        FileAnalysisReadDto analysis = fileAnalysisService.getAnalysisByFileId(fileId).orElse(null);
-        RegexMatchReadDto regex = regexMatchService.getRegexMatchByFileId(fileId).orElse(null);
+        return ResponseEntity.ok(stats);
+    }
 
-        FileStatsDto stats = new FileStatsDto(
-                file,
-                analysis,
-                regex,
-                analysis != null,
-                regex != null
-        );
+    @GetMapping("/{fileId}/csv-stats")
+    public ResponseEntity<CsvProfileReadDto> getCsvStats(
+            @PathVariable UUID fileId,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
 
-        return ResponseEntity.ok(stats);
+        uploadedFileService.checkFileOwnership(userPrincipal.getId(), fileId);
+
+        return csvProfileService.getProfileByFileId(fileId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/user/stats")
@@ -220,6 +296,35 @@ public class FileController {
         return ResponseEntity.ok(stats);
     }
 
+    // ============ ЛЕНТА СОБЫТИЙ ============
+
+    // from включительно, to не включительно; cursor - nextCursor предыдущей страницы
+    @GetMapping("/{fileId}/events")
+    public ResponseEntity<FileEventTimelinePageDto> getFileEvents(
+            @PathVariable UUID fileId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+
+        uploadedFileService.checkFileOwnership(userPrincipal.getId(), fileId);
+
+        return ResponseEntity.ok(fileEventTimelineService.getFileTimeline(fileId, from, to, cursor, limit));
+    }
+
+    @GetMapping("/user/events")
+    public ResponseEntity<FileEventTimelinePageDto> getUserEvents(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+
+        return ResponseEntity.ok(fileEventTimelineService.getUserTimeline(
+                userPrincipal.getId(), from, to, cursor, limit));
+    }
+
     // ============ ПОИСК И ФИЛЬТРАЦИЯ ============
 
     @GetMapping("/search")
@@ -243,6 +348,40 @@ public class FileController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/search/page")
+    public ResponseEntity<FileListPageDto> searchFilesPage(
+            @RequestParam String keyword,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+
+        return ResponseEntity.ok(uploadedFileService.searchFilesPage(
+                userPrincipal.getId(), keyword, cursor, limit, withTotal));
+    }
+
+    @GetMapping("/search/content")
+    public ResponseEntity<List<ContentSearchHitDto>> searchFileContents(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "20") int limit,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+
+        List<ContentSearchHitDto> hits = fileSearchIndexService.search(userPrincipal.getId(), query, Math.min(limit, 100));
+        return ResponseEntity.ok(hits);
+    }
+
+    // Одно совпадение на строку ответа, строки приходят по мере сканирования файлов
+    @GetMapping(value = "/grep", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> grep(
+            @RequestParam String pattern,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+
+        StreamingResponseBody body = grepService.grep(userPrincipal.getId(), pattern);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     @GetMapping("/filter/by-type")
     public ResponseEntity<PageResponse<UploadedFileReadDto>> filterByContentType(
             @RequestParam String contentType,
@@ -264,4 +403,16 @@ public class FileController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/filter/by-type/page")
+    public ResponseEntity<FileListPageDto> filterByContentTypePage(
+            @RequestParam String contentType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+
+        return ResponseEntity.ok(uploadedFileService.filterByContentTypePage(
+                userPrincipal.getId(), contentType, cursor, limit, withTotal));
+    }
+
 }
\ No newline at end of file
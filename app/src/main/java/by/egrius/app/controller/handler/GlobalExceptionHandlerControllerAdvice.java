@@ -3,10 +3,14 @@ package by.egrius.app.controller.handler;
 import by.egrius.app.dto.ExceptionDto;
 import by.egrius.app.dto.ValidationErrorDto;
 import by.egrius.app.dto.ViolationDto;
+import by.egrius.app.exception.RateLimitExceededException;
+import by.egrius.app.exception.ServiceOverloadedException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -77,6 +81,32 @@ public class GlobalExceptionHandlerControllerAdvice {
         );
     }
 
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ExceptionDto> onRateLimitExceeded(RateLimitExceededException e, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ExceptionDto(
+                        e.getMessage(),
+                        "RATE_LIMIT_EXCEEDED",
+                        request.getRequestURI(),
+                        LocalDate.now(),
+                        HttpStatus.TOO_MANY_REQUESTS.value()
+                ));
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ExceptionDto> onServiceOverloaded(ServiceOverloadedException e, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ExceptionDto(
+                        e.getMessage(),
+                        "SERVICE_OVERLOADED",
+                        request.getRequestURI(),
+                        LocalDate.now(),
+                        HttpStatus.SERVICE_UNAVAILABLE.value()
+                ));
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     @ResponseStatus(HttpStatus.FORBIDDEN)
     @ResponseBody
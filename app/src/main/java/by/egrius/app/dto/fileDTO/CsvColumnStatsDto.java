@@ -0,0 +1,14 @@
+package by.egrius.app.dto.fileDTO;
+
+import by.egrius.app.entity.enums.CsvColumnType;
+
+public record CsvColumnStatsDto(
+        String name,
+        CsvColumnType type,
+        Long nullCount,
+        Long nonNullCount,
+        Double min,
+        Double max,
+        Double mean,
+        Long approxDistinct
+) {}
@@ -0,0 +1,9 @@
+package by.egrius.app.dto.fileDTO;
+
+import java.util.List;
+
+public record CsvProfileReadDto(
+        Long rowCount,
+        String delimiter,
+        List<CsvColumnStatsDto> columns
+) {}
@@ -4,11 +4,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+// wordLengthMap заполняется только по явному запросу, обычно хватает гистограммы длин
 public record FileAnalysisReadDto (
          UUID id,
          Map<String, Long> topWords,
          Map<Character, Long> startsWithMap,
          Map<Character, Long> punctuationMap,
+         Map<Integer, Long> wordLengthHistogram,
+         List<String> longestWords,
+         List<String> shortestWords,
          Map<String, Integer> wordLengthMap,
          Boolean stopWordsExcluded
 ) {}
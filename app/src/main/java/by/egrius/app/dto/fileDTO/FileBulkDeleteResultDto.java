@@ -0,0 +1,5 @@
+package by.egrius.app.dto.fileDTO;
+
+public record FileBulkDeleteResultDto(
+        int deletedFiles
+) {}
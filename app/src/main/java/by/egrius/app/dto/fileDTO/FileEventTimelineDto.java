@@ -0,0 +1,13 @@
+package by.egrius.app.dto.fileDTO;
+
+import by.egrius.app.entity.enums.FileEventType;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+public record FileEventTimelineDto(
+        UUID id,
+        UUID fileId,
+        FileEventType fileEventType,
+        Timestamp timestamp
+) {}
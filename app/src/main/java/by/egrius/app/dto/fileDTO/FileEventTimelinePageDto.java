@@ -0,0 +1,9 @@
+package by.egrius.app.dto.fileDTO;
+
+import java.util.List;
+
+// nextCursor == null - страниц больше нет
+public record FileEventTimelinePageDto(
+        List<FileEventTimelineDto> events,
+        String nextCursor
+) {}
@@ -0,0 +1,10 @@
+package by.egrius.app.dto.fileDTO;
+
+import java.util.List;
+
+public record FileLinesReadDto(
+        int from,
+        int to,
+        int totalLines,
+        List<String> lines
+) {}
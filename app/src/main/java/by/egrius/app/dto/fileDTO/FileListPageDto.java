@@ -0,0 +1,10 @@
+package by.egrius.app.dto.fileDTO;
+
+import java.util.List;
+
+// nextCursor == null - страниц больше нет; totalElements заполняется только по запросу
+public record FileListPageDto(
+        List<UploadedFileReadDto> content,
+        String nextCursor,
+        Long totalElements
+) {}
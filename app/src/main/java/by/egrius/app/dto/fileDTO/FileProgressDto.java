@@ -0,0 +1,12 @@
+package by.egrius.app.dto.fileDTO;
+
+import java.util.UUID;
+
+// stage - тип события (PARSE_START, PROGRESS, PARSE_END, ERROR...); job и percent заданы только для PROGRESS
+public record FileProgressDto(
+        UUID fileId,
+        String stage,
+        String job,
+        Integer percent,
+        long timestamp
+) {}
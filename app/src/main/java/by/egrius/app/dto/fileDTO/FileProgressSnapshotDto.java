@@ -0,0 +1,7 @@
+package by.egrius.app.dto.fileDTO;
+
+// Первое событие потока: клиенту, подписавшемуся после окончания задачи, ждать нечего
+public record FileProgressSnapshotDto(
+        boolean analysisReady,
+        boolean regexReady
+) {}
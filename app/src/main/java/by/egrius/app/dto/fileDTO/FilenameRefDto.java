@@ -0,0 +1,9 @@
+package by.egrius.app.dto.fileDTO;
+
+import java.util.UUID;
+
+public record FilenameRefDto(
+        UUID fileId,
+        UUID userId,
+        String filename
+) {}
@@ -0,0 +1,11 @@
+package by.egrius.app.dto.fileDTO;
+
+import java.util.UUID;
+
+public record GrepHitDto(
+        UUID fileId,
+        String filename,
+        int line,
+        int offset,
+        String match
+) {}
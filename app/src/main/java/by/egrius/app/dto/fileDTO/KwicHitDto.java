@@ -0,0 +1,9 @@
+package by.egrius.app.dto.fileDTO;
+
+public record KwicHitDto(
+        int line,
+        int offset,
+        String left,
+        String match,
+        String right
+) {}
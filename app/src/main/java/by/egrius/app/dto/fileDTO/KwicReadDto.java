@@ -0,0 +1,9 @@
+package by.egrius.app.dto.fileDTO;
+
+import java.util.List;
+
+public record KwicReadDto(
+        String query,
+        int totalOccurrences,
+        List<KwicHitDto> hits
+) {}
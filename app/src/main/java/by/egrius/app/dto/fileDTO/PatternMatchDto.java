@@ -4,5 +4,6 @@ import by.egrius.app.entity.enums.PatternType;
 
 public record PatternMatchDto(
         PatternType patternType,
-        String match
+        String match,
+        Integer lineNumber
 ) {}
\ No newline at end of file
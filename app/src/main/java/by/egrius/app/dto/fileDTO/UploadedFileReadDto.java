@@ -1,6 +1,5 @@
 package by.egrius.app.dto.fileDTO;
 
-import by.egrius.app.dto.userDTO.UserReadDto;
 import by.egrius.app.entity.enums.ContentType;
 
 import java.sql.Timestamp;
@@ -10,5 +9,12 @@ public record UploadedFileReadDto (
         UUID id,
         String filename,
         Timestamp uploadTime,
-        ContentType contentType
-){}
+        ContentType contentType,
+        Long sizeBytes,
+        Long lineCount,
+        Long wordCount
+){
+    public UploadedFileReadDto(UUID id, String filename, Timestamp uploadTime, ContentType contentType) {
+        this(id, filename, uploadTime, contentType, null, null, null);
+    }
+}
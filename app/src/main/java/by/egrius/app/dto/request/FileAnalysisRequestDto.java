@@ -3,7 +3,13 @@ package by.egrius.app.dto.request;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 
+// includeWordLengths - сохранить и вернуть карту "слово - длина" по всему словарю
 public record FileAnalysisRequestDto(
         @Min(1) @Max(100) int topN,
-        boolean excludeStopWords
-) {}
\ No newline at end of file
+        boolean excludeStopWords,
+        boolean includeWordLengths
+) {
+    public FileAnalysisRequestDto(int topN, boolean excludeStopWords) {
+        this(topN, excludeStopWords, false);
+    }
+}
@@ -0,0 +1,15 @@
+package by.egrius.app.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+// Задаётся либо fileIds, либо uploadedBefore
+public record FileBulkDeleteRequestDto(
+        @Size(max = 10_000) List<UUID> fileIds,
+        Instant uploadedBefore,
+        @NotBlank String rawPassword
+) {}
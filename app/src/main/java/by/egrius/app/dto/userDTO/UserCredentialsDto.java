@@ -0,0 +1,13 @@
+package by.egrius.app.dto.userDTO;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+public record UserCredentialsDto(
+        UUID userId,
+        String username,
+        String email,
+        String password,
+        Timestamp deletedAt,
+        long securityVersion
+) {}
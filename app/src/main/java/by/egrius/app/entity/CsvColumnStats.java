@@ -0,0 +1,36 @@
+package by.egrius.app.entity;
+
+import by.egrius.app.entity.enums.CsvColumnType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.*;
+
+@Embeddable
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CsvColumnStats {
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false)
+    @Enumerated(value = EnumType.STRING)
+    private CsvColumnType type;
+
+    private Long nullCount;
+
+    private Long nonNullCount;
+
+    private Double minValue;
+
+    private Double maxValue;
+
+    private Double meanValue;
+
+    private Long approxDistinct;
+}
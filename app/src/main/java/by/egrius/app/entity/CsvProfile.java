@@ -0,0 +1,36 @@
+package by.egrius.app.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Entity
+@Table(name = "CsvProfile")
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString(exclude = "uploadedFile")
+public class CsvProfile {
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "fileId", unique = true, nullable = false)
+    private UploadedFile uploadedFile;
+
+    @Column(nullable = false)
+    private Long rowCount;
+
+    @Column(nullable = false)
+    private String delimiter;
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "csv_column_stats", joinColumns = @JoinColumn(name = "profileId"))
+    @OrderColumn(name = "columnIndex")
+    private List<CsvColumnStats> columns;
+}
@@ -8,6 +8,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+// Не в кэше второго уровня: payload со словарём "слово - длина" весит мегабайты, а частые
+// чтения статистики обслуживает FileStatsView одной строкой
 @Entity
 @Table(name="FileAnalysis")
 @Builder
@@ -15,7 +17,7 @@ import java.util.UUID;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@ToString(exclude = "uploadedFile")
+@ToString(exclude = {"uploadedFile", "payload"})
 public class FileAnalysis {
     @Id
     @GeneratedValue
@@ -25,6 +27,11 @@ public class FileAnalysis {
     @JoinColumn(name = "fileId", unique = true, nullable = false)
     private UploadedFile uploadedFile;
 
+    // Все карты одним значением, формат в AnalysisCodec. Коллекции ниже заполнены
+    // только у анализов, созданных до появления payload
+    @Column(length = 16 * 1024 * 1024)
+    private byte[] payload;
+
     @ElementCollection(fetch = FetchType.LAZY)
     @CollectionTable(name = "starts_with_map", joinColumns = @JoinColumn(name = "fileId"))
     @MapKeyColumn(name = "prefix")
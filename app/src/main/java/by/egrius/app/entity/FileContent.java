@@ -1,6 +1,7 @@
 package by.egrius.app.entity;
 
 import by.egrius.app.entity.enums.Language;
+import by.egrius.app.text.TrigramFilter;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -14,7 +15,7 @@ import java.util.UUID;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@ToString(exclude = "uploadedFile")
+@ToString(exclude = {"uploadedFile", "rawText", "lineIndex", "trigramFilter"})
 public class FileContent {
     @Id
     @GeneratedValue
@@ -27,6 +28,8 @@ public class FileContent {
     @Column(columnDefinition = "TEXT")
     private String rawText;
 
+    private Long sizeBytes;
+
     private Long lineCount;
 
     private Long wordCount;
@@ -34,6 +37,14 @@ public class FileContent {
     @Enumerated(value = EnumType.STRING)
     private Language language;
 
+    // Сжатый индекс начал строк, формат в LineIndex
+    @Column(length = 16 * 1024 * 1024)
+    private byte[] lineIndex;
+
+    // Битовая маска триграмм для отсечения файлов при grep, формат в TrigramFilter
+    @Column(length = TrigramFilter.BYTES)
+    private byte[] trigramFilter;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -9,10 +9,15 @@
     import java.sql.Timestamp;
     import java.util.UUID;
 
+    // В PostgreSQL таблица секционирована по timestamp, см. db/partitioning/file_event_log.sql
     @Entity
-    @Table(name="FileEventLog")
+    @Table(name="FileEventLog", indexes = {
+            @Index(name = "idx_file_event_log_file_time", columnList = "file_id, timestamp, id"),
+            @Index(name = "idx_file_event_log_user_time", columnList = "userId, timestamp, id")
+    })
     @Builder
     @ToString(exclude = "uploadedFile")
+    @Getter
     @Setter
     @NoArgsConstructor
     @AllArgsConstructor
@@ -26,8 +31,11 @@
         @Column(name = "file_id")
         private UUID fileId;
 
+        private UUID userId;
+
         @Enumerated(value = EnumType.STRING)
         private FileEventType fileEventType;
 
+        @Column(nullable = false)
         private Timestamp timestamp;
     }
@@ -0,0 +1,52 @@
+package by.egrius.app.entity;
+
+import by.egrius.app.entity.enums.FileEventType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.sql.Timestamp;
+import java.util.Objects;
+import java.util.UUID;
+
+@Entity
+@Table(name = "FileEventOutbox",
+        indexes = @Index(name = "idx_file_event_outbox_pending", columnList = "dispatchedAt, occurredAt"))
+@Builder
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileEventOutbox {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID fileId;
+
+    private UUID userId;
+
+    @Enumerated(value = EnumType.STRING)
+    @Column(nullable = false)
+    private FileEventType eventType;
+
+    @Column(nullable = false)
+    private Timestamp occurredAt;
+
+    // null - событие ещё не разослано
+    private Timestamp dispatchedAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FileEventOutbox that)) return false;
+        return id != null && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
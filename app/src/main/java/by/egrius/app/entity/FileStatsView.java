@@ -0,0 +1,75 @@
+package by.egrius.app.entity;
+
+import by.egrius.app.entity.enums.ContentType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.sql.Timestamp;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Готовый ответ /file/{fileId}/stats одной строкой. Обновляется при записи анализа
+ * и regex-результата, поэтому чтение - один запрос по первичному ключу.
+ */
+@Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "fileStatsView")
+@Table(name = "FileStatsView",
+        indexes = @Index(name = "idx_file_stats_view_user", columnList = "userId"))
+@Builder
+@Getter
+@Setter
+@ToString(exclude = {"analysis", "regexMatches"})
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileStatsView {
+
+    @Id
+    private UUID fileId;
+
+    @Column(nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false)
+    private String filename;
+
+    private Timestamp uploadTime;
+
+    @Enumerated(value = EnumType.STRING)
+    private ContentType contentType;
+
+    private Long sizeBytes;
+
+    private Long lineCount;
+
+    private Long wordCount;
+
+    private UUID analysisId;
+
+    private Boolean stopWordsExcluded;
+
+    // Формат в AnalysisCodec, без карты "слово - длина"; null - анализа нет
+    @Column(length = 16 * 1024 * 1024)
+    private byte[] analysis;
+
+    // Совпадения EMAIL, PHONE, IP, DATE, формат в StringListsCodec; null - regex-поиска не было
+    @Column(length = 16 * 1024 * 1024)
+    private byte[] regexMatches;
+
+    private Long regexMatchCount;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FileStatsView that)) return false;
+        return fileId != null && fileId.equals(that.fileId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fileId);
+    }
+}
@@ -0,0 +1,45 @@
+package by.egrius.app.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Objects;
+import java.util.UUID;
+
+@Entity
+@Table(name = "FilenameTrigram",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"fileId", "trigram"}),
+        indexes = @Index(name = "idx_filename_trigram_lookup", columnList = "userId, trigram, fileId"))
+@Builder
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class FilenameTrigram {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false)
+    private UUID fileId;
+
+    @Column(nullable = false, length = 3)
+    private String trigram;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FilenameTrigram that)) return false;
+        return id != null && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -4,11 +4,15 @@ import by.egrius.app.entity.enums.PatternType;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.WithBy;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 import java.util.UUID;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "patternMatches")
 @Table(name = "pattern_matches")
 @NoArgsConstructor
 @AllArgsConstructor
@@ -26,6 +30,9 @@ public class PatternMatches {
 
     private String match;
 
+    // Строка первого вхождения, с единицы
+    private Integer lineNumber;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "regexId", nullable = false)
     private RegexMatch regexMatch;
@@ -3,6 +3,8 @@ package by.egrius.app.entity;
 import by.egrius.app.entity.enums.PatternType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.MapKeyType;
 
 import java.util.List;
@@ -10,6 +12,8 @@ import java.util.Map;
 import java.util.UUID;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "regexMatch")
 @Table(name = "RegexMatch")
 @NoArgsConstructor
 @Builder
@@ -27,6 +31,7 @@ public class RegexMatch {
     private UploadedFile uploadedFile;
 
     @OneToMany(mappedBy = "regexMatch", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "regexMatchPatterns")
     List<PatternMatches> patternMatches;
 
     Long totalMatches;
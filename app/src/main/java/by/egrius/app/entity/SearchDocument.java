@@ -0,0 +1,58 @@
+package by.egrius.app.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Objects;
+import java.util.UUID;
+
+@Entity
+@Table(name = "SearchDocument",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"userId", "docNo"}),
+                @UniqueConstraint(columnNames = {"fileId"})
+        })
+@Builder
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchDocument {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false)
+    private UUID fileId;
+
+    // Номер документа в индексе пользователя, на него ссылаются списки вхождений
+    @Column(nullable = false)
+    private int docNo;
+
+    @Column(nullable = false)
+    private String filename;
+
+    @Column(nullable = false)
+    private int termCount;
+
+    // Файл удалён, но ещё упоминается в списках вхождений до очередного сжатия
+    @Column(nullable = false)
+    private boolean deleted;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SearchDocument that)) return false;
+        return id != null && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -0,0 +1,53 @@
+package by.egrius.app.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Objects;
+import java.util.UUID;
+
+@Entity
+@Table(name = "SearchPosting",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"userId", "term"}))
+@Builder
+@Getter
+@Setter
+@ToString(exclude = "postings")
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchPosting {
+
+    public static final int MAX_TERM_LENGTH = 64;
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false, length = MAX_TERM_LENGTH)
+    private String term;
+
+    @Column(nullable = false)
+    private int documentFrequency;
+
+    @Column(nullable = false)
+    private int lastDocNo;
+
+    // Формат в PostingList
+    @Column(nullable = false, length = 16 * 1024 * 1024)
+    private byte[] postings;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SearchPosting that)) return false;
+        return id != null && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
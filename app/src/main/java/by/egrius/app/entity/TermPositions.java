@@ -0,0 +1,51 @@
+package by.egrius.app.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Objects;
+import java.util.UUID;
+
+@Entity
+@Table(name = "TermPositions",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"fileId", "term"}))
+@Builder
+@Getter
+@Setter
+@ToString(exclude = "positions")
+@NoArgsConstructor
+@AllArgsConstructor
+public class TermPositions {
+
+    // Те же термы, что и в полнотекстовом индексе, поэтому и предел длины общий
+    public static final int MAX_TERM_LENGTH = SearchPosting.MAX_TERM_LENGTH;
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID fileId;
+
+    @Column(nullable = false, length = MAX_TERM_LENGTH)
+    private String term;
+
+    @Column(nullable = false)
+    private int occurrences;
+
+    // Формат в PositionList
+    @Column(nullable = false, length = 16 * 1024 * 1024)
+    private byte[] positions;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TermPositions that)) return false;
+        return id != null && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -3,17 +3,24 @@
     import by.egrius.app.entity.enums.ContentType;
     import jakarta.persistence.*;
     import lombok.*;
+    import org.hibernate.annotations.Cache;
+    import org.hibernate.annotations.CacheConcurrencyStrategy;
 
     import java.sql.Timestamp;
     import java.util.Objects;
     import java.util.UUID;
 
     @Entity
-    @Table(name="UploadedFile")
+    @Cacheable
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "uploadedFile")
+    @Table(name="UploadedFile", indexes = {
+            @Index(name = "idx_uploaded_file_user_time", columnList = "userId, uploadTime, fileId"),
+            @Index(name = "idx_uploaded_file_user_type_time", columnList = "userId, contentType, uploadTime, fileId")
+    })
     @Builder
     @Getter
     @Setter
-    @ToString(exclude = {"user", "fileContent", "fileAnalysis", "regexMatch", "fileEventLog"})
+    @ToString(exclude = {"user", "fileContent", "fileAnalysis", "regexMatch", "csvProfile", "fileEventLog"})
     @NoArgsConstructor
     @AllArgsConstructor
     public class UploadedFile {
@@ -46,6 +53,9 @@
         @OneToOne(mappedBy = "uploadedFile", cascade = CascadeType.ALL, orphanRemoval = true, fetch =FetchType.LAZY)
         private RegexMatch regexMatch;
 
+        @OneToOne(mappedBy = "uploadedFile", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+        private CsvProfile csvProfile;
+
         @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
         private FileEventLog fileEventLog;
 
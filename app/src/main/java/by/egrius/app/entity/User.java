@@ -6,13 +6,18 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 @Table(name="Users")
 @Builder
 @Getter
@@ -42,6 +47,14 @@ public class User {
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate createdAt;
 
+    // Не null - пользователь удалён, данные ждут UserPurgeService
+    private Timestamp deletedAt;
+
+    // Растёт при каждом изменении учётных данных; по ней UserDetailsCache на других узлах
+    // понимает, что снимок пользователя устарел
+    @Column(nullable = false)
+    private long securityVersion;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<UploadedFile> uploadedFiles;
 
@@ -0,0 +1,48 @@
+package by.egrius.app.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.sql.Timestamp;
+import java.util.Objects;
+import java.util.UUID;
+
+// Очередь фонового удаления данных пользователя и прогресс по ней
+@Entity
+@Table(name = "UserPurge",
+        indexes = @Index(name = "idx_user_purge_requested", columnList = "requestedAt"))
+@Builder
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPurge {
+
+    @Id
+    private UUID userId;
+
+    @Column(nullable = false)
+    private Timestamp requestedAt;
+
+    // Файлов на момент удаления и уже удалённых
+    @Column(nullable = false)
+    private long filesTotal;
+
+    @Column(nullable = false)
+    private long filesPurged;
+
+    private Timestamp updatedAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UserPurge that)) return false;
+        return userId != null && userId.equals(that.userId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId);
+    }
+}
@@ -0,0 +1,44 @@
+package by.egrius.app.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Objects;
+import java.util.UUID;
+
+// Счётчики полнотекстового индекса пользователя, строка служит и блокировкой при обновлении индекса
+@Entity
+@Table(name = "UserSearchIndex")
+@Builder
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSearchIndex {
+
+    @Id
+    @Column(name = "userId", updatable = false, nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false)
+    private int nextDocNo;
+
+    @Column(nullable = false)
+    private int liveDocuments;
+
+    @Column(nullable = false)
+    private int deletedDocuments;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UserSearchIndex that)) return false;
+        return Objects.equals(userId, that.userId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId);
+    }
+}
@@ -0,0 +1,5 @@
+package by.egrius.app.entity.enums;
+
+public enum CsvColumnType {
+    EMPTY, INTEGER, DECIMAL, BOOLEAN, STRING
+}
@@ -1,5 +1,5 @@
 package by.egrius.app.entity.enums;
 
 public enum FileEventType {
-    UPLOAD, PARSE_START, PARSE_END, ERROR, DELETED
+    UPLOAD, PARSE_START, PARSE_END, REGEX_START, REGEX_END, ERROR, DELETED
 }
@@ -13,13 +13,19 @@ import java.util.UUID;
 @ToString
 public class FileEvent extends ApplicationEvent {
     private final UUID fileId;
+    private final UUID userId;
     private final FileEventType fileEventType;
     private final Timestamp timestampEvent;
 
 
     public FileEvent(Object source, UUID fileId, FileEventType fileEventType, Timestamp timestampEvent) {
+        this(source, fileId, null, fileEventType, timestampEvent);
+    }
+
+    public FileEvent(Object source, UUID fileId, UUID userId, FileEventType fileEventType, Timestamp timestampEvent) {
         super(source);
         this.fileId = fileId;
+        this.userId = userId;
         this.fileEventType = fileEventType;
         this.timestampEvent = timestampEvent;
     }
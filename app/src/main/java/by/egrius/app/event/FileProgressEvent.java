@@ -0,0 +1,28 @@
+package by.egrius.app.event;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.UUID;
+
+// Промежуточный прогресс задачи; в outbox и журнал не попадает
+@Getter
+@ToString
+public class FileProgressEvent extends ApplicationEvent {
+
+    public enum Job {
+        ANALYSIS, REGEX
+    }
+
+    private final UUID fileId;
+    private final Job job;
+    private final int percent;
+
+    public FileProgressEvent(Object source, UUID fileId, Job job, int percent) {
+        super(source);
+        this.fileId = fileId;
+        this.job = job;
+        this.percent = percent;
+    }
+}
@@ -0,0 +1,82 @@
+package by.egrius.app.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Ограниченная очередь без блокировок для многих писателей и одного читателя.
+ * У каждой ячейки свой счётчик: писатель занимает ячейку CAS-ом по общему хвосту
+ * и публикует элемент записью счётчика, читатель забирает элементы по порядку.
+ */
+public final class MpscRingBuffer<T> {
+
+    private final Object[] items;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    public MpscRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ёмкость должна быть степенью двойки: " + capacity);
+        }
+        items = new Object[capacity];
+        sequences = new AtomicLongArray(capacity);
+        mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // false, если очередь заполнена
+    public boolean offer(T item) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items[index] = item;
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    // Только из потока-читателя
+    @SuppressWarnings("unchecked")
+    public int drain(Consumer<T> consumer, int limit) {
+        long position = head.get();
+        int drained = 0;
+        while (drained < limit) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            T item = (T) items[index];
+            items[index] = null;
+            sequences.lazySet(index, position + mask + 1);
+            position++;
+            drained++;
+            consumer.accept(item);
+        }
+        head.lazySet(position);
+        return drained;
+    }
+
+    // Приблизительный размер, для метрик
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+}
@@ -0,0 +1,29 @@
+package by.egrius.app.event;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Переводит обработанный объём в проценты и сообщает о них не чаще, чем раз в step процентов:
+ * токенизатор вызывает update на каждом слове, а подписчикам нужны единицы событий.
+ */
+public class ProgressTracker {
+
+    private final long total;
+    private final int step;
+    private final IntConsumer listener;
+    private int reported;
+
+    public ProgressTracker(long total, int step, IntConsumer listener) {
+        this.total = Math.max(total, 1);
+        this.step = step;
+        this.listener = listener;
+    }
+
+    public void update(long done) {
+        int percent = (int) Math.min(100, done * 100 / total);
+        if (percent >= reported + step && percent < 100) {
+            reported = percent - percent % step;
+            listener.accept(reported);
+        }
+    }
+}
@@ -3,17 +3,19 @@ package by.egrius.app.listener;
 import by.egrius.app.event.FileEvent;
 import by.egrius.app.service.FileEventLogService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.ApplicationListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 @Component
 @RequiredArgsConstructor
-public class FileEventListener implements ApplicationListener<FileEvent> {
+public class FileEventListener {
 
     private final FileEventLogService fileEventLogService;
 
-    @Override
-    public void onApplicationEvent(FileEvent event) {
+    // Только события зафиксированных транзакций; вне транзакции - сразу
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFileEvent(FileEvent event) {
         fileEventLogService.log(event);
     }
 }
@@ -0,0 +1,28 @@
+package by.egrius.app.listener;
+
+import by.egrius.app.event.FileEvent;
+import by.egrius.app.event.FileProgressEvent;
+import by.egrius.app.service.FileProgressService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+public class FileProgressListener {
+
+    private final FileProgressService fileProgressService;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFileEvent(FileEvent event) {
+        fileProgressService.onFileEvent(event);
+    }
+
+    // Прогресс идёт изнутри ещё не зафиксированной транзакции задачи, ждать коммита нельзя
+    @EventListener
+    public void onProgress(FileProgressEvent event) {
+        fileProgressService.onProgress(event);
+    }
+}
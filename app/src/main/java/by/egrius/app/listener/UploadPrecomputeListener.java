@@ -0,0 +1,26 @@
+package by.egrius.app.listener;
+
+import by.egrius.app.entity.enums.FileEventType;
+import by.egrius.app.event.FileEvent;
+import by.egrius.app.service.UploadPrecomputeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "file.precompute.enabled", havingValue = "true")
+public class UploadPrecomputeListener {
+
+    private final UploadPrecomputeService uploadPrecomputeService;
+
+    // После коммита, иначе воркер может не увидеть ещё не сохранённый файл
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onFileEvent(FileEvent event) {
+        if (event.getFileEventType() == FileEventType.UPLOAD && event.getUserId() != null) {
+            uploadPrecomputeService.submit(event.getUserId(), event.getFileId());
+        }
+    }
+}
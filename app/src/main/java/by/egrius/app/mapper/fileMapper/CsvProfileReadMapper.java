@@ -0,0 +1,30 @@
+package by.egrius.app.mapper.fileMapper;
+
+import by.egrius.app.dto.fileDTO.CsvColumnStatsDto;
+import by.egrius.app.dto.fileDTO.CsvProfileReadDto;
+import by.egrius.app.entity.CsvProfile;
+import by.egrius.app.mapper.BaseMapper;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CsvProfileReadMapper implements BaseMapper<CsvProfile, CsvProfileReadDto> {
+    @Override
+    public CsvProfileReadDto map(CsvProfile object) {
+        return new CsvProfileReadDto(
+                object.getRowCount(),
+                object.getDelimiter(),
+                object.getColumns().stream()
+                        .map(column -> new CsvColumnStatsDto(
+                                column.getName(),
+                                column.getType(),
+                                column.getNullCount(),
+                                column.getNonNullCount(),
+                                column.getMinValue(),
+                                column.getMaxValue(),
+                                column.getMeanValue(),
+                                column.getApproxDistinct()
+                        ))
+                        .toList()
+        );
+    }
+}
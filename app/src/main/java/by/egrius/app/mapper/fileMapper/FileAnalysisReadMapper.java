@@ -3,19 +3,56 @@ package by.egrius.app.mapper.fileMapper;
 import by.egrius.app.dto.fileDTO.FileAnalysisReadDto;
 import by.egrius.app.entity.FileAnalysis;
 import by.egrius.app.mapper.BaseMapper;
+import by.egrius.app.text.AnalysisCodec;
+import by.egrius.app.text.WordLengthStats;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.UUID;
+
 @Component
 public class FileAnalysisReadMapper implements BaseMapper<FileAnalysis, FileAnalysisReadDto> {
     @Override
     public FileAnalysisReadDto map(FileAnalysis object) {
+        return map(object, false);
+    }
+
+    public FileAnalysisReadDto map(FileAnalysis object, boolean includeWordLengths) {
+        if (object.getPayload() != null) {
+            return mapPayload(object.getId(), object.getPayload(), object.getStopWordsExcluded(), includeWordLengths);
+        }
+
+        // Анализ в старом формате: каждая карта читается отдельным запросом
+        Map<String, Integer> wordLengthMap = object.getWordLengthMap() != null ? object.getWordLengthMap() : Map.of();
+        WordLengthStats stats = WordLengthStats.of(wordLengthMap.keySet(), WordLengthStats.SAMPLE_SIZE);
         return new FileAnalysisReadDto(
                 object.getId(),
                 object.getTopWords(),
                 object.getStartsWithMap(),
                 object.getPunctuationMap(),
-                object.getWordLengthMap(),
+                stats.histogram(),
+                stats.longestWords(),
+                stats.shortestWords(),
+                includeWordLengths ? wordLengthMap : null,
                 object.getStopWordsExcluded()
         );
     }
+
+    // Общая расшифровка payload: по ней читают и анализ, и строка FileStatsView
+    public FileAnalysisReadDto mapPayload(UUID analysisId, byte[] encoded, Boolean stopWordsExcluded,
+                                          boolean includeWordLengths) {
+        AnalysisCodec.Payload payload = AnalysisCodec.decode(encoded);
+        WordLengthStats stats = payload.wordLengthStats();
+        return new FileAnalysisReadDto(
+                analysisId,
+                payload.topWords(),
+                payload.startsWithMap(),
+                payload.punctuationMap(),
+                stats.histogram(),
+                stats.longestWords(),
+                stats.shortestWords(),
+                includeWordLengths ? payload.wordLengthMap() : null,
+                stopWordsExcluded
+        );
+    }
 }
@@ -1,6 +1,7 @@
 package by.egrius.app.mapper.fileMapper;
 
 import by.egrius.app.dto.fileDTO.UploadedFileReadDto;
+import by.egrius.app.entity.FileContent;
 import by.egrius.app.entity.UploadedFile;
 import by.egrius.app.mapper.BaseMapper;
 import lombok.RequiredArgsConstructor;
@@ -12,11 +13,15 @@ public class UploadedFileReadMapper implements BaseMapper<UploadedFile, Uploaded
 
     @Override
     public UploadedFileReadDto map(UploadedFile object) {
+        FileContent content = object.getFileContent();
         return new UploadedFileReadDto(
                 object.getId(),
                 object.getFilename(),
                 object.getUploadTime(),
-                object.getContentType()
+                object.getContentType(),
+                content != null ? content.getSizeBytes() : null,
+                content != null ? content.getLineCount() : null,
+                content != null ? content.getWordCount() : null
         );
     }
 }
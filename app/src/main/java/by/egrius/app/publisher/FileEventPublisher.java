@@ -1,36 +1,123 @@
 package by.egrius.app.publisher;
 
+import by.egrius.app.entity.FileEventOutbox;
 import by.egrius.app.entity.enums.FileEventType;
-import by.egrius.app.event.FileEvent;
+import by.egrius.app.event.FileProgressEvent;
+import by.egrius.app.repository.FileEventOutboxRepository;
+import by.egrius.app.service.FileEventOutboxRelay;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.ApplicationEvent;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.sql.Timestamp;
-import java.time.LocalDateTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Событие записывается в outbox в транзакции вызывающего и рассылается
+ * FileEventOutboxRelay только после её коммита: откат отменяет и событие.
+ */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class FileEventPublisher {
 
-    private final ApplicationEventPublisher eventPublisher;
+    private final FileEventOutboxRepository outboxRepository;
+    private final FileEventOutboxRelay outboxRelay;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final AtomicLong lastMicros = new AtomicLong();
 
     public void publish(FileEventType type, UUID fileId) {
-        FileEvent event = new FileEvent(this, fileId, type, Timestamp.valueOf(LocalDateTime.now()));
-        eventPublisher.publishEvent(event);
+        publish(type, fileId, null);
+    }
+
+    public void publish(FileEventType type, UUID fileId, UUID userId) {
+        outboxRepository.save(entry(type, fileId, userId));
+        outboxRelay.wakeUpAfterCommit();
     }
 
-    public void publishUpload(UUID fileId) {
-        publish(FileEventType.UPLOAD, fileId);
+    public void publishUpload(UUID fileId, UUID userId) {
+        publish(FileEventType.UPLOAD, fileId, userId);
     }
 
     public void publishParsed(UUID fileId) {
         publish(FileEventType.PARSE_END, fileId);
     }
 
-    public void publishDeleted(UUID fileId) {
-        publish(FileEventType.DELETED, fileId);
+    // После удаления владельца файла уже не найти, поэтому он передаётся явно
+    public void publishDeleted(UUID fileId, UUID userId) {
+        publish(FileEventType.DELETED, fileId, userId);
+    }
+
+    // Пакетное удаление: записи outbox одним saveAll, relay будится один раз
+    public void publishDeleted(Collection<UUID> fileIds, UUID userId) {
+        if (fileIds.isEmpty()) {
+            return;
+        }
+        outboxRepository.saveAll(fileIds.stream()
+                .map(fileId -> entry(FileEventType.DELETED, fileId, userId))
+                .toList());
+        outboxRelay.wakeUpAfterCommit();
+    }
+
+    /**
+     * Прогресс нужен только подписчикам прямо сейчас: без outbox и журнала.
+     * 100% означает готовый результат, поэтому оно отправляется только после коммита.
+     */
+    public void publishProgress(UUID fileId, FileProgressEvent.Job job, int percent) {
+        FileProgressEvent event = new FileProgressEvent(this, fileId, job, percent);
+        if (percent >= 100 && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applicationEventPublisher.publishEvent(event);
+                }
+            });
+        } else {
+            applicationEventPublisher.publishEvent(event);
+        }
+    }
+
+    /**
+     * ERROR пишется в отдельной транзакции, чтобы пережить откат основной.
+     * Сбой записи только логируется и не подменяет исходную ошибку.
+     */
+    public void publishError(UUID fileId) {
+        try {
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            template.executeWithoutResult(status -> outboxRepository.save(entry(FileEventType.ERROR, fileId, null)));
+            outboxRelay.wakeUp();
+        } catch (RuntimeException e) {
+            log.error("Не удалось записать событие ERROR для файла {}", fileId, e);
+        }
+    }
+
+    private FileEventOutbox entry(FileEventType type, UUID fileId, UUID userId) {
+        return FileEventOutbox.builder()
+                .fileId(fileId)
+                .userId(userId)
+                .eventType(type)
+                .occurredAt(nextTimestamp())
+                .build();
+    }
+
+    // Строго возрастающее время в микросекундах: рассылка сортирует по нему, и события не переставляются
+    private Timestamp nextTimestamp() {
+        Instant now = Instant.now();
+        long micros = now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+        long value = lastMicros.updateAndGet(last -> Math.max(last + 1, micros));
+        return Timestamp.from(Instant.EPOCH.plus(value, ChronoUnit.MICROS));
     }
 }
@@ -0,0 +1,31 @@
+package by.egrius.app.repository;
+
+import by.egrius.app.entity.CsvProfile;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface CsvProfileRepository extends JpaRepository<CsvProfile, UUID> {
+
+    @Query("SELECT p FROM CsvProfile p LEFT JOIN FETCH p.columns WHERE p.uploadedFile.id = :fileId")
+    Optional<CsvProfile> findWithColumnsByFileId(@Param("fileId") UUID fileId);
+
+    // Таблица коллекции без сущности, поэтому SQL. query.native.spaces ограничивает сброс кэша
+    // этой таблицей: без подсказки native DML очищает весь кэш второго уровня
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "csv_column_stats"))
+    @Query(value = "DELETE FROM csv_column_stats WHERE profile_id IN " +
+            "(SELECT p.id FROM csv_profile p WHERE p.file_id IN :fileIds)", nativeQuery = true)
+    int deleteColumnStatsByFileIds(@Param("fileIds") Collection<UUID> fileIds);
+
+    @Modifying
+    @Query("DELETE FROM CsvProfile p WHERE p.uploadedFile.id IN :fileIds")
+    int deleteByFileIds(@Param("fileIds") Collection<UUID> fileIds);
+}
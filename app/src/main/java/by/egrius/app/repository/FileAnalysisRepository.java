@@ -1,8 +1,14 @@
 package by.egrius.app.repository;
 
 import by.egrius.app.entity.FileAnalysis;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -10,7 +16,40 @@ public interface FileAnalysisRepository extends JpaRepository<FileAnalysis, UUID
 
     Optional<FileAnalysis> findByUploadedFile_Id(UUID fileId);
 
+    // Владелец проверяется в том же запросе; чужой файл и файл без анализа неразличимы.
+    // Без кэша запросов: кэш узла не видит удалений с других узлов
+    @Query("SELECT a FROM FileAnalysis a WHERE a.uploadedFile.id = :fileId AND a.uploadedFile.user.userId = :userId")
+    Optional<FileAnalysis> findByFileIdAndUserId(@Param("fileId") UUID fileId, @Param("userId") UUID userId);
+
     boolean existsByUploadedFile_Id(UUID fileId);
 
     void deleteByUploadedFile_Id(UUID fileId);
+
+    // Коллекции анализов, созданных до payload. Таблицы без сущностей, поэтому SQL;
+    // query.native.spaces ограничивает сброс кэша второго уровня этими таблицами
+    String ANALYSIS_IDS = "(SELECT a.id FROM file_analysis a WHERE a.file_id IN :fileIds)";
+
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "starts_with_map"))
+    @Query(value = "DELETE FROM starts_with_map WHERE file_id IN " + ANALYSIS_IDS, nativeQuery = true)
+    int deleteStartsWithByFileIds(@Param("fileIds") Collection<UUID> fileIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "punctuation_stats"))
+    @Query(value = "DELETE FROM punctuation_stats WHERE file_id IN " + ANALYSIS_IDS, nativeQuery = true)
+    int deletePunctuationByFileIds(@Param("fileIds") Collection<UUID> fileIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "top_words"))
+    @Query(value = "DELETE FROM top_words WHERE file_id IN " + ANALYSIS_IDS, nativeQuery = true)
+    int deleteTopWordsByFileIds(@Param("fileIds") Collection<UUID> fileIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "words_length"))
+    @Query(value = "DELETE FROM words_length WHERE file_id IN " + ANALYSIS_IDS, nativeQuery = true)
+    int deleteWordLengthsByFileIds(@Param("fileIds") Collection<UUID> fileIds);
+
+    @Modifying
+    @Query("DELETE FROM FileAnalysis a WHERE a.uploadedFile.id IN :fileIds")
+    int deleteByFileIds(@Param("fileIds") Collection<UUID> fileIds);
 }
@@ -0,0 +1,37 @@
+package by.egrius.app.repository;
+
+import by.egrius.app.dto.fileDTO.GrepCandidateDto;
+import by.egrius.app.entity.FileContent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public interface FileContentRepository extends JpaRepository<FileContent, UUID> {
+
+    @Query("SELECT c.lineIndex FROM FileContent c WHERE c.uploadedFile.id = :fileId")
+    byte[] findLineIndexByFileId(@Param("fileId") UUID fileId);
+
+    @Query("SELECT c.rawText FROM FileContent c WHERE c.uploadedFile.id = :fileId")
+    String findRawTextByFileId(@Param("fileId") UUID fileId);
+
+    // start - с единицы, как в SQL
+    @Query("SELECT SUBSTRING(c.rawText, :start, :length) FROM FileContent c WHERE c.uploadedFile.id = :fileId")
+    String findTextRange(@Param("fileId") UUID fileId,
+                         @Param("start") int start,
+                         @Param("length") int length);
+
+    // Кандидаты для grep: только маска триграмм, сам текст не читается
+    @Query("SELECT new by.egrius.app.dto.fileDTO.GrepCandidateDto(f.id, f.filename, c.trigramFilter) " +
+            "FROM FileContent c JOIN c.uploadedFile f WHERE f.user.userId = :userId ORDER BY f.id")
+    Slice<GrepCandidateDto> findGrepCandidates(@Param("userId") UUID userId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM FileContent c WHERE c.uploadedFile.id IN :fileIds")
+    int deleteByFileIds(@Param("fileIds") Collection<UUID> fileIds);
+}
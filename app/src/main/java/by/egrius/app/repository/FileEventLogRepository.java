@@ -1,12 +1,52 @@
 package by.egrius.app.repository;
 
+import by.egrius.app.dto.fileDTO.FileEventTimelineDto;
 import by.egrius.app.entity.FileEventLog;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface FileEventLogRepository extends CrudRepository<FileEventLog, UUID> {
 
-}
\ No newline at end of file
+    // Лента от новых к старым; курсор - (timestamp, id) последнего события предыдущей страницы
+    String TIMELINE = "SELECT new by.egrius.app.dto.fileDTO.FileEventTimelineDto(" +
+            "e.id, e.fileId, e.fileEventType, e.timestamp) FROM FileEventLog e ";
+    String RANGE = "AND e.timestamp >= :from AND e.timestamp < :to ";
+    String AFTER_CURSOR = "AND (e.timestamp < :cursorTime OR (e.timestamp = :cursorTime AND e.id < :cursorId)) ";
+    String ORDER = "ORDER BY e.timestamp DESC, e.id DESC";
+
+    @Query(TIMELINE + "WHERE e.fileId = :fileId " + RANGE + ORDER)
+    List<FileEventTimelineDto> findFileTimeline(@Param("fileId") UUID fileId,
+                                                @Param("from") Timestamp from,
+                                                @Param("to") Timestamp to,
+                                                Pageable pageable);
+
+    @Query(TIMELINE + "WHERE e.fileId = :fileId " + RANGE + AFTER_CURSOR + ORDER)
+    List<FileEventTimelineDto> findFileTimelineAfter(@Param("fileId") UUID fileId,
+                                                     @Param("from") Timestamp from,
+                                                     @Param("to") Timestamp to,
+                                                     @Param("cursorTime") Timestamp cursorTime,
+                                                     @Param("cursorId") UUID cursorId,
+                                                     Pageable pageable);
+
+    @Query(TIMELINE + "WHERE e.userId = :userId " + RANGE + ORDER)
+    List<FileEventTimelineDto> findUserTimeline(@Param("userId") UUID userId,
+                                                @Param("from") Timestamp from,
+                                                @Param("to") Timestamp to,
+                                                Pageable pageable);
+
+    @Query(TIMELINE + "WHERE e.userId = :userId " + RANGE + AFTER_CURSOR + ORDER)
+    List<FileEventTimelineDto> findUserTimelineAfter(@Param("userId") UUID userId,
+                                                     @Param("from") Timestamp from,
+                                                     @Param("to") Timestamp to,
+                                                     @Param("cursorTime") Timestamp cursorTime,
+                                                     @Param("cursorId") UUID cursorId,
+                                                     Pageable pageable);
+}
@@ -0,0 +1,29 @@
+package by.egrius.app.repository;
+
+import by.egrius.app.entity.FileEventOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+public interface FileEventOutboxRepository extends JpaRepository<FileEventOutbox, UUID> {
+
+    // FOR UPDATE SKIP LOCKED: несколько экземпляров приложения разбирают разные пачки
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM FileEventOutbox e WHERE e.dispatchedAt IS NULL ORDER BY e.occurredAt")
+    List<FileEventOutbox> lockPending(Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE FileEventOutbox e SET e.dispatchedAt = NULL WHERE e.occurredAt >= :since")
+    int resetDispatchedSince(@Param("since") Timestamp since);
+
+    @Modifying
+    @Query("DELETE FROM FileEventOutbox e WHERE e.dispatchedAt < :before")
+    int deleteDispatchedBefore(@Param("before") Timestamp before);
+}
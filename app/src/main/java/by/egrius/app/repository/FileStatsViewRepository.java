@@ -0,0 +1,50 @@
+package by.egrius.app.repository;
+
+import by.egrius.app.entity.FileStatsView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+// Обновления точечные: анализ и regex-поиск пишут свои колонки и не затирают друг друга
+public interface FileStatsViewRepository extends JpaRepository<FileStatsView, UUID> {
+
+    // Без кэша запросов: владелец проверяется здесь же, а кэш узла не видит удалений с других узлов
+    Optional<FileStatsView> findByFileIdAndUserId(UUID fileId, UUID userId);
+
+    // Обычный INSERT, а не merge: строку, собранную параллельно, он не перезапишет, а упадёт по ключу
+    @Modifying
+    @Query("INSERT INTO FileStatsView (fileId, userId, filename, uploadTime, contentType, sizeBytes, lineCount, " +
+            "wordCount, analysisId, stopWordsExcluded, analysis, regexMatches, regexMatchCount) VALUES (" +
+            ":#{#view.fileId}, :#{#view.userId}, :#{#view.filename}, :#{#view.uploadTime}, :#{#view.contentType}, " +
+            ":#{#view.sizeBytes}, :#{#view.lineCount}, :#{#view.wordCount}, :#{#view.analysisId}, " +
+            ":#{#view.stopWordsExcluded}, :#{#view.analysis}, :#{#view.regexMatches}, :#{#view.regexMatchCount})")
+    int insert(@Param("view") FileStatsView view);
+
+    @Modifying
+    @Query("UPDATE FileStatsView v SET v.analysisId = :analysisId, v.analysis = :analysis, " +
+            "v.stopWordsExcluded = :stopWordsExcluded WHERE v.fileId = :fileId")
+    int updateAnalysis(@Param("fileId") UUID fileId,
+                       @Param("analysisId") UUID analysisId,
+                       @Param("analysis") byte[] analysis,
+                       @Param("stopWordsExcluded") Boolean stopWordsExcluded);
+
+    @Modifying
+    @Query("UPDATE FileStatsView v SET v.regexMatches = :regexMatches, v.regexMatchCount = :regexMatchCount " +
+            "WHERE v.fileId = :fileId")
+    int updateRegexMatches(@Param("fileId") UUID fileId,
+                           @Param("regexMatches") byte[] regexMatches,
+                           @Param("regexMatchCount") Long regexMatchCount);
+
+    @Modifying
+    @Query("DELETE FROM FileStatsView v WHERE v.userId = :userId")
+    int deleteAllByUserId(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query("DELETE FROM FileStatsView v WHERE v.fileId IN :fileIds")
+    int deleteByFileIds(@Param("fileIds") Collection<UUID> fileIds);
+}
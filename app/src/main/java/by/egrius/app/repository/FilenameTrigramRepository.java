@@ -0,0 +1,31 @@
+package by.egrius.app.repository;
+
+import by.egrius.app.dto.fileDTO.FilenameRefDto;
+import by.egrius.app.entity.FilenameTrigram;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface FilenameTrigramRepository extends JpaRepository<FilenameTrigram, UUID> {
+
+    @Modifying
+    @Query("DELETE FROM FilenameTrigram t WHERE t.userId = :userId")
+    int deleteAllByUserId(@Param("userId") UUID userId);
+
+    // Файлы, загруженные до появления индекса, страницами по id
+    @Query("SELECT new by.egrius.app.dto.fileDTO.FilenameRefDto(f.id, f.user.userId, f.filename) " +
+            "FROM UploadedFile f WHERE LENGTH(f.filename) >= 3 AND f.id > :afterId " +
+            "AND NOT EXISTS (SELECT t.id FROM FilenameTrigram t WHERE t.fileId = f.id) " +
+            "ORDER BY f.id")
+    List<FilenameRefDto> findUnindexedFiles(@Param("afterId") UUID afterId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM FilenameTrigram t WHERE t.fileId IN :fileIds")
+    int deleteByFileIds(@Param("fileIds") Collection<UUID> fileIds);
+}
@@ -3,9 +3,11 @@ package by.egrius.app.repository;
 import by.egrius.app.entity.PatternMatches;
 import by.egrius.app.entity.enums.PatternType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -14,4 +16,15 @@ public interface PatternMatchesRepository extends JpaRepository<PatternMatches,
     @Query("SELECT pm FROM PatternMatches pm WHERE pm.regexMatch.uploadedFile.id = :fileId AND pm.patternType = :patternType")
     List<PatternMatches> findByRegexMatchUploadedFileIdAndPatternType(@Param("fileId") UUID fileId,
                                                                       @Param("patternType") PatternType type);
+
+    @Query("SELECT pm FROM PatternMatches pm WHERE pm.regexMatch.uploadedFile.id = :fileId " +
+            "AND pm.regexMatch.uploadedFile.user.userId = :userId AND pm.patternType = :patternType")
+    List<PatternMatches> findByFileIdAndUserIdAndPatternType(@Param("fileId") UUID fileId,
+                                                             @Param("userId") UUID userId,
+                                                             @Param("patternType") PatternType type);
+
+    @Modifying
+    @Query("DELETE FROM PatternMatches p WHERE p.regexMatch.id IN " +
+            "(SELECT r.id FROM RegexMatch r WHERE r.uploadedFile.id IN :fileIds)")
+    int deleteByFileIds(@Param("fileIds") Collection<UUID> fileIds);
 }
@@ -1,14 +1,33 @@
 package by.egrius.app.repository;
 
 import by.egrius.app.entity.RegexMatch;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface RegexMatchRepository extends JpaRepository<RegexMatch, UUID> {
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<RegexMatch> findByUploadedFileId(@RequestParam("fileId") UUID fileId);
+
+    // Совпадения подтягиваются тем же запросом, владелец проверяется в нём же.
+    // Без кэша запросов: кэш узла не видит удалений с других узлов
+    @Query("SELECT r FROM RegexMatch r LEFT JOIN FETCH r.patternMatches " +
+            "WHERE r.uploadedFile.id = :fileId AND r.uploadedFile.user.userId = :userId")
+    Optional<RegexMatch> findByFileIdAndUserId(@Param("fileId") UUID fileId, @Param("userId") UUID userId);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    boolean existsByUploadedFileId(UUID fileId);
+
+    @Modifying
+    @Query("DELETE FROM RegexMatch r WHERE r.uploadedFile.id IN :fileIds")
+    int deleteByFileIds(@Param("fileIds") Collection<UUID> fileIds);
 }
@@ -0,0 +1,37 @@
+package by.egrius.app.repository;
+
+import by.egrius.app.entity.SearchDocument;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface SearchDocumentRepository extends JpaRepository<SearchDocument, UUID> {
+
+    Optional<SearchDocument> findByFileId(UUID fileId);
+
+    @Query("SELECT d FROM SearchDocument d WHERE d.userId = :userId AND d.docNo IN :docNos AND d.deleted = false")
+    List<SearchDocument> findLiveByDocNos(@Param("userId") UUID userId,
+                                          @Param("docNos") Collection<Integer> docNos);
+
+    @Query("SELECT d.docNo FROM SearchDocument d WHERE d.userId = :userId AND d.deleted = true")
+    List<Integer> findDeletedDocNos(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query("DELETE FROM SearchDocument d WHERE d.userId = :userId AND d.deleted = true")
+    int deleteTombstones(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query("DELETE FROM SearchDocument d WHERE d.userId = :userId")
+    int deleteAllByUserId(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query("UPDATE SearchDocument d SET d.deleted = true " +
+            "WHERE d.userId = :userId AND d.fileId IN :fileIds AND d.deleted = false")
+    int markDeleted(@Param("userId") UUID userId, @Param("fileIds") Collection<UUID> fileIds);
+}
@@ -0,0 +1,26 @@
+package by.egrius.app.repository;
+
+import by.egrius.app.entity.SearchPosting;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface SearchPostingRepository extends JpaRepository<SearchPosting, UUID> {
+
+    @Query("SELECT p FROM SearchPosting p WHERE p.userId = :userId AND p.term IN :terms")
+    List<SearchPosting> findByUserIdAndTerms(@Param("userId") UUID userId,
+                                             @Param("terms") Collection<String> terms);
+
+    @Query("SELECT p FROM SearchPosting p WHERE p.userId = :userId")
+    Stream<SearchPosting> streamByUserId(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query("DELETE FROM SearchPosting p WHERE p.userId = :userId")
+    int deleteAllByUserId(@Param("userId") UUID userId);
+}
@@ -0,0 +1,33 @@
+package by.egrius.app.repository;
+
+import by.egrius.app.entity.TermPositions;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface TermPositionsRepository extends JpaRepository<TermPositions, UUID> {
+
+    @Query("SELECT t FROM TermPositions t WHERE t.fileId = :fileId AND t.term IN :terms")
+    List<TermPositions> findByFileIdAndTerms(@Param("fileId") UUID fileId,
+                                             @Param("terms") Collection<String> terms);
+
+    boolean existsByFileId(UUID fileId);
+
+    @Modifying
+    @Query("DELETE FROM TermPositions t WHERE t.fileId = :fileId")
+    int deleteByFileId(@Param("fileId") UUID fileId);
+
+    @Modifying
+    @Query("DELETE FROM TermPositions t WHERE t.fileId IN " +
+            "(SELECT f.id FROM UploadedFile f WHERE f.user.userId = :userId)")
+    int deleteAllByUserId(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query("DELETE FROM TermPositions t WHERE t.fileId IN :fileIds")
+    int deleteByFileIds(@Param("fileIds") Collection<UUID> fileIds);
+}
@@ -1,13 +1,21 @@
 package by.egrius.app.repository;
 
+import by.egrius.app.dto.fileDTO.FilenameRefDto;
+import by.egrius.app.dto.fileDTO.UploadedFileReadDto;
 import by.egrius.app.entity.UploadedFile;
+import by.egrius.app.entity.enums.ContentType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,9 +23,21 @@ import java.util.UUID;
 @Repository
 public interface UploadedFileRepository extends JpaRepository<UploadedFile, UUID> {
 
-    @Query("SELECT f from UploadedFile f WHERE f.user.userId = :userId")
-    Page<UploadedFile> findAllFilesByUserId(@Param("userId") UUID userId,
-                                            Pageable pageable);
+    // Проекции только по метаданным: TEXT-колонка и связанные анализы не читаются
+    String READ_DTO = "SELECT new by.egrius.app.dto.fileDTO.UploadedFileReadDto(" +
+            "f.id, f.filename, f.uploadTime, f.contentType, c.sizeBytes, c.lineCount, c.wordCount) " +
+            "FROM UploadedFile f LEFT JOIN f.fileContent c ";
+
+    // Файлы, имя которых содержит все триграммы ключевого слова
+    String TRIGRAM_CANDIDATES = "SELECT t.fileId FROM FilenameTrigram t " +
+            "WHERE t.userId = :userId AND t.trigram IN :trigrams " +
+            "GROUP BY t.fileId HAVING COUNT(t) = :trigramCount";
+
+    // Постраничность по курсору (uploadTime, id) от новых к старым, без COUNT
+    String AFTER_CURSOR = "AND (f.uploadTime < :cursorTime OR (f.uploadTime = :cursorTime AND f.id < :cursorId)) ";
+    String KEYSET_ORDER = "ORDER BY f.uploadTime DESC, f.id DESC";
+    String BY_FILENAME = "AND LOWER(f.filename) LIKE :pattern ESCAPE '!' ";
+    String BY_TRIGRAMS = "AND f.id IN (" + TRIGRAM_CANDIDATES + ") " + BY_FILENAME;
 
     @Query("SELECT f FROM UploadedFile f JOIN FETCH f.user u WHERE f.filename = :filename AND u.userId = :userId")
     Optional<UploadedFile> findByFilenameAndUserId(@Param("filename") String filename,
@@ -32,20 +52,150 @@ public interface UploadedFileRepository extends JpaRepository<UploadedFile, UUID
                                                       @Param("userId") UUID userId);
 
     // @EntityGraph(attributePaths = {"fileAnalysis"})
-    @Query("SELECT f FROM UploadedFile f LEFT JOIN FETCH f.fileAnalysis WHERE f.id = :id")
+    // Файл для анализа и regex-поиска вместе с проверкой владельца: один запрос вместо проверки и повторной загрузки.
+    // Обратные OneToOne без bytecode enhancement Hibernate дочитывает отдельными запросами, поэтому все они в JOIN FETCH
+    @Query("SELECT f FROM UploadedFile f LEFT JOIN FETCH f.fileContent LEFT JOIN FETCH f.fileAnalysis " +
+            "LEFT JOIN FETCH f.regexMatch LEFT JOIN FETCH f.csvProfile " +
+            "WHERE f.id = :fileId AND f.user.userId = :userId")
+    Optional<UploadedFile> findForProcessing(@Param("fileId") UUID fileId, @Param("userId") UUID userId);
+
+    // Текст в том же запросе: анализ читает его сразу, а замер этапа load должен включать загрузку содержимого
+    @Query("SELECT f FROM UploadedFile f LEFT JOIN FETCH f.fileContent LEFT JOIN FETCH f.fileAnalysis WHERE f.id = :id")
     Optional<UploadedFile> findWithFileAnalysisById(@Param("id") UUID id);
 
     long countByUser_UserId(UUID userId);
 
-    @Query("SELECT f FROM UploadedFile f WHERE f.user.userId = :userId ORDER BY f.uploadTime DESC")
-    List<UploadedFile> findTopByUser_UserIdOrderByUploadTimeDesc(@Param("userId") UUID userId, Pageable pageable);
+    // Общее число для курсорных страниц запрашивается отдельно и живёт в кэше запросов
+    // до первой записи в таблицу UploadedFile
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query("SELECT COUNT(f) FROM UploadedFile f WHERE f.user.userId = :userId")
+    long countCachedByUserId(@Param("userId") UUID userId);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query("SELECT COUNT(f) FROM UploadedFile f WHERE f.user.userId = :userId AND f.contentType = :contentType")
+    long countCachedByContentType(@Param("userId") UUID userId, @Param("contentType") ContentType contentType);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query("SELECT COUNT(f) FROM UploadedFile f WHERE f.user.userId = :userId " + BY_FILENAME)
+    long countCachedByFilename(@Param("userId") UUID userId, @Param("pattern") String pattern);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query("SELECT COUNT(f) FROM UploadedFile f WHERE f.user.userId = :userId " + BY_TRIGRAMS)
+    long countCachedByFilenameTrigrams(@Param("userId") UUID userId,
+                                       @Param("trigrams") Collection<String> trigrams,
+                                       @Param("trigramCount") long trigramCount,
+                                       @Param("pattern") String pattern);
+
+    @Query(READ_DTO + "WHERE f.id = :fileId AND f.user.userId = :userId")
+    Optional<UploadedFileReadDto> findReadDtoByIdAndUserId(@Param("fileId") UUID fileId,
+                                                           @Param("userId") UUID userId);
+
+    @Query(READ_DTO + "WHERE f.filename = :filename AND f.user.userId = :userId")
+    Optional<UploadedFileReadDto> findReadDtoByFilenameAndUserId(@Param("filename") String filename,
+                                                                 @Param("userId") UUID userId);
+
+    @Query(value = READ_DTO + "WHERE f.user.userId = :userId",
+            countQuery = "SELECT COUNT(f) FROM UploadedFile f WHERE f.user.userId = :userId")
+    Page<UploadedFileReadDto> findReadDtosByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    @Query(READ_DTO + "WHERE f.user.userId = :userId ORDER BY f.uploadTime DESC")
+    List<UploadedFileReadDto> findRecentReadDtosByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    // Для ключевых слов короче трёх символов, когда триграмм нет
+    @Query(value = READ_DTO + "WHERE f.user.userId = :userId AND LOWER(f.filename) LIKE :pattern ESCAPE '!'",
+            countQuery = "SELECT COUNT(f) FROM UploadedFile f WHERE f.user.userId = :userId AND LOWER(f.filename) LIKE :pattern ESCAPE '!'")
+    Page<UploadedFileReadDto> searchReadDtosByFilename(@Param("userId") UUID userId,
+                                                       @Param("pattern") String pattern,
+                                                       Pageable pageable);
+
+    @Query(value = READ_DTO + "WHERE f.user.userId = :userId AND f.id IN (" + TRIGRAM_CANDIDATES + ") " +
+            "AND LOWER(f.filename) LIKE :pattern ESCAPE '!' " +
+            "ORDER BY CASE WHEN LOWER(f.filename) LIKE :prefix ESCAPE '!' THEN 0 ELSE 1 END, LENGTH(f.filename), f.filename",
+            countQuery = "SELECT COUNT(f) FROM UploadedFile f WHERE f.user.userId = :userId " +
+                    "AND f.id IN (" + TRIGRAM_CANDIDATES + ") AND LOWER(f.filename) LIKE :pattern ESCAPE '!'")
+    Page<UploadedFileReadDto> searchReadDtosByFilenameTrigrams(@Param("userId") UUID userId,
+                                                               @Param("trigrams") Collection<String> trigrams,
+                                                               @Param("trigramCount") long trigramCount,
+                                                               @Param("pattern") String pattern,
+                                                               @Param("prefix") String prefix,
+                                                               Pageable pageable);
+
+    @Query(value = READ_DTO + "WHERE f.user.userId = :userId AND f.contentType = :contentType",
+            countQuery = "SELECT COUNT(f) FROM UploadedFile f WHERE f.user.userId = :userId AND f.contentType = :contentType")
+    Page<UploadedFileReadDto> findReadDtosByContentType(@Param("userId") UUID userId,
+                                                        @Param("contentType") ContentType contentType,
+                                                        Pageable pageable);
+
+    @Query(READ_DTO + "WHERE f.user.userId = :userId " + KEYSET_ORDER)
+    List<UploadedFileReadDto> findFirstKeysetPage(@Param("userId") UUID userId, Pageable pageable);
+
+    @Query(READ_DTO + "WHERE f.user.userId = :userId " + AFTER_CURSOR + KEYSET_ORDER)
+    List<UploadedFileReadDto> findKeysetPageAfter(@Param("userId") UUID userId,
+                                                  @Param("cursorTime") Timestamp cursorTime,
+                                                  @Param("cursorId") UUID cursorId,
+                                                  Pageable pageable);
+
+    @Query(READ_DTO + "WHERE f.user.userId = :userId AND f.contentType = :contentType " + KEYSET_ORDER)
+    List<UploadedFileReadDto> findFirstKeysetPageByContentType(@Param("userId") UUID userId,
+                                                               @Param("contentType") ContentType contentType,
+                                                               Pageable pageable);
+
+    @Query(READ_DTO + "WHERE f.user.userId = :userId AND f.contentType = :contentType " + AFTER_CURSOR + KEYSET_ORDER)
+    List<UploadedFileReadDto> findKeysetPageByContentTypeAfter(@Param("userId") UUID userId,
+                                                               @Param("contentType") ContentType contentType,
+                                                               @Param("cursorTime") Timestamp cursorTime,
+                                                               @Param("cursorId") UUID cursorId,
+                                                               Pageable pageable);
+
+    @Query(READ_DTO + "WHERE f.user.userId = :userId " + BY_FILENAME + KEYSET_ORDER)
+    List<UploadedFileReadDto> searchFirstKeysetPage(@Param("userId") UUID userId,
+                                                    @Param("pattern") String pattern,
+                                                    Pageable pageable);
+
+    @Query(READ_DTO + "WHERE f.user.userId = :userId " + BY_FILENAME + AFTER_CURSOR + KEYSET_ORDER)
+    List<UploadedFileReadDto> searchKeysetPageAfter(@Param("userId") UUID userId,
+                                                    @Param("pattern") String pattern,
+                                                    @Param("cursorTime") Timestamp cursorTime,
+                                                    @Param("cursorId") UUID cursorId,
+                                                    Pageable pageable);
+
+    @Query(READ_DTO + "WHERE f.user.userId = :userId " + BY_TRIGRAMS + KEYSET_ORDER)
+    List<UploadedFileReadDto> searchFirstKeysetPageByTrigrams(@Param("userId") UUID userId,
+                                                              @Param("trigrams") Collection<String> trigrams,
+                                                              @Param("trigramCount") long trigramCount,
+                                                              @Param("pattern") String pattern,
+                                                              Pageable pageable);
+
+    @Query(READ_DTO + "WHERE f.user.userId = :userId " + BY_TRIGRAMS + AFTER_CURSOR + KEYSET_ORDER)
+    List<UploadedFileReadDto> searchKeysetPageByTrigramsAfter(@Param("userId") UUID userId,
+                                                              @Param("trigrams") Collection<String> trigrams,
+                                                              @Param("trigramCount") long trigramCount,
+                                                              @Param("pattern") String pattern,
+                                                              @Param("cursorTime") Timestamp cursorTime,
+                                                              @Param("cursorId") UUID cursorId,
+                                                              Pageable pageable);
+
+    // Без кэша запросов: кэш локален для узла, и удаление файла на другом узле
+    // не должно оставлять доступ к нему по устаревшей проверке владельца
+    boolean existsByIdAndUser_UserId(UUID id, UUID userId);
+
+    @Query("SELECT new by.egrius.app.dto.fileDTO.FilenameRefDto(f.id, f.user.userId, f.filename) " +
+            "FROM UploadedFile f WHERE f.id IN :ids")
+    List<FilenameRefDto> findRefsByIds(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT f.id FROM UploadedFile f WHERE f.user.userId = :userId AND f.id IN :fileIds")
+    List<UUID> findOwnedIds(@Param("userId") UUID userId, @Param("fileIds") Collection<UUID> fileIds);
 
-    @Query("SELECT f FROM UploadedFile f WHERE f.user.userId = :userId AND f.filename LIKE %:keyword%")
-    Page<UploadedFile> findByUser_IdAndFilenameContaining(@Param("userId") UUID userId,
-                                                          @Param("keyword") String keyword,
-                                                          Pageable pageable);
+    @Query("SELECT f.id FROM UploadedFile f WHERE f.user.userId = :userId")
+    List<UUID> findIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
 
-    @Query("SELECT f FROM UploadedFile f WHERE f.user.userId = :userId AND f.contentType = :contentType")
-    Page<UploadedFile> findByUserIdAndContentType(UUID userId, String contentType, Pageable pageable);
+    @Query("SELECT f.id FROM UploadedFile f WHERE f.user.userId = :userId AND f.uploadTime < :before")
+    List<UUID> findIdsUploadedBefore(@Param("userId") UUID userId,
+                                     @Param("before") Timestamp before,
+                                     Pageable pageable);
 
-}
\ No newline at end of file
+    // Строки анализа, regex-результата, профиля CSV и содержимого удаляются раньше
+    @Modifying
+    @Query("DELETE FROM UploadedFile f WHERE f.id IN :fileIds")
+    int deleteByIds(@Param("fileIds") Collection<UUID> fileIds);
+}
@@ -0,0 +1,22 @@
+package by.egrius.app.repository;
+
+import by.egrius.app.entity.UserPurge;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface UserPurgeRepository extends JpaRepository<UserPurge, UUID> {
+
+    // FOR UPDATE SKIP LOCKED: несколько экземпляров приложения удаляют разных пользователей
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT p FROM UserPurge p ORDER BY p.requestedAt")
+    List<UserPurge> lockNext(Pageable pageable);
+}
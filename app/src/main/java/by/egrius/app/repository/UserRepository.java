@@ -1,12 +1,34 @@
 package by.egrius.app.repository;
 
+import by.egrius.app.dto.userDTO.UserCredentialsDto;
 import by.egrius.app.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
+
+    // Без кэша запросов: версию сверяют с БД, чтобы увидеть изменения с других узлов
+    @Query("SELECT u.securityVersion FROM User u WHERE u.username = :username")
+    Optional<Long> findSecurityVersionByUsername(@Param("username") String username);
+
+    // Проекция для UserDetailsCache: мимо кэша второго уровня и контекста персистентности,
+    // снимок всегда строится по текущей строке в БД
+    @Query("SELECT new by.egrius.app.dto.userDTO.UserCredentialsDto(" +
+            "u.userId, u.username, u.email, u.password, u.deletedAt, u.securityVersion) " +
+            "FROM User u WHERE u.username = :username")
+    Optional<UserCredentialsDto> findCredentialsByUsername(@Param("username") String username);
+
     boolean existsByEmail(String email);
+
+    // Без каскада по uploadedFiles: файлы к этому моменту уже удалены пачками
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.userId = :userId")
+    int deleteRowById(@Param("userId") UUID userId);
 }
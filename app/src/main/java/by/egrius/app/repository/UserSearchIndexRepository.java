@@ -0,0 +1,24 @@
+package by.egrius.app.repository;
+
+import by.egrius.app.entity.UserSearchIndex;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface UserSearchIndexRepository extends JpaRepository<UserSearchIndex, UUID> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM UserSearchIndex i WHERE i.userId = :userId")
+    Optional<UserSearchIndex> findForUpdate(@Param("userId") UUID userId);
+
+    // Вставка без merge: при гонке падает по ключу, а не затирает счётчики чужой строки
+    @Modifying
+    @Query("INSERT INTO UserSearchIndex (userId, nextDocNo, liveDocuments, deletedDocuments) VALUES (:userId, 0, 0, 0)")
+    int insertEmpty(@Param("userId") UUID userId);
+}
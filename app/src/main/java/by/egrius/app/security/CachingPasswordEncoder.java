@@ -0,0 +1,88 @@
+package by.egrius.app.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+
+/**
+ * Кэш успешных проверок пароля поверх медленного кодировщика (BCrypt).
+ * HTTP Basic проверяет пароль на каждом запросе, а BCrypt тратит на это десятки миллисекунд CPU.
+ * Ключ записи - хэш из БД, значение - HMAC проверенного пароля с ключом, который живёт только
+ * в памяти процесса, поэтому сам пароль нигде не хранится.
+ * Смена пароля меняет хэш в БД, и старая запись перестаёт совпадать; evict убирает её сразу.
+ */
+public class CachingPasswordEncoder implements PasswordEncoder {
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final PasswordEncoder delegate;
+    private final Cache<String, byte[]> verified;
+    private final SecretKey key;
+
+    public CachingPasswordEncoder(PasswordEncoder delegate, Duration ttl, long maxSize) {
+        this.delegate = delegate;
+        this.verified = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+        try {
+            this.key = KeyGenerator.getInstance(HMAC).generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 недоступен", e);
+        }
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+
+        byte[] digest = hmac(rawPassword);
+        byte[] cached = verified.getIfPresent(encodedPassword);
+        if (cached != null && MessageDigest.isEqual(cached, digest)) {
+            return true;
+        }
+
+        // Неудачные проверки не кэшируются: подбор пароля по-прежнему упирается в BCrypt
+        if (!delegate.matches(rawPassword, encodedPassword)) {
+            return false;
+        }
+        verified.put(encodedPassword, digest);
+        return true;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public void evict(String encodedPassword) {
+        if (encodedPassword != null) {
+            verified.invalidate(encodedPassword);
+        }
+    }
+
+    private byte[] hmac(CharSequence rawPassword) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            return mac.doFinal(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 недоступен", e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package by.egrius.app.security;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Лимит одного пользователя на одном эндпоинте без блокировок.
+ * Ведро токенов хранится как одно время "теоретического прихода" (GCRA): каждый запрос
+ * сдвигает его на интервал пополнения, а запас до capacity интервалов и есть размер всплеска.
+ * Параллельные вызовы считает отдельный счётчик, поднимаемый CAS-ом не выше maxInFlight.
+ */
+public final class RateLimitBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxInFlight;
+    private final AtomicLong theoreticalArrival;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public RateLimitBucket(long capacity, double refillPerSecond, int maxInFlight, long nowNanos) {
+        if (capacity < 1 || refillPerSecond <= 0 || maxInFlight < 1) {
+            throw new IllegalArgumentException("Некорректные параметры лимита: capacity=" + capacity
+                    + ", refillPerSecond=" + refillPerSecond + ", maxInFlight=" + maxInFlight);
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.burstNanos = capacity * intervalNanos;
+        this.maxInFlight = maxInFlight;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    // 0 - токен выдан, иначе через сколько наносекунд появится следующий
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public boolean tryEnter() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,125 @@
+package by.egrius.app.security;
+
+import by.egrius.app.annotation.RateLimited;
+import by.egrius.app.exception.RateLimitExceededException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Лимиты на тяжёлые эндпоинты, помеченные @RateLimited: один пользователь с десятками
+ * параллельных анализов не должен занимать весь узел. Превышение - 429 с Retry-After.
+ * Вёдра пользователей живут в памяти узла и удаляются после idle-minutes без запросов.
+ */
+@Slf4j
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String PREFIX = "rate-limit.";
+    private static final String HELD_BUCKET = RateLimitInterceptor.class.getName() + ".bucket";
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Map<String, Policy> policies = new ConcurrentHashMap<>();
+    private final Cache<BucketKey, RateLimitBucket> buckets;
+
+    // В срезах @WebMvcTest реестра метрик нет, тогда счётчики уходят в глобальный
+    public RateLimitInterceptor(Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.enabled = environment.getProperty(PREFIX + "enabled", Boolean.class, true);
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(environment.getProperty(PREFIX + "idle-minutes", Long.class, 10L)))
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        RateLimited limited = method.getMethodAnnotation(RateLimited.class);
+        UUID userId = currentUserId();
+        if (limited == null || userId == null) {
+            return true;
+        }
+
+        String endpoint = limited.value();
+        Policy policy = policies.computeIfAbsent(endpoint, this::policy);
+        long now = System.nanoTime();
+        RateLimitBucket bucket = buckets.get(new BucketKey(userId, endpoint),
+                key -> new RateLimitBucket(policy.capacity(), policy.refillPerSecond(), policy.maxInFlight(), now));
+
+        if (!bucket.tryEnter()) {
+            reject(userId, endpoint, "concurrency");
+            throw new RateLimitExceededException("Слишком много параллельных запросов", 1);
+        }
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos > 0) {
+            bucket.exit();
+            reject(userId, endpoint, "rate");
+            long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            throw new RateLimitExceededException("Слишком много запросов, повторите позже", retryAfter);
+        }
+
+        request.setAttribute(HELD_BUCKET, bucket);
+        meterRegistry.counter("rate_limit.requests", "endpoint", endpoint, "outcome", "allowed").increment();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(HELD_BUCKET) instanceof RateLimitBucket bucket) {
+            request.removeAttribute(HELD_BUCKET);
+            bucket.exit();
+        }
+    }
+
+    // Пользователь только в логе: тег с его id плодил бы по серии метрик на каждого пользователя
+    private void reject(UUID userId, String endpoint, String reason) {
+        log.debug("Запрос пользователя {} к {} отклонён лимитом: {}", userId, endpoint, reason);
+        meterRegistry.counter("rate_limit.requests", "endpoint", endpoint, "outcome", "rejected_" + reason).increment();
+    }
+
+    private Policy policy(String endpoint) {
+        return new Policy(
+                property(endpoint, "capacity", Long.class, 20L),
+                property(endpoint, "refill-per-second", Double.class, 1.0),
+                property(endpoint, "max-in-flight", Integer.class, 4)
+        );
+    }
+
+    private <T> T property(String endpoint, String name, Class<T> type, T fallback) {
+        T value = environment.getProperty(PREFIX + endpoint + "." + name, type);
+        return value != null ? value : environment.getProperty(PREFIX + "default." + name, type, fallback);
+    }
+
+    private static UUID currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getPrincipal() instanceof UserPrincipal principal ? principal.getId() : null;
+    }
+
+    private record Policy(long capacity, double refillPerSecond, int maxInFlight) {
+    }
+
+    private record BucketKey(UUID userId, String endpoint) {
+    }
+}
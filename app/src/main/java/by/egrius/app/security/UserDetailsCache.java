@@ -0,0 +1,93 @@
+package by.egrius.app.security;
+
+import by.egrius.app.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Кэш снимков UserPrincipal по username, чтобы HTTP Basic не читал Users на каждом запросе.
+ * На своём узле записи сбрасываются из updateUser и deleteUser. Изменения с других узлов
+ * подхватываются проверкой securityVersion: запись старше revalidate-seconds фоново сверяет
+ * версию одним запросом и перечитывается, только если версия изменилась. Снимок читается
+ * проекцией, а не сущностью: закэшированная или уже загруженная в сессию User не подменит
+ * свежую строку.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserDetailsCache {
+
+    private final UserRepository userRepository;
+
+    @Value("${security.user-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${security.user-cache.revalidate-seconds:5}")
+    private long revalidateSeconds;
+
+    @Value("${security.user-cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private LoadingCache<String, UserPrincipal> principals;
+
+    @PostConstruct
+    void init() {
+        principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .refreshAfterWrite(Duration.ofSeconds(revalidateSeconds))
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build(new CacheLoader<>() {
+                    @Override
+                    public UserPrincipal load(String username) {
+                        return userRepository.findCredentialsByUsername(username)
+                                .map(UserPrincipal::new)
+                                .orElse(null);
+                    }
+
+                    // null удаляет запись: пользователь удалён или переименован на другом узле
+                    @Override
+                    public UserPrincipal reload(String username, UserPrincipal cached) {
+                        Optional<Long> version = userRepository.findSecurityVersionByUsername(username);
+                        if (version.isEmpty()) {
+                            return null;
+                        }
+                        if (version.get() == cached.getSecurityVersion()) {
+                            return cached;
+                        }
+                        log.debug("Версия пользователя {} изменилась, снимок перечитан", username);
+                        return load(username);
+                    }
+                });
+    }
+
+    public Optional<UserPrincipal> get(String username) {
+        return Optional.ofNullable(principals.get(username));
+    }
+
+    // Сброс сразу и повторно после коммита: запрос, успевший прочитать старую строку
+    // до коммита, не оставит её в кэше
+    public void evict(String... usernames) {
+        List<String> keys = List.of(usernames);
+        principals.invalidateAll(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principals.invalidateAll(keys);
+                }
+            });
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package by.egrius.app.security;
 
+import by.egrius.app.dto.userDTO.UserCredentialsDto;
 import by.egrius.app.entity.User;
-import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -9,20 +9,48 @@ import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
-@RequiredArgsConstructor
+/**
+ * Неизменяемый снимок пользователя для аутентификации. Хранится в UserDetailsCache
+ * и разделяется между запросами, поэтому не держит ссылку на сущность User.
+ * CredentialsContainer не реализован намеренно: стирание пароля после входа испортило бы кэш.
+ */
 public class UserPrincipal implements UserDetails {
-    private final User user;
+    private final UUID id;
+    private final String username;
+    private final String email;
+    private final String password;
+    private final boolean enabled;
+    private final long securityVersion;
+
+    public UserPrincipal(User user) {
+        this.id = user.getUserId();
+        this.username = user.getUsername();
+        this.email = user.getEmail();
+        this.password = user.getPassword();
+        // Удалённый пользователь не входит, пока его данные удаляются в фоне
+        this.enabled = user.getDeletedAt() == null;
+        this.securityVersion = user.getSecurityVersion();
+    }
+
+    public UserPrincipal(UserCredentialsDto credentials) {
+        this.id = credentials.userId();
+        this.username = credentials.username();
+        this.email = credentials.email();
+        this.password = credentials.password();
+        this.enabled = credentials.deletedAt() == null;
+        this.securityVersion = credentials.securityVersion();
+    }
 
     public UUID getId() {
-        return user.getUserId();
+        return id;
     }
 
     public String getEmail() {
-        return user.getEmail();
+        return email;
     }
 
-    public User getUser() {
-        return user;
+    public long getSecurityVersion() {
+        return securityVersion;
     }
 
     @Override
@@ -42,7 +70,7 @@ public class UserPrincipal implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return true;
+        return enabled;
     }
 
     @Override
@@ -52,11 +80,11 @@ public class UserPrincipal implements UserDetails {
 
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return user.getUsername();
+        return username;
     }
 }
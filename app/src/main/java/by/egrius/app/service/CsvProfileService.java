@@ -0,0 +1,25 @@
+package by.egrius.app.service;
+
+import by.egrius.app.dto.fileDTO.CsvProfileReadDto;
+import by.egrius.app.mapper.fileMapper.CsvProfileReadMapper;
+import by.egrius.app.repository.CsvProfileRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class CsvProfileService {
+
+    private final CsvProfileRepository csvProfileRepository;
+    private final CsvProfileReadMapper csvProfileReadMapper;
+
+    public Optional<CsvProfileReadDto> getProfileByFileId(UUID fileId) {
+        return csvProfileRepository.findWithColumnsByFileId(fileId)
+                .map(csvProfileReadMapper::map);
+    }
+}
@@ -2,12 +2,21 @@ package by.egrius.app.service;
 
 import by.egrius.app.dto.fileDTO.FileAnalysisReadDto;
 import by.egrius.app.entity.FileAnalysis;
+import by.egrius.app.entity.TermPositions;
 import by.egrius.app.entity.UploadedFile;
 import by.egrius.app.entity.enums.FileEventType;
+import by.egrius.app.event.FileProgressEvent;
+import by.egrius.app.event.ProgressTracker;
 import by.egrius.app.mapper.fileMapper.FileAnalysisReadMapper;
 import by.egrius.app.publisher.FileEventPublisher;
 import by.egrius.app.repository.FileAnalysisRepository;
 import by.egrius.app.repository.UploadedFileRepository;
+import by.egrius.app.text.AnalysisCodec;
+import by.egrius.app.text.PositionalIndexBuilder;
+import by.egrius.app.text.TextTokenizer;
+import by.egrius.app.text.WordLengthStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
@@ -27,10 +36,15 @@ import java.util.stream.Stream;
 @RequiredArgsConstructor
 public class FileAnalysisService {
 
+    private static final int PROGRESS_STEP_PERCENT = 5;
+
     private final FileAnalysisRepository fileAnalysisRepository;
     private final UploadedFileRepository uploadedFileRepository;
     private final FileEventPublisher fileEventPublisher;
     private final FileAnalysisReadMapper fileAnalysisReadMapper;
+    private final PositionalIndexService positionalIndexService;
+    private final FileStatsViewService fileStatsViewService;
+    private final MeterRegistry meterRegistry;
 
     @Value("${text.analysis.stopwords:}")
     private String defaultStopWordsRaw;
@@ -44,13 +58,47 @@ public class FileAnalysisService {
 
     @Transactional
     public FileAnalysisReadDto createAnalysis(UUID fileId, int topN, boolean stopWordsExcluded) {
+        return createAnalysis(fileId, topN, stopWordsExcluded, false);
+    }
+
+    // includeWordLengths - дополнительно сохранить карту "слово - длина" по всему словарю
+    @Transactional
+    public FileAnalysisReadDto createAnalysis(UUID fileId, int topN, boolean stopWordsExcluded, boolean includeWordLengths) {
+
+        checkTopN(topN);
+
+        Timer.Sample load = Timer.start(meterRegistry);
+        UploadedFile uploadedFile = uploadedFileRepository.findWithFileAnalysisById(fileId)
+                .orElseThrow(() -> new EntityNotFoundException("Не найден файл для создания анализа"));
+        load.stop(stageTimer("load"));
+
+        return createAnalysis(uploadedFile, topN, stopWordsExcluded, includeWordLengths);
+    }
 
+    // Запрос пользователя: файл загружается вместе с проверкой владельца одним запросом
+    @Transactional
+    public FileAnalysisReadDto createAnalysis(UUID userId, UUID fileId, int topN,
+                                              boolean stopWordsExcluded, boolean includeWordLengths) {
+
+        checkTopN(topN);
+
+        Timer.Sample load = Timer.start(meterRegistry);
+        UploadedFile uploadedFile = uploadedFileRepository.findForProcessing(fileId, userId)
+                .orElseThrow(() -> new EntityNotFoundException("Файл не найден или не принадлежит пользователю"));
+        load.stop(stageTimer("load"));
+
+        return createAnalysis(uploadedFile, topN, stopWordsExcluded, includeWordLengths);
+    }
+
+    private void checkTopN(int topN) {
         if (topN <= 0) {
             throw new IllegalArgumentException("topN должен быть положительным числом");
         }
+    }
 
-        UploadedFile uploadedFile = uploadedFileRepository.findWithFileAnalysisById(fileId)
-                .orElseThrow(() -> new EntityNotFoundException("Не найден файл для создания анализа"));
+    private FileAnalysisReadDto createAnalysis(UploadedFile uploadedFile, int topN,
+                                               boolean stopWordsExcluded, boolean includeWordLengths) {
+        UUID fileId = uploadedFile.getId();
 
         if (uploadedFile.getFileContent() == null ||
                 uploadedFile.getFileContent().getRawText() == null) {
@@ -64,36 +112,86 @@ public class FileAnalysisService {
 
         fileEventPublisher.publish(FileEventType.PARSE_START, fileId);
 
+        try {
+            FileAnalysisReadDto result = analyze(uploadedFile, fileId, topN, stopWordsExcluded, includeWordLengths);
+            fileEventPublisher.publish(FileEventType.PARSE_END, fileId);
+            return result;
+        } catch (RuntimeException e) {
+            // PARSE_START откатится вместе с транзакцией, ERROR записывается отдельно
+            fileEventPublisher.publishError(fileId);
+            throw e;
+        }
+    }
+
+    private FileAnalysisReadDto analyze(UploadedFile uploadedFile, UUID fileId, int topN,
+                                        boolean stopWordsExcluded, boolean includeWordLengths) {
         String rawText = uploadedFile.getFileContent().getRawText();
 
         if (rawText.isBlank()) {
             throw new IllegalStateException("Текст файла пустой");
         }
 
-        List<String> words = extractWords(rawText, stopWordsExcluded);
-
-        Map<String, Long> topWords = countTopWords(words, topN);
+        // Один проход токенизатора даёт и слова для анализа, и позиционный индекс
+        Timer.Sample stage = Timer.start(meterRegistry);
+        List<String> allWords = new ArrayList<>();
+        PositionalIndexBuilder positions = new PositionalIndexBuilder(TermPositions.MAX_TERM_LENGTH);
+        ProgressTracker progress = new ProgressTracker(rawText.length(), PROGRESS_STEP_PERCENT,
+                percent -> fileEventPublisher.publishProgress(fileId, FileProgressEvent.Job.ANALYSIS, percent));
+        TextTokenizer.scan(rawText, (word, start, end) -> {
+            allWords.add(word);
+            positions.token(word, start, end);
+            progress.update(end);
+        });
+
+        List<String> words = excludeStopWords(allWords, stopWordsExcluded);
+        stage.stop(stageTimer("tokenize"));
+
+        stage = Timer.start(meterRegistry);
+        Map<String, Long> wordCounts = countWords(words);
         Map<Character, Long> startsWithMap = startsWithCount(words);
         Map<Character, Long> punctuationMap = punctuationCount(rawText);
-        Map<String, Integer> wordLengthMap = wordLengthCount(words);
+        Set<String> vocabulary = new LinkedHashSet<>(words);
+        WordLengthStats wordLengthStats = WordLengthStats.of(vocabulary, WordLengthStats.SAMPLE_SIZE);
+        Map<String, Integer> wordLengthMap = includeWordLengths ? wordLengthCount(vocabulary) : null;
+        stage.stop(stageTimer("count"));
+
+        stage = Timer.start(meterRegistry);
+        Map<String, Long> topWords = rankTopWords(wordCounts, topN);
+        stage.stop(stageTimer("rank"));
 
         log.info("Создание анализа для файла {}: topN={}, stopWordsExcluded={}", fileId, topN, stopWordsExcluded);
 
-        FileAnalysis analysis = buildAnalysis(uploadedFile, topWords, startsWithMap, punctuationMap, wordLengthMap, stopWordsExcluded);
+        stage = Timer.start(meterRegistry);
+        FileAnalysis analysis = buildAnalysis(uploadedFile, topWords, startsWithMap, punctuationMap,
+                wordLengthStats, wordLengthMap, stopWordsExcluded);
 
         log.info("Анализ создан для файла {}. Найдено {} уникальных слов, топ слов: {}", fileId, words.size(), topWords.size());
 
         fileAnalysisRepository.save(analysis);
-        fileEventPublisher.publish(FileEventType.PARSE_END, fileId);
+        positionalIndexService.indexFile(fileId, positions);
 
-        return new FileAnalysisReadDto(
+        FileAnalysisReadDto result = new FileAnalysisReadDto(
                 analysis.getId(),
                 topWords,
                 startsWithMap,
                 punctuationMap,
+                wordLengthStats.histogram(),
+                wordLengthStats.longestWords(),
+                wordLengthStats.shortestWords(),
                 wordLengthMap,
                 stopWordsExcluded
         );
+        fileStatsViewService.analysisWritten(fileId, result);
+        stage.stop(stageTimer("persist"));
+        return result;
+    }
+
+    // Этапы createAnalysis: load, tokenize, count, rank, persist
+    private Timer stageTimer(String stage) {
+        return Timer.builder("file.analysis.stage")
+                .description("Время этапа создания анализа файла")
+                .tag("stage", stage)
+                .register(meterRegistry);
     }
 
     public Optional<FileAnalysisReadDto> getAnalysisByFileId(UUID fileId) {
@@ -101,6 +199,21 @@ public class FileAnalysisService {
                 .map(fileAnalysisReadMapper::map);
     }
 
+    // Карта "слово - длина" есть только у анализов, созданных с includeWordLengths
+    public Optional<FileAnalysisReadDto> getAnalysisByFileId(UUID fileId, boolean includeWordLengths) {
+        return fileAnalysisRepository.findByUploadedFile_Id(fileId)
+                .map(analysis -> fileAnalysisReadMapper.map(analysis, includeWordLengths));
+    }
+
+    public Optional<FileAnalysisReadDto> getAnalysisByFileId(UUID userId, UUID fileId, boolean includeWordLengths) {
+        return fileAnalysisRepository.findByFileIdAndUserId(fileId, userId)
+                .map(analysis -> fileAnalysisReadMapper.map(analysis, includeWordLengths));
+    }
+
+    public boolean hasAnalysis(UUID fileId) {
+        return fileAnalysisRepository.existsByUploadedFile_Id(fileId);
+    }
+
     public void setStopWordsRaw(String stopWordsRaw) {
         this.currentStopWordsRaw = stopWordsRaw;
     }
@@ -109,16 +222,16 @@ public class FileAnalysisService {
                                        Map<String, Long> topWords,
                                        Map<Character, Long> startsWithMap,
                                        Map<Character, Long> punctuationMap,
+                                       WordLengthStats wordLengthStats,
                                        Map<String, Integer> wordLengthMap,
 
                                        boolean stopWordsExcluded) {
 
+        // Одна строка вместо INSERT на каждую запись четырёх коллекций
         FileAnalysis analysis = FileAnalysis.builder()
                 .uploadedFile(file)
-                .topWords(topWords)
-                .startsWithMap(startsWithMap)
-                .punctuationMap(punctuationMap)
-                .wordLengthMap(wordLengthMap)
+                .payload(AnalysisCodec.encode(new AnalysisCodec.Payload(
+                        topWords, startsWithMap, punctuationMap, wordLengthStats, wordLengthMap)))
                 .stopWordsExcluded(stopWordsExcluded)
                 .build();
 
@@ -128,9 +241,8 @@ public class FileAnalysisService {
         return analysis;
     }
 
-    private Map<String, Integer> wordLengthCount(List<String> words) {
-        return words.stream()
-                .distinct()
+    private Map<String, Integer> wordLengthCount(Set<String> vocabulary) {
+        return vocabulary.stream()
                 .collect(Collectors.toMap(
                         Function.identity(),
                         String::length
@@ -158,10 +270,13 @@ public class FileAnalysisService {
                 ));
     }
 
-    private Map<String, Long> countTopWords(List<String> words, int topN) {
+    private Map<String, Long> countWords(List<String> words) {
         return words.stream()
-                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()))
-                .entrySet().stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    }
+
+    private Map<String, Long> rankTopWords(Map<String, Long> wordCounts, int topN) {
+        return wordCounts.entrySet().stream()
                 .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
                 .limit(topN)
                 .collect(Collectors.toMap(
@@ -172,10 +287,8 @@ public class FileAnalysisService {
                 ));
     }
 
-    private List<String> extractWords(String rawText, boolean stopWordsExcluded) {
-        Stream<String> stream = Arrays.stream(rawText.split("\\s+"))
-                .map(this::normalizeWord)
-                .filter(w -> !w.isBlank());
+    private List<String> excludeStopWords(List<String> allWords, boolean stopWordsExcluded) {
+        Stream<String> stream = allWords.stream();
 
         if (stopWordsExcluded) {
             Set<String> stopWords = getStopWords();
@@ -185,10 +298,6 @@ public class FileAnalysisService {
         return stream.toList();
     }
 
-    private String normalizeWord(String word) {
-        return  word.replaceAll("[\\p{Punct}&&[^-]]", "").toLowerCase().trim();
-    }
-
     private Set<String> getStopWords() {
         if (currentStopWordsRaw == null || currentStopWordsRaw.isBlank()) {
             return Set.of();
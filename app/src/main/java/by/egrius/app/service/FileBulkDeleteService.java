@@ -0,0 +1,126 @@
+package by.egrius.app.service;
+
+import by.egrius.app.publisher.FileEventPublisher;
+import by.egrius.app.repository.CsvProfileRepository;
+import by.egrius.app.repository.FileAnalysisRepository;
+import by.egrius.app.repository.FileContentRepository;
+import by.egrius.app.repository.PatternMatchesRepository;
+import by.egrius.app.repository.RegexMatchRepository;
+import by.egrius.app.repository.UploadedFileRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Удаление файлов вместе с производными данными без загрузки сущностей.
+ * Каскады JPA читали бы текст, анализ со всеми коллекциями и каждое найденное совпадение,
+ * чтобы затем удалить их по одной строке; здесь на каждую таблицу один DELETE на пачку файлов,
+ * дочерние таблицы раньше родительских.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class FileBulkDeleteService {
+
+    // Ограничивает размер списка IN в одном запросе
+    public static final int BATCH_SIZE = 500;
+
+    private final UploadedFileRepository uploadedFileRepository;
+    private final FileContentRepository fileContentRepository;
+    private final FileAnalysisRepository fileAnalysisRepository;
+    private final RegexMatchRepository regexMatchRepository;
+    private final PatternMatchesRepository patternMatchesRepository;
+    private final CsvProfileRepository csvProfileRepository;
+    private final FileSearchIndexService fileSearchIndexService;
+    private final FilenameIndexService filenameIndexService;
+    private final PositionalIndexService positionalIndexService;
+    private final FileStatsViewService fileStatsViewService;
+    private final FileEventPublisher fileEventPublisher;
+    private final PlatformTransactionManager transactionManager;
+
+    // Чужие и несуществующие id пропускаются; возвращает число удалённых файлов
+    @Transactional
+    public int deleteFiles(UUID userId, Collection<UUID> fileIds) {
+        List<UUID> ids = List.copyOf(fileIds);
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<UUID> owned = uploadedFileRepository.findOwnedIds(
+                    userId, ids.subList(from, Math.min(from + BATCH_SIZE, ids.size())));
+            deleted += deleteBatch(userId, owned);
+        }
+        log.info("Пакетно удалено {} файлов пользователя {}", deleted, userId);
+        return deleted;
+    }
+
+    // Каждая пачка - своя транзакция: удаление за годы не держит блокировки до конца,
+    // а прерванный вызов оставляет удалёнными уже закоммиченные пачки.
+    // Внутри чужой транзакции пачки присоединяются к ней
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public int deleteFilesUploadedBefore(UUID userId, Instant before) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        Timestamp threshold = Timestamp.from(before);
+        int deleted = 0;
+        while (true) {
+            // Удалённые строки из выборки пропадают, поэтому всегда берётся первая страница
+            Integer removed = template.execute(status -> {
+                List<UUID> batch = uploadedFileRepository.findIdsUploadedBefore(
+                        userId, threshold, PageRequest.of(0, BATCH_SIZE));
+                return batch.isEmpty() ? 0 : deleteBatch(userId, batch);
+            });
+            if (removed == null || removed == 0) {
+                break;
+            }
+            deleted += removed;
+        }
+        log.info("Удалено {} файлов пользователя {}, загруженных до {}", deleted, userId, before);
+        return deleted;
+    }
+
+    /**
+     * Удаляет файлы, принадлежность которых уже проверена, без публикации событий.
+     * Используется и для удаления одного файла.
+     */
+    @Transactional
+    public void removeFiles(UUID userId, List<UUID> fileIds) {
+        if (fileIds.isEmpty()) {
+            return;
+        }
+        patternMatchesRepository.deleteByFileIds(fileIds);
+        regexMatchRepository.deleteByFileIds(fileIds);
+
+        fileAnalysisRepository.deleteStartsWithByFileIds(fileIds);
+        fileAnalysisRepository.deletePunctuationByFileIds(fileIds);
+        fileAnalysisRepository.deleteTopWordsByFileIds(fileIds);
+        fileAnalysisRepository.deleteWordLengthsByFileIds(fileIds);
+        fileAnalysisRepository.deleteByFileIds(fileIds);
+
+        csvProfileRepository.deleteColumnStatsByFileIds(fileIds);
+        csvProfileRepository.deleteByFileIds(fileIds);
+
+        fileContentRepository.deleteByFileIds(fileIds);
+        uploadedFileRepository.deleteByIds(fileIds);
+
+        fileSearchIndexService.removeFiles(userId, fileIds);
+        filenameIndexService.removeFiles(fileIds);
+        positionalIndexService.removeFiles(fileIds);
+        fileStatsViewService.removeFiles(fileIds);
+    }
+
+    private int deleteBatch(UUID userId, List<UUID> fileIds) {
+        removeFiles(userId, fileIds);
+        fileEventPublisher.publishDeleted(fileIds, userId);
+        return fileIds.size();
+    }
+}
@@ -0,0 +1,143 @@
+package by.egrius.app.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Обслуживание недельных секций file_event_log в PostgreSQL (см. db/partitioning/file_event_log.sql).
+ * Раз в сутки создаёт секции на weeks-ahead недель вперёд и удаляет секции старше
+ * retention-weeks: удаление недели событий - это DROP TABLE, без DELETE и очистки таблицы.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "file.events.partitioning.enabled", havingValue = "true")
+public class FileEventLogPartitionMaintainer {
+
+    private static final String PARTITION_PREFIX = "file_event_log_p";
+    private static final String DEFAULT_PARTITION = "file_event_log_default";
+    private static final String COLUMNS = "id, file_id, user_id, file_event_type, \"timestamp\"";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${file.events.partitioning.weeks-ahead:2}")
+    private int weeksAhead;
+
+    @Value("${file.events.partitioning.retention-weeks:12}")
+    private int retentionWeeks;
+
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "file-event-partitions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::maintain, 0, 1, TimeUnit.DAYS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    void maintain() {
+        try {
+            LocalDate currentWeek = weekStart(LocalDate.now(ZoneOffset.UTC));
+            for (int i = 0; i <= weeksAhead; i++) {
+                createPartition(currentWeek.plusWeeks(i));
+            }
+            dropPartitionsBefore(currentWeek.minusWeeks(retentionWeeks));
+        } catch (RuntimeException e) {
+            // Следующая попытка через сутки; до неё события попадут в секцию по умолчанию
+            log.error("Ошибка при обслуживании секций журнала событий", e);
+        }
+    }
+
+    static LocalDate weekStart(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    static String partitionName(LocalDate weekStart) {
+        return PARTITION_PREFIX + SUFFIX.format(weekStart);
+    }
+
+    private void createPartition(LocalDate weekStart) {
+        String partition = partitionName(weekStart);
+        // Имя и границы строятся из дат, поэтому подстановка в SQL безопасна
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass('" + partition + "') IS NOT NULL", Boolean.class))) {
+            return;
+        }
+        String create = "CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF file_event_log " +
+                "FOR VALUES FROM ('" + weekStart + "') TO ('" + weekStart.plusWeeks(1) + "')";
+        String range = " WHERE \"timestamp\" >= '" + weekStart + "' AND \"timestamp\" < '" + weekStart.plusWeeks(1) + "'";
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION + range + ")", Boolean.class))) {
+                jdbcTemplate.execute(create);
+                return;
+            }
+            // Неделя пропущена, и её события уже лежат в секции по умолчанию: PostgreSQL не создаст
+            // секцию, пока они там. Секция по умолчанию отсоединяется, строки переносятся в новую,
+            // затем она присоединяется обратно; блокировка журнала держится до коммита
+            jdbcTemplate.execute("ALTER TABLE file_event_log DETACH PARTITION " + DEFAULT_PARTITION);
+            jdbcTemplate.execute(create);
+            int moved = jdbcTemplate.update("INSERT INTO " + partition + " (" + COLUMNS + ") " +
+                    "SELECT " + COLUMNS + " FROM " + DEFAULT_PARTITION + range);
+            jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + range);
+            jdbcTemplate.execute("ALTER TABLE file_event_log ATTACH PARTITION " + DEFAULT_PARTITION + " DEFAULT");
+            log.warn("Секция {} создана с опозданием, из секции по умолчанию перенесено {} событий", partition, moved);
+        });
+    }
+
+    private void dropPartitionsBefore(LocalDate boundary) {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = 'file_event_log'::regclass",
+                String.class);
+        for (String partition : partitions) {
+            if (!partition.startsWith(PARTITION_PREFIX)) {
+                continue;
+            }
+            LocalDate weekStart;
+            try {
+                weekStart = LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), SUFFIX);
+            } catch (DateTimeParseException e) {
+                continue;
+            }
+            if (weekStart.plusWeeks(1).isAfter(boundary)) {
+                continue;
+            }
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            log.info("Удалена секция журнала событий {}", partition);
+        }
+    }
+}
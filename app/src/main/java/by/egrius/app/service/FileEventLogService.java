@@ -1,42 +1,104 @@
 package by.egrius.app.service;
 
 import by.egrius.app.entity.FileEventLog;
-import by.egrius.app.entity.UploadedFile;
-import by.egrius.app.entity.enums.FileEventType;
 import by.egrius.app.event.FileEvent;
+import by.egrius.app.event.MpscRingBuffer;
 import by.egrius.app.repository.FileEventLogRepository;
-import by.egrius.app.repository.UploadedFileRepository;
-import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.sql.Timestamp;
-import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Журнал событий файлов. Событие только кладётся в кольцевой буфер, запись в БД
+ * делает отдельный поток пачками, поэтому журнал не добавляет задержки запросу.
+ * При переполнении буфера поведение задаётся политикой file.events.overflow-policy.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FileEventLogService {
 
+    public enum OverflowPolicy {
+        // Отбросить новое событие
+        DROP,
+        // Подождать освобождения места не дольше offer-timeout-ms, затем отбросить
+        BLOCK,
+        // Записать событие синхронно в потоке вызывающего
+        CALLER_RUNS
+    }
+
     private final FileEventLogRepository fileEventLogRepository;
-    private final UploadedFileRepository uploadedFileRepository;
+    private final MeterRegistry meterRegistry;
 
-    private void createEventLog(FileEventType eventType, UUID fileId) {
-        FileEventLog eventLog = FileEventLog.builder()
-                .fileEventType(eventType)
-                .fileId(fileId)
-                .timestamp(Timestamp.valueOf(LocalDateTime.now()))
-                .build();
+    @Value("${file.events.buffer-size:8192}")
+    private int bufferSize;
 
-        if (eventType != FileEventType.DELETED) {
-            UploadedFile file = uploadedFileRepository.findById(fileId)
-                    .orElseThrow(() -> new EntityNotFoundException(
-                            String.format("Файл %s не найден для события %s", fileId, eventType)));
-        }
+    @Value("${file.events.batch-size:200}")
+    private int batchSize;
+
+    @Value("${file.events.flush-interval-ms:200}")
+    private long flushIntervalMillis;
+
+    @Value("${file.events.overflow-policy:DROP}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${file.events.offer-timeout-ms:50}")
+    private long offerTimeoutMillis;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
 
-        fileEventLogRepository.save(eventLog);
+    private MpscRingBuffer<FileEventLog> buffer;
+    private Thread writer;
+    private volatile boolean running;
+    private Timer writeTimer;
+    private Timer latencyTimer;
+
+    @PostConstruct
+    void start() {
+        buffer = new MpscRingBuffer<>(bufferSize);
+        writeTimer = Timer.builder("file.events.log.write")
+                .description("Время записи одной пачки событий в журнал")
+                .register(meterRegistry);
+        // От времени события до его записи в БД: ожидание в буфере плюс сама запись
+        latencyTimer = Timer.builder("file.events.log.latency")
+                .description("Задержка от события до записи в журнал")
+                .register(meterRegistry);
+        Gauge.builder("file.events.buffer.size", buffer, MpscRingBuffer::size)
+                .description("Событий в буфере журнала")
+                .register(meterRegistry);
+        // При политике DROP переполнение буфера теряет событие: file.events.dropped - единственный его след кроме WARN
+        registerCounter("file.events.accepted", accepted, "Событий, принятых в журнал");
+        registerCounter("file.events.written", written, "Событий, записанных в журнал");
+        registerCounter("file.events.dropped", dropped, "Событий, отброшенных из-за переполнения буфера");
+        registerCounter("file.events.failed", failed, "Событий, потерянных из-за ошибки записи");
+        running = true;
+        writer = new Thread(this::writeLoop, "file-event-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
     }
 
     public void log(FileEvent event) {
@@ -44,15 +106,84 @@ public class FileEventLogService {
             log.warn("Попытка залогировать некорректное событие: {}", event);
             return;
         }
-        try {
-            createEventLog(event.getFileEventType(), event.getFileId());
-            log.debug("Событие {} залогировано для файла {}",
-                    event.getFileEventType(), event.getFileId());
-        } catch (Exception e) {
-            log.error("Ошибка при логировании события {} для файла {}",
-                    event.getFileEventType(), event.getFileId(), e);
-            throw new IllegalStateException("Не удалось залогировать событие", e);
+
+        // Время события, а не время записи: между ними может пройти интервал сброса
+        FileEventLog eventLog = FileEventLog.builder()
+                .fileEventType(event.getFileEventType())
+                .fileId(event.getFileId())
+                .userId(event.getUserId())
+                .timestamp(event.getTimestampEvent() != null
+                        ? event.getTimestampEvent()
+                        : new Timestamp(event.getTimestamp()))
+                .build();
+
+        if (buffer.offer(eventLog) || overflowPolicy == OverflowPolicy.BLOCK && offerWithTimeout(eventLog)) {
+            accepted.increment();
+            return;
         }
+
+        if (overflowPolicy == OverflowPolicy.CALLER_RUNS) {
+            accepted.increment();
+            write(List.of(eventLog));
+            return;
+        }
+
+        dropped.increment();
+        log.warn("Буфер журнала событий переполнен, событие {} для файла {} отброшено",
+                event.getFileEventType(), event.getFileId());
+    }
+
+    private void registerCounter(String name, LongAdder counter, String description) {
+        FunctionCounter.builder(name, counter, LongAdder::sum)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    private boolean offerWithTimeout(FileEventLog eventLog) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+        while (System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            if (buffer.offer(eventLog)) {
+                return true;
+            }
+        }
+        return false;
     }
 
+    private void writeLoop() {
+        List<FileEventLog> batch = new ArrayList<>(batchSize);
+        while (running) {
+            buffer.drain(batch::add, batchSize);
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis));
+                continue;
+            }
+            write(batch);
+            batch.clear();
+        }
+
+        // Остановка приложения: дописываем всё, что успели принять
+        while (buffer.drain(batch::add, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<FileEventLog> batch) {
+        try {
+            long start = System.nanoTime();
+            fileEventLogRepository.saveAll(batch);
+            writeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            long now = System.currentTimeMillis();
+            for (FileEventLog eventLog : batch) {
+                latencyTimer.record(Math.max(0, now - eventLog.getTimestamp().getTime()), TimeUnit.MILLISECONDS);
+            }
+            written.add(batch.size());
+            log.debug("В журнал событий записано {} событий", batch.size());
+        } catch (RuntimeException e) {
+            // Журнал не должен останавливать поток записи, пачка теряется
+            failed.add(batch.size());
+            log.error("Ошибка при записи {} событий в журнал", batch.size(), e);
+        }
+    }
 }
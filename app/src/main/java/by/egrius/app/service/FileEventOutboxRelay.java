@@ -0,0 +1,178 @@
+package by.egrius.app.service;
+
+import by.egrius.app.dto.fileDTO.FilenameRefDto;
+import by.egrius.app.entity.FileEventOutbox;
+import by.egrius.app.event.FileEvent;
+import by.egrius.app.repository.FileEventOutboxRepository;
+import by.egrius.app.repository.UploadedFileRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Рассылка событий из таблицы FileEventOutbox. Строки пишутся в транзакции основной
+ * работы и видны здесь только после её коммита. Поток забирает их пачками, публикует
+ * FileEvent слушателям и помечает временем рассылки; разосланные строки хранятся
+ * retention-days дней, и их можно разослать повторно через replaySince.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileEventOutboxRelay {
+
+    private static final long PURGE_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final FileEventOutboxRepository outboxRepository;
+    private final UploadedFileRepository uploadedFileRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${file.outbox.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${file.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${file.outbox.poll-interval-ms:1000}")
+    private long pollIntervalMillis;
+
+    @Value("${file.outbox.retention-days:7}")
+    private int retentionDays;
+
+    private TransactionTemplate transactionTemplate;
+    private Thread relay;
+    private volatile boolean running;
+    private long lastPurgeMillis;
+
+    @PostConstruct
+    void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        relay = new Thread(this::relayLoop, "file-event-relay");
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (relay != null) {
+            LockSupport.unpark(relay);
+            relay.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    // Новые строки появятся только после коммита, раньше будить поток бесполезно
+    public void wakeUpAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUp();
+                }
+            });
+        } else {
+            wakeUp();
+        }
+    }
+
+    public void wakeUp() {
+        Thread thread = relay;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    // Возвращает число разосланных событий
+    public int dispatchBatch() {
+        Integer dispatched = transactionTemplate.execute(status -> {
+            List<FileEventOutbox> pending = outboxRepository.lockPending(PageRequest.of(0, batchSize));
+            resolveOwners(pending);
+            Timestamp now = Timestamp.from(Instant.now());
+            for (FileEventOutbox entry : pending) {
+                eventPublisher.publishEvent(new FileEvent(this, entry.getFileId(), entry.getUserId(),
+                        entry.getEventType(), entry.getOccurredAt()));
+                entry.setDispatchedAt(now);
+            }
+            return pending.size();
+        });
+        return dispatched == null ? 0 : dispatched;
+    }
+
+    // Владелец нужен для ленты пользователя; для пачки - один запрос
+    private void resolveOwners(List<FileEventOutbox> pending) {
+        Set<UUID> fileIds = pending.stream()
+                .filter(entry -> entry.getUserId() == null)
+                .map(FileEventOutbox::getFileId)
+                .collect(Collectors.toSet());
+        if (fileIds.isEmpty()) {
+            return;
+        }
+        Map<UUID, UUID> owners = uploadedFileRepository.findRefsByIds(fileIds).stream()
+                .collect(Collectors.toMap(FilenameRefDto::fileId, FilenameRefDto::userId));
+        for (FileEventOutbox entry : pending) {
+            if (entry.getUserId() == null) {
+                entry.setUserId(owners.get(entry.getFileId()));
+            }
+        }
+    }
+
+    // Повторная рассылка событий начиная с момента since
+    public int replaySince(Timestamp since) {
+        Integer reset = transactionTemplate.execute(status -> outboxRepository.resetDispatchedSince(since));
+        log.info("Событий для повторной рассылки начиная с {}: {}", since, reset);
+        wakeUp();
+        return reset == null ? 0 : reset;
+    }
+
+    private void relayLoop() {
+        while (running) {
+            try {
+                if (dispatchBatch() < batchSize) {
+                    purgeIfDue();
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(pollIntervalMillis));
+                }
+            } catch (RuntimeException e) {
+                // Строки остаются неразосланными и будут взяты снова
+                log.error("Ошибка при рассылке событий файлов", e);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(pollIntervalMillis));
+            }
+        }
+    }
+
+    private void purgeIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastPurgeMillis < PURGE_INTERVAL_MILLIS) {
+            return;
+        }
+        lastPurgeMillis = now;
+        Timestamp before = Timestamp.from(Instant.now().minus(Duration.ofDays(retentionDays)));
+        Integer purged = transactionTemplate.execute(status -> outboxRepository.deleteDispatchedBefore(before));
+        if (purged != null && purged > 0) {
+            log.info("Удалено {} разосланных событий старше {}", purged, before);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package by.egrius.app.service;
+
+import by.egrius.app.dto.fileDTO.FileEventTimelineDto;
+import by.egrius.app.dto.fileDTO.FileEventTimelinePageDto;
+import by.egrius.app.repository.FileEventLogRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Лента событий файла или пользователя, от новых к старым.
+ * Постраничность по курсору (timestamp, id): следующая страница начинается строго после
+ * последнего события предыдущей, поэтому глубина листания не влияет на стоимость запроса.
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class FileEventTimelineService {
+
+    public static final int MAX_LIMIT = 500;
+
+    // Верхняя граница по умолчанию: в PostgreSQL это значение входит в последнюю секцию
+    private static final Instant END_OF_TIME = Instant.parse("9999-12-31T00:00:00Z");
+
+    private final FileEventLogRepository fileEventLogRepository;
+
+    public FileEventTimelinePageDto getFileTimeline(UUID fileId, Instant from, Instant to, String cursor, int limit) {
+        Range range = range(from, to, limit);
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<FileEventTimelineDto> events = position == null
+                ? fileEventLogRepository.findFileTimeline(fileId, range.from(), range.to(), range.page())
+                : fileEventLogRepository.findFileTimelineAfter(fileId, range.from(), range.to(),
+                        position.time(), position.id(), range.page());
+        return page(events, limit);
+    }
+
+    public FileEventTimelinePageDto getUserTimeline(UUID userId, Instant from, Instant to, String cursor, int limit) {
+        Range range = range(from, to, limit);
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<FileEventTimelineDto> events = position == null
+                ? fileEventLogRepository.findUserTimeline(userId, range.from(), range.to(), range.page())
+                : fileEventLogRepository.findUserTimelineAfter(userId, range.from(), range.to(),
+                        position.time(), position.id(), range.page());
+        return page(events, limit);
+    }
+
+    private Range range(Instant from, Instant to, int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit должен быть от 1 до " + MAX_LIMIT);
+        }
+        Instant start = from != null ? from : Instant.EPOCH;
+        Instant end = to != null ? to : END_OF_TIME;
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("Начало интервала должно быть раньше конца");
+        }
+        // Лишняя строка показывает, есть ли следующая страница
+        return new Range(Timestamp.from(start), Timestamp.from(end), PageRequest.of(0, limit + 1));
+    }
+
+    private FileEventTimelinePageDto page(List<FileEventTimelineDto> events, int limit) {
+        if (events.size() <= limit) {
+            return new FileEventTimelinePageDto(events, null);
+        }
+        List<FileEventTimelineDto> page = events.subList(0, limit);
+        FileEventTimelineDto last = page.getLast();
+        return new FileEventTimelinePageDto(List.copyOf(page), new KeysetCursor(last.timestamp(), last.id()).encode());
+    }
+
+    private record Range(Timestamp from, Timestamp to, Pageable page) {
+    }
+}
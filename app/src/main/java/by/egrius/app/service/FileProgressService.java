@@ -0,0 +1,259 @@
+package by.egrius.app.service;
+
+import by.egrius.app.dto.fileDTO.FileProgressDto;
+import by.egrius.app.dto.fileDTO.FileProgressSnapshotDto;
+import by.egrius.app.entity.enums.FileEventType;
+import by.egrius.app.event.FileEvent;
+import by.egrius.app.event.FileProgressEvent;
+import by.egrius.app.exception.ServiceOverloadedException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Подписки на прогресс обработки файла через Server-Sent Events.
+ * SseEmitter держит асинхронный запрос сервлета, а не поток: простаивающий подписчик
+ * стоит только записи в карте. У каждого подписчика своя ограниченная очередь, которую
+ * разбирает один из потоков рассылки: медленный клиент занимает только свой поток и не
+ * задерживает остальных, события одного подписчика не переставляются. Подписчик, чья
+ * очередь переполнилась, отключается.
+ */
+@Slf4j
+@Service
+public class FileProgressService {
+
+    private static final long RETRY_AFTER_SECONDS = 30;
+
+    @Value("${file.progress.timeout-ms:600000}")
+    private long timeoutMillis;
+
+    @Value("${file.progress.heartbeat-ms:15000}")
+    private long heartbeatMillis;
+
+    @Value("${file.progress.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${file.progress.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${file.progress.max-queued-events:64}")
+    private int maxQueuedEvents;
+
+    private final Map<UUID, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private ScheduledExecutorService sender;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        sender = Executors.newScheduledThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "file-progress-sse-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        sender.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        sender.shutdownNow();
+        subscribers.values().forEach(list -> list.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+    }
+
+    /**
+     * Регистрирует подписчика и первым событием отправляет снимок состояния.
+     * Снимок снимается уже после регистрации: завершение задачи между проверкой
+     * и подпиской придёт обычным событием.
+     */
+    public SseEmitter subscribe(UUID fileId, Supplier<FileProgressSnapshotDto> snapshot) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ServiceOverloadedException("Слишком много подписок на прогресс обработки файлов",
+                    RETRY_AFTER_SECONDS);
+        }
+
+        SseEmitter emitter = createEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(fileId, emitter);
+        subscribers.computeIfAbsent(fileId, id -> new CopyOnWriteArrayList<>()).add(subscriber);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> unsubscribe(subscriber));
+
+        FileProgressSnapshotDto state = snapshot.get();
+        subscriber.enqueue(SseEmitter.event().name("SNAPSHOT").data(state, MediaType.APPLICATION_JSON), false);
+        return emitter;
+    }
+
+    public void onFileEvent(FileEvent event) {
+        if (event.getFileId() == null || event.getFileEventType() == null
+                || !subscribers.containsKey(event.getFileId())) {
+            return;
+        }
+        FileEventType type = event.getFileEventType();
+        long timestamp = event.getTimestampEvent() != null
+                ? event.getTimestampEvent().getTime()
+                : event.getTimestamp();
+        broadcast(event.getFileId(), new FileProgressDto(event.getFileId(), type.name(), null, null, timestamp),
+                type == FileEventType.DELETED);
+    }
+
+    public void onProgress(FileProgressEvent event) {
+        if (!subscribers.containsKey(event.getFileId())) {
+            return;
+        }
+        broadcast(event.getFileId(), new FileProgressDto(event.getFileId(), "PROGRESS",
+                event.getJob().name(), event.getPercent(), event.getTimestamp()), false);
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    protected SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void broadcast(UUID fileId, FileProgressDto payload, boolean last) {
+        List<Subscriber> fileSubscribers = subscribers.get(fileId);
+        if (fileSubscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : fileSubscribers) {
+            subscriber.enqueue(SseEmitter.event().name(payload.stage()).data(payload, MediaType.APPLICATION_JSON), last);
+        }
+    }
+
+    private void heartbeat() {
+        subscribers.values().forEach(list ->
+                list.forEach(subscriber -> subscriber.enqueue(SseEmitter.event().comment("ping"), false)));
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        List<Subscriber> fileSubscribers = subscribers.get(subscriber.fileId);
+        if (fileSubscribers != null && fileSubscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+            if (fileSubscribers.isEmpty()) {
+                subscribers.remove(subscriber.fileId, fileSubscribers);
+            }
+        }
+    }
+
+    private record Outgoing(SseEmitter.SseEventBuilder event, boolean last) {
+    }
+
+    // Очередь разбирается не больше чем одной задачей за раз, поэтому порядок событий сохраняется
+    private final class Subscriber {
+        private final UUID fileId;
+        private final SseEmitter emitter;
+        private final Queue<Outgoing> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+
+        private Subscriber(UUID fileId, SseEmitter emitter) {
+            this.fileId = fileId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event, boolean last) {
+            boolean overflow = false;
+            boolean schedule;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (queue.size() >= maxQueuedEvents) {
+                    closed = true;
+                    queue.clear();
+                    overflow = true;
+                } else {
+                    queue.add(new Outgoing(event, last));
+                }
+                schedule = !draining;
+                draining = true;
+            }
+            if (overflow) {
+                log.debug("Подписчик прогресса файла {} не успевает читать события, подписка закрыта", fileId);
+                unsubscribe(this);
+            }
+            if (!schedule) {
+                return;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    draining = false;
+                }
+                log.debug("Рассылка прогресса остановлена, событие пропущено");
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Outgoing next;
+                boolean complete;
+                synchronized (this) {
+                    next = closed ? null : queue.poll();
+                    complete = closed;
+                    if (next == null) {
+                        draining = false;
+                    }
+                }
+                if (next == null) {
+                    if (complete) {
+                        emitter.complete();
+                    }
+                    return;
+                }
+                if (!send(next.event())) {
+                    close();
+                    return;
+                }
+                if (next.last()) {
+                    close();
+                    emitter.complete();
+                    return;
+                }
+            }
+        }
+
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // Клиент отключился или поток уже завершён
+                log.debug("Подписчик прогресса файла {} отключён: {}", fileId, e.getMessage());
+                unsubscribe(this);
+                return false;
+            }
+        }
+
+        private synchronized void close() {
+            closed = true;
+            queue.clear();
+            draining = false;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package by.egrius.app.service;
+
+import by.egrius.app.dto.fileDTO.ContentSearchHitDto;
+import by.egrius.app.entity.SearchDocument;
+import by.egrius.app.entity.SearchPosting;
+import by.egrius.app.entity.UserSearchIndex;
+import by.egrius.app.repository.SearchDocumentRepository;
+import by.egrius.app.repository.SearchPostingRepository;
+import by.egrius.app.repository.UserSearchIndexRepository;
+import by.egrius.app.text.PostingList;
+import by.egrius.app.text.TextTokenizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Полнотекстовый индекс по содержимому файлов, отдельный для каждого пользователя.
+ * Документ получает порядковый номер, поэтому вхождения нового файла всегда дописываются
+ * в конец списков. Удалённые файлы помечаются и отфильтровываются при поиске,
+ * списки вхождений переписываются, когда таких пометок становится много.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class FileSearchIndexService {
+
+    private static final int TERMS_PER_QUERY = 1000;
+    private static final int MAX_QUERY_TERMS = 16;
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 1000;
+
+    private final UserSearchIndexRepository userSearchIndexRepository;
+    private final SearchDocumentRepository searchDocumentRepository;
+    private final SearchPostingRepository searchPostingRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Transactional
+    public void indexFile(UUID userId, UUID fileId, String filename, String rawText) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        int termCount = 0;
+        for (String term : TextTokenizer.tokenize(rawText)) {
+            if (term.length() <= SearchPosting.MAX_TERM_LENGTH) {
+                termFrequencies.merge(term, 1, Integer::sum);
+                termCount++;
+            }
+        }
+
+        UserSearchIndex index = lockIndex(userId);
+        int docNo = index.getNextDocNo();
+        index.setNextDocNo(docNo + 1);
+        index.setLiveDocuments(index.getLiveDocuments() + 1);
+
+        searchDocumentRepository.save(SearchDocument.builder()
+                .userId(userId)
+                .fileId(fileId)
+                .docNo(docNo)
+                .filename(filename)
+                .termCount(termCount)
+                .build());
+
+        Map<String, SearchPosting> existing = findPostings(userId, termFrequencies.keySet());
+        List<SearchPosting> created = new ArrayList<>();
+
+        for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+            SearchPosting posting = existing.get(entry.getKey());
+            if (posting == null) {
+                posting = SearchPosting.builder()
+                        .userId(userId)
+                        .term(entry.getKey())
+                        .lastDocNo(PostingList.NO_DOCUMENT)
+                        .postings(new byte[0])
+                        .build();
+                created.add(posting);
+            }
+
+            PostingList.Writer writer = PostingList.Writer.appendTo(posting.getPostings(), posting.getLastDocNo());
+            writer.add(docNo, entry.getValue());
+            posting.setPostings(writer.toBytes());
+            posting.setLastDocNo(docNo);
+            posting.setDocumentFrequency(posting.getDocumentFrequency() + 1);
+        }
+
+        searchPostingRepository.saveAll(created);
+        log.info("Файл {} проиндексирован: документ {}, {} термов, из них новых {}",
+                fileId, docNo, termFrequencies.size(), created.size());
+    }
+
+    // Пометки ставятся одним UPDATE, счётчики индекса меняются один раз на пачку
+    @Transactional
+    public void removeFiles(UUID userId, Collection<UUID> fileIds) {
+        UserSearchIndex index = lockIndex(userId);
+        int removed = searchDocumentRepository.markDeleted(userId, fileIds);
+        if (removed == 0) {
+            return;
+        }
+        index.setLiveDocuments(index.getLiveDocuments() - removed);
+        index.setDeletedDocuments(index.getDeletedDocuments() + removed);
+
+        if (index.getDeletedDocuments() >= Math.max(MIN_TOMBSTONES_TO_COMPACT, index.getLiveDocuments())) {
+            compact(index);
+        }
+    }
+
+    @Transactional
+    public void removeUser(UUID userId) {
+        searchPostingRepository.deleteAllByUserId(userId);
+        searchDocumentRepository.deleteAllByUserId(userId);
+        userSearchIndexRepository.deleteById(userId);
+    }
+
+    public List<ContentSearchHitDto> search(UUID userId, String query, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit должен быть положительным числом");
+        }
+
+        List<String> terms = TextTokenizer.tokenize(query == null ? "" : query).stream()
+                .filter(term -> term.length() <= SearchPosting.MAX_TERM_LENGTH)
+                .distinct()
+                .limit(MAX_QUERY_TERMS)
+                .toList();
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Поисковый запрос не содержит слов");
+        }
+
+        Optional<UserSearchIndex> index = userSearchIndexRepository.findById(userId);
+        if (index.isEmpty() || index.get().getLiveDocuments() == 0) {
+            return List.of();
+        }
+
+        Set<Integer> deleted = index.get().getDeletedDocuments() == 0
+                ? Set.of()
+                : new HashSet<>(searchDocumentRepository.findDeletedDocNos(userId));
+        int documents = index.get().getLiveDocuments() + index.get().getDeletedDocuments();
+
+        // tf-idf: (1 + ln tf) * ln(1 + N / df), сумма по термам запроса
+        Map<Integer, Double> scores = new HashMap<>();
+        for (SearchPosting posting : searchPostingRepository.findByUserIdAndTerms(userId, terms)) {
+            double idf = Math.log(1 + (double) documents / posting.getDocumentFrequency());
+            PostingList.forEach(posting.getPostings(), (docNo, termFrequency) -> {
+                if (!deleted.contains(docNo)) {
+                    scores.merge(docNo, (1 + Math.log(termFrequency)) * idf, Double::sum);
+                }
+            });
+        }
+
+        List<Map.Entry<Integer, Double>> top = topScores(scores, limit);
+        if (top.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, SearchDocument> documentsByNo = searchDocumentRepository
+                .findLiveByDocNos(userId, top.stream().map(Map.Entry::getKey).toList())
+                .stream()
+                .collect(Collectors.toMap(SearchDocument::getDocNo, Function.identity()));
+
+        return top.stream()
+                .filter(entry -> documentsByNo.containsKey(entry.getKey()))
+                .map(entry -> {
+                    SearchDocument document = documentsByNo.get(entry.getKey());
+                    return new ContentSearchHitDto(document.getFileId(), document.getFilename(), entry.getValue());
+                })
+                .toList();
+    }
+
+    private List<Map.Entry<Integer, Double>> topScores(Map<Integer, Double> scores, int limit) {
+        // Куча на limit элементов вместо сортировки всех найденных документов
+        Comparator<Map.Entry<Integer, Double>> byScore = Map.Entry.<Integer, Double>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+        PriorityQueue<Map.Entry<Integer, Double>> heap = new PriorityQueue<>(byScore);
+        for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+
+        List<Map.Entry<Integer, Double>> top = new ArrayList<>(heap);
+        top.sort(byScore.reversed());
+        return top;
+    }
+
+    private void compact(UserSearchIndex index) {
+        UUID userId = index.getUserId();
+        Set<Integer> deleted = new HashSet<>(searchDocumentRepository.findDeletedDocNos(userId));
+        List<SearchPosting> emptied = new ArrayList<>();
+
+        try (Stream<SearchPosting> postings = searchPostingRepository.streamByUserId(userId)) {
+            postings.forEach(posting -> {
+                PostingList.Writer writer = new PostingList.Writer();
+                PostingList.forEach(posting.getPostings(), (docNo, termFrequency) -> {
+                    if (!deleted.contains(docNo)) {
+                        writer.add(docNo, termFrequency);
+                    }
+                });
+
+                if (writer.getCount() == 0) {
+                    emptied.add(posting);
+                } else if (writer.getCount() != posting.getDocumentFrequency()) {
+                    posting.setPostings(writer.toBytes());
+                    posting.setLastDocNo(writer.getLastDocNo());
+                    posting.setDocumentFrequency(writer.getCount());
+                }
+            });
+        }
+
+        searchPostingRepository.deleteAll(emptied);
+        searchPostingRepository.flush();
+        searchDocumentRepository.deleteTombstones(userId);
+        index.setDeletedDocuments(0);
+
+        log.info("Индекс пользователя {} сжат: убрано {} удалённых документов, {} пустых термов",
+                userId, deleted.size(), emptied.size());
+    }
+
+    // Строка создаётся в отдельной транзакции: при первых параллельных загрузках пользователя
+    // одна вставка проигрывает по ключу, откатывается только она, и обе транзакции
+    // блокируют уже закоммиченную строку
+    private UserSearchIndex lockIndex(UUID userId) {
+        Optional<UserSearchIndex> index = userSearchIndexRepository.findForUpdate(userId);
+        if (index.isPresent()) {
+            return index.get();
+        }
+        try {
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            template.executeWithoutResult(status -> userSearchIndexRepository.insertEmpty(userId));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Индекс пользователя {} уже создан параллельной транзакцией", userId);
+        }
+        return userSearchIndexRepository.findForUpdate(userId)
+                .orElseThrow(() -> new IllegalStateException("Индекс пользователя не найден: " + userId));
+    }
+
+    private Map<String, SearchPosting> findPostings(UUID userId, Set<String> terms) {
+        Map<String, SearchPosting> postings = new HashMap<>();
+        List<String> batch = new ArrayList<>(TERMS_PER_QUERY);
+        for (String term : terms) {
+            batch.add(term);
+            if (batch.size() == TERMS_PER_QUERY) {
+                searchPostingRepository.findByUserIdAndTerms(userId, batch)
+                        .forEach(posting -> postings.put(posting.getTerm(), posting));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            searchPostingRepository.findByUserIdAndTerms(userId, batch)
+                    .forEach(posting -> postings.put(posting.getTerm(), posting));
+        }
+        return postings;
+    }
+}
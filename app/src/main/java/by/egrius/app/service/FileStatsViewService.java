@@ -0,0 +1,187 @@
+package by.egrius.app.service;
+
+import by.egrius.app.dto.fileDTO.FileAnalysisReadDto;
+import by.egrius.app.dto.fileDTO.FileStatsDto;
+import by.egrius.app.dto.fileDTO.RegexMatchReadDto;
+import by.egrius.app.dto.fileDTO.UploadedFileReadDto;
+import by.egrius.app.entity.FileContent;
+import by.egrius.app.entity.FileStatsView;
+import by.egrius.app.entity.UploadedFile;
+import by.egrius.app.mapper.RegexMatchReadMapper;
+import by.egrius.app.mapper.fileMapper.FileAnalysisReadMapper;
+import by.egrius.app.repository.FileAnalysisRepository;
+import by.egrius.app.repository.FileStatsViewRepository;
+import by.egrius.app.repository.RegexMatchRepository;
+import by.egrius.app.repository.UploadedFileRepository;
+import by.egrius.app.text.AnalysisCodec;
+import by.egrius.app.text.StringListsCodec;
+import by.egrius.app.text.WordLengthStats;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Денормализованная модель чтения для /file/{fileId}/stats. Строка создаётся при загрузке
+ * файла и обновляется в транзакциях, которые пишут анализ и regex-результат.
+ * Для файлов, загруженных до появления модели, строка собирается при первом чтении.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class FileStatsViewService {
+
+    private final FileStatsViewRepository fileStatsViewRepository;
+    private final UploadedFileRepository uploadedFileRepository;
+    private final FileAnalysisRepository fileAnalysisRepository;
+    private final RegexMatchRepository regexMatchRepository;
+    private final FileAnalysisReadMapper fileAnalysisReadMapper;
+    private final RegexMatchReadMapper regexMatchReadMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    public FileStatsDto getStats(UUID userId, UUID fileId) {
+        FileStatsView view = fileStatsViewRepository.findByFileIdAndUserId(fileId, userId)
+                .orElseGet(() -> rebuild(userId, fileId));
+        return toDto(view);
+    }
+
+    @Transactional
+    public void fileUploaded(UploadedFile file) {
+        fileStatsViewRepository.save(fileRow(file));
+    }
+
+    @Transactional
+    public void analysisWritten(UUID fileId, FileAnalysisReadDto analysis) {
+        fileStatsViewRepository.updateAnalysis(fileId, analysis.id(), encode(analysis), analysis.stopWordsExcluded());
+    }
+
+    @Transactional
+    public void regexWritten(UUID fileId, RegexMatchReadDto regexMatch) {
+        fileStatsViewRepository.updateRegexMatches(fileId, encode(regexMatch), regexMatch.matchCount());
+    }
+
+    @Transactional
+    public void regexRemoved(UUID fileId) {
+        fileStatsViewRepository.updateRegexMatches(fileId, null, null);
+    }
+
+    @Transactional
+    public void removeFiles(Collection<UUID> fileIds) {
+        fileStatsViewRepository.deleteByFileIds(fileIds);
+    }
+
+    @Transactional
+    public void removeUser(UUID userId) {
+        fileStatsViewRepository.deleteAllByUserId(userId);
+    }
+
+    private FileStatsView rebuild(UUID userId, UUID fileId) {
+        UploadedFile file = uploadedFileRepository.findByFileIdAndUserId(fileId, userId)
+                .orElseThrow(() -> new EntityNotFoundException("Файл не найден или не принадлежит пользователю"));
+
+        FileStatsView view = fileRow(file);
+        fileAnalysisRepository.findByUploadedFile_Id(fileId)
+                .map(fileAnalysisReadMapper::map)
+                .ifPresent(analysis -> {
+                    view.setAnalysisId(analysis.id());
+                    view.setAnalysis(encode(analysis));
+                    view.setStopWordsExcluded(analysis.stopWordsExcluded());
+                });
+        regexMatchRepository.findByUploadedFileId(fileId)
+                .map(regexMatchReadMapper::map)
+                .ifPresent(regexMatch -> {
+                    view.setRegexMatches(encode(regexMatch));
+                    view.setRegexMatchCount(regexMatch.matchCount());
+                });
+
+        // Строка вставляется в отдельной транзакции: если два первых чтения собрали её одновременно,
+        // проигравшая вставка откатывается одна, и чтение берёт строку победителя
+        try {
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            template.executeWithoutResult(status -> fileStatsViewRepository.insert(view));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Строка статистики файла {} уже собрана параллельным запросом", fileId);
+            return fileStatsViewRepository.findByFileIdAndUserId(fileId, userId)
+                    .orElseThrow(() -> e);
+        }
+
+        log.info("Собрана строка статистики для файла {}", fileId);
+        return view;
+    }
+
+    private static FileStatsView fileRow(UploadedFile file) {
+        FileContent content = file.getFileContent();
+        return FileStatsView.builder()
+                .fileId(file.getId())
+                .userId(file.getUser().getUserId())
+                .filename(file.getFilename())
+                .uploadTime(file.getUploadTime())
+                .contentType(file.getContentType())
+                .sizeBytes(content != null ? content.getSizeBytes() : null)
+                .lineCount(content != null ? content.getLineCount() : null)
+                .wordCount(content != null ? content.getWordCount() : null)
+                .build();
+    }
+
+    private FileStatsDto toDto(FileStatsView view) {
+        UploadedFileReadDto file = new UploadedFileReadDto(
+                view.getFileId(),
+                view.getFilename(),
+                view.getUploadTime(),
+                view.getContentType(),
+                view.getSizeBytes(),
+                view.getLineCount(),
+                view.getWordCount()
+        );
+
+        FileAnalysisReadDto analysis = view.getAnalysis() != null
+                ? fileAnalysisReadMapper.mapPayload(view.getAnalysisId(), view.getAnalysis(),
+                        view.getStopWordsExcluded(), false)
+                : null;
+
+        RegexMatchReadDto regexMatch = null;
+        if (view.getRegexMatches() != null) {
+            List<List<String>> matches = StringListsCodec.decode(view.getRegexMatches());
+            regexMatch = new RegexMatchReadDto(
+                    matches.get(0),
+                    matches.get(1),
+                    matches.get(2),
+                    matches.get(3),
+                    view.getRegexMatchCount()
+            );
+        }
+
+        return new FileStatsDto(file, analysis, regexMatch, analysis != null, regexMatch != null);
+    }
+
+    // Карта "слово - длина" в статистику не входит
+    private static byte[] encode(FileAnalysisReadDto analysis) {
+        return AnalysisCodec.encode(new AnalysisCodec.Payload(
+                analysis.topWords(),
+                analysis.startsWithMap(),
+                analysis.punctuationMap(),
+                new WordLengthStats(analysis.wordLengthHistogram(), analysis.longestWords(), analysis.shortestWords()),
+                null
+        ));
+    }
+
+    private static byte[] encode(RegexMatchReadDto regexMatch) {
+        return StringListsCodec.encode(List.of(
+                regexMatch.emailMatches(),
+                regexMatch.phoneMatches(),
+                regexMatch.ipMatches(),
+                regexMatch.dateMatches()
+        ));
+    }
+}
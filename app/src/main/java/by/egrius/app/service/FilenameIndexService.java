@@ -0,0 +1,87 @@
+package by.egrius.app.service;
+
+import by.egrius.app.dto.fileDTO.FilenameRefDto;
+import by.egrius.app.entity.FilenameTrigram;
+import by.egrius.app.repository.FilenameTrigramRepository;
+import by.egrius.app.text.Trigrams;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Триграммы имён файлов для поиска по подстроке: кандидаты выбираются по индексу
+ * (userId, trigram), и только они проверяются через LIKE.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class FilenameIndexService {
+
+    private static final UUID MIN_ID = new UUID(0L, 0L);
+
+    private final FilenameTrigramRepository filenameTrigramRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${file.filename-index.backfill-batch-size:500}")
+    private int backfillBatchSize;
+
+    @Transactional
+    public void indexFilename(UUID userId, UUID fileId, String filename) {
+        List<FilenameTrigram> trigrams = Trigrams.of(filename).stream()
+                .map(trigram -> FilenameTrigram.builder()
+                        .userId(userId)
+                        .fileId(fileId)
+                        .trigram(trigram)
+                        .build())
+                .toList();
+        filenameTrigramRepository.saveAll(trigrams);
+    }
+
+    @Transactional
+    public void removeFiles(Collection<UUID> fileIds) {
+        filenameTrigramRepository.deleteByFileIds(fileIds);
+    }
+
+    @Transactional
+    public void removeUser(UUID userId) {
+        filenameTrigramRepository.deleteAllByUserId(userId);
+    }
+
+    // Каждая страница коммитится отдельно: на большой базе одна транзакция держала бы
+    // в контексте все триграммы, а сбой посередине откатывал бы уже построенное
+    @EventListener(ApplicationReadyEvent.class)
+    public void indexMissingFilenames() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        UUID afterId = MIN_ID;
+        int indexed = 0;
+        while (true) {
+            UUID from = afterId;
+            List<FilenameRefDto> files = template.execute(status -> {
+                List<FilenameRefDto> page = filenameTrigramRepository.findUnindexedFiles(from,
+                        PageRequest.of(0, backfillBatchSize));
+                page.forEach(file -> indexFilename(file.userId(), file.fileId(), file.filename()));
+                return page;
+            });
+            if (files == null || files.isEmpty()) {
+                break;
+            }
+            indexed += files.size();
+            afterId = files.getLast().fileId();
+        }
+        if (indexed > 0) {
+            log.info("Построены триграммы имён для {} ранее загруженных файлов", indexed);
+        }
+    }
+}
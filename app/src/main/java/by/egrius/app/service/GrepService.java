@@ -0,0 +1,191 @@
+package by.egrius.app.service;
+
+import by.egrius.app.dto.fileDTO.GrepCandidateDto;
+import by.egrius.app.dto.fileDTO.GrepHitDto;
+import by.egrius.app.repository.FileContentRepository;
+import by.egrius.app.text.DeadlineCharSequence;
+import by.egrius.app.text.LineIndex;
+import by.egrius.app.text.RegexLiterals;
+import by.egrius.app.text.TrigramFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Поиск регулярного выражения по всем файлам пользователя.
+ * Из шаблона извлекаются обязательные литералы, и файлы, в маске триграмм которых
+ * их нет, отсекаются без чтения текста. Оставшиеся файлы сканируются параллельно,
+ * совпадения отдаются построчно в NDJSON по мере готовности файлов.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class GrepService {
+
+    private static final int CANDIDATE_PAGE_SIZE = 500;
+    private static final int MAX_MATCH_LENGTH = 200;
+
+    private final FileContentRepository fileContentRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${file.grep.threads:4}")
+    private int threads;
+
+    @Value("${file.grep.max-hits:10000}")
+    private int maxHits;
+
+    @Value("${file.grep.file-timeout-ms:2000}")
+    private long fileTimeoutMillis;
+
+    private ExecutorService workers;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "grep-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Шаблон и список кандидатов проверяются сразу, чтобы ошибка в шаблоне
+     * вернулась обычным ответом 400, а не оборвала уже начатый поток.
+     */
+    public StreamingResponseBody grep(UUID userId, String regex) {
+        if (regex == null || regex.isEmpty()) {
+            throw new IllegalArgumentException("Шаблон поиска не должен быть пустым");
+        }
+        // PatternSyntaxException - наследник IllegalArgumentException
+        Pattern pattern = Pattern.compile(regex);
+        List<String> literals = RegexLiterals.requiredLiterals(regex);
+
+        List<GrepCandidateDto> candidates = new ArrayList<>();
+        int total = 0;
+        Pageable pageable = PageRequest.of(0, CANDIDATE_PAGE_SIZE);
+        Slice<GrepCandidateDto> slice;
+        do {
+            slice = fileContentRepository.findGrepCandidates(userId, pageable);
+            for (GrepCandidateDto candidate : slice) {
+                total++;
+                // Файлы без маски загружены до её появления - их приходится сканировать
+                if (candidate.trigramFilter() == null
+                        || TrigramFilter.mightContainAll(candidate.trigramFilter(), literals)) {
+                    candidates.add(candidate);
+                }
+            }
+            pageable = slice.nextPageable();
+        } while (slice.hasNext());
+
+        log.info("Grep '{}' для пользователя {}: литералы {}, кандидатов {} из {}",
+                regex, userId, literals, candidates.size(), total);
+
+        return out -> stream(candidates, pattern, out);
+    }
+
+    private void stream(List<GrepCandidateDto> candidates, Pattern pattern, OutputStream out) throws IOException {
+        CompletionService<List<GrepHitDto>> completion = new ExecutorCompletionService<>(workers);
+        List<Future<List<GrepHitDto>>> futures = new ArrayList<>();
+        // Одновременно в работе не больше двух файлов на поток, чтобы не держать в памяти все тексты
+        int window = threads * 2;
+        int next = 0;
+        int running = 0;
+        int written = 0;
+
+        try {
+            while (next < candidates.size() && running < window) {
+                GrepCandidateDto candidate = candidates.get(next++);
+                futures.add(completion.submit(() -> scan(candidate, pattern)));
+                running++;
+            }
+
+            while (running > 0 && written < maxHits) {
+                List<GrepHitDto> hits = take(completion);
+                running--;
+
+                for (GrepHitDto hit : hits) {
+                    if (written >= maxHits) {
+                        break;
+                    }
+                    out.write(objectMapper.writeValueAsBytes(hit));
+                    out.write('\n');
+                    written++;
+                }
+                out.flush();
+
+                if (next < candidates.size()) {
+                    GrepCandidateDto candidate = candidates.get(next++);
+                    futures.add(completion.submit(() -> scan(candidate, pattern)));
+                    running++;
+                }
+            }
+        } finally {
+            // Клиент отключился или лимит исчерпан - остальные файлы не нужны
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private List<GrepHitDto> take(CompletionService<List<GrepHitDto>> completion) throws IOException {
+        try {
+            return completion.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Поиск прерван", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка при поиске по файлу", e.getCause());
+        }
+    }
+
+    private List<GrepHitDto> scan(GrepCandidateDto candidate, Pattern pattern) {
+        UUID fileId = candidate.fileId();
+        String text = fileContentRepository.findRawTextByFileId(fileId);
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+
+        byte[] storedIndex = fileContentRepository.findLineIndexByFileId(fileId);
+        LineIndex lineIndex = storedIndex != null ? LineIndex.fromBytes(storedIndex) : LineIndex.build(text);
+
+        List<GrepHitDto> hits = new ArrayList<>();
+        Matcher matcher = pattern.matcher(new DeadlineCharSequence(text,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(fileTimeoutMillis)));
+        try {
+            while (hits.size() < maxHits && matcher.find()) {
+                int offset = matcher.start();
+                // Пустое совпадение в самом конце текста относим к последней строке
+                int line = lineIndex.lineOf(Math.min(offset, text.length() - 1)) + 1;
+                String match = text.substring(offset, Math.min(matcher.end(), offset + MAX_MATCH_LENGTH));
+                hits.add(new GrepHitDto(fileId, candidate.filename(), line, offset, match));
+            }
+        } catch (DeadlineCharSequence.DeadlineExceededException e) {
+            log.warn("Grep по файлу {} прерван по времени, найдено {} совпадений", fileId, hits.size());
+        }
+        return hits;
+    }
+}
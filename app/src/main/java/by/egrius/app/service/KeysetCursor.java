@@ -0,0 +1,35 @@
+package by.egrius.app.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Позиция постраничного вывода по ключу (время, id): следующая страница начинается строго
+ * после последней строки предыдущей. Клиенту отдаётся непрозрачной строкой.
+ */
+record KeysetCursor(Timestamp time, UUID id) {
+
+    String encode() {
+        String raw = time.toInstant() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // null или пустая строка - первая страница
+    static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new KeysetCursor(Timestamp.from(Instant.parse(raw.substring(0, separator))),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Некорректный курсор страницы");
+        }
+    }
+}
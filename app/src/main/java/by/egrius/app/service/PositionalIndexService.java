@@ -0,0 +1,177 @@
+package by.egrius.app.service;
+
+import by.egrius.app.dto.fileDTO.KwicHitDto;
+import by.egrius.app.dto.fileDTO.KwicReadDto;
+import by.egrius.app.entity.TermPositions;
+import by.egrius.app.repository.FileContentRepository;
+import by.egrius.app.repository.TermPositionsRepository;
+import by.egrius.app.text.LineIndex;
+import by.egrius.app.text.PositionList;
+import by.egrius.app.text.PositionalIndexBuilder;
+import by.egrius.app.text.TextTokenizer;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Позиционный индекс файла: для каждого слова - номера и смещения всех вхождений.
+ * Строится тем же проходом токенизатора, что и анализ, и отвечает на фразовые запросы
+ * и запросы «слово в контексте». Контекст читается из БД диапазонами, без загрузки всего текста.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class PositionalIndexService {
+
+    public static final int MAX_WINDOW = 500;
+    private static final int MAX_PHRASE_TERMS = 8;
+
+    private final TermPositionsRepository termPositionsRepository;
+    private final FileContentRepository fileContentRepository;
+
+    @Transactional
+    public void indexFile(UUID fileId, PositionalIndexBuilder builder) {
+        termPositionsRepository.deleteByFileId(fileId);
+
+        List<TermPositions> rows = new ArrayList<>(builder.getTerms().size());
+        builder.getTerms().forEach((term, writer) -> rows.add(TermPositions.builder()
+                .fileId(fileId)
+                .term(term)
+                .occurrences(writer.getCount())
+                .positions(writer.toBytes())
+                .build()));
+
+        termPositionsRepository.saveAll(rows);
+        log.info("Позиционный индекс файла {}: {} слов, {} различных", fileId, builder.getTokenCount(), rows.size());
+    }
+
+    @Transactional
+    public void removeFiles(Collection<UUID> fileIds) {
+        termPositionsRepository.deleteByFileIds(fileIds);
+    }
+
+    @Transactional
+    public void removeUser(UUID userId) {
+        termPositionsRepository.deleteAllByUserId(userId);
+    }
+
+    // window - число символов контекста с каждой стороны
+    public KwicReadDto kwic(UUID fileId, String query, int window, int limit) {
+        if (window < 0 || window > MAX_WINDOW) {
+            throw new IllegalArgumentException("window должен быть от 0 до " + MAX_WINDOW);
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit должен быть положительным числом");
+        }
+
+        List<String> terms = TextTokenizer.tokenize(query == null ? "" : query);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Запрос не содержит слов");
+        }
+        if (terms.size() > MAX_PHRASE_TERMS) {
+            throw new IllegalArgumentException("Фраза может содержать не более " + MAX_PHRASE_TERMS + " слов");
+        }
+
+        Map<String, PositionList.Occurrences> occurrences = new HashMap<>();
+        for (TermPositions row : termPositionsRepository.findByFileIdAndTerms(fileId, new HashSet<>(terms))) {
+            occurrences.put(row.getTerm(), PositionList.decode(row.getPositions(), row.getOccurrences()));
+        }
+        if (occurrences.isEmpty() && !termPositionsRepository.existsByFileId(fileId)) {
+            throw new EntityNotFoundException("Позиционный индекс не найден, сначала выполните анализ файла");
+        }
+        if (!occurrences.keySet().containsAll(terms)) {
+            return new KwicReadDto(query, 0, List.of());
+        }
+
+        // Фраза - вхождение первого слова, за которым по порядку идут остальные
+        PositionList.Occurrences first = occurrences.get(terms.getFirst());
+        List<int[]> spans = new ArrayList<>();
+        int total = 0;
+        for (int i = 0; i < first.size(); i++) {
+            int end = first.offsets()[i] + first.lengths()[i];
+            boolean matched = true;
+            for (int k = 1; k < terms.size() && matched; k++) {
+                PositionList.Occurrences next = occurrences.get(terms.get(k));
+                int j = next.indexOfPosition(first.positions()[i] + k);
+                if (j < 0) {
+                    matched = false;
+                } else {
+                    end = next.offsets()[j] + next.lengths()[j];
+                }
+            }
+            if (matched) {
+                total++;
+                if (spans.size() < limit) {
+                    spans.add(new int[]{first.offsets()[i], end});
+                }
+            }
+        }
+
+        return new KwicReadDto(query, total, snippets(fileId, spans, window));
+    }
+
+    private List<KwicHitDto> snippets(UUID fileId, List<int[]> spans, int window) {
+        if (spans.isEmpty()) {
+            return List.of();
+        }
+
+        String text = null;
+        byte[] storedIndex = fileContentRepository.findLineIndexByFileId(fileId);
+        LineIndex lineIndex;
+        if (storedIndex != null) {
+            lineIndex = LineIndex.fromBytes(storedIndex);
+        } else {
+            text = loadRawText(fileId);
+            lineIndex = LineIndex.build(text);
+        }
+        if (text == null && lineIndex.hasSurrogates()) {
+            // БД считает позиции по символам, а индекс - по UTF-16
+            text = loadRawText(fileId);
+        }
+
+        List<KwicHitDto> hits = new ArrayList<>(spans.size());
+        int i = 0;
+        while (i < spans.size()) {
+            // Соседние вхождения с пересекающимся контекстом читаем одним диапазоном
+            int from = Math.max(0, spans.get(i)[0] - window);
+            int to = Math.min(lineIndex.textLength(), spans.get(i)[1] + window);
+            int groupEnd = i + 1;
+            while (groupEnd < spans.size() && spans.get(groupEnd)[0] - window <= to) {
+                to = Math.min(lineIndex.textLength(), Math.max(to, spans.get(groupEnd)[1] + window));
+                groupEnd++;
+            }
+
+            String range = text != null
+                    ? text.substring(from, to)
+                    : fileContentRepository.findTextRange(fileId, from + 1, to - from);
+
+            for (; i < groupEnd; i++) {
+                int start = spans.get(i)[0];
+                int end = spans.get(i)[1];
+                int left = Math.max(from, start - window);
+                int right = Math.min(to, end + window);
+                hits.add(new KwicHitDto(
+                        lineIndex.lineOf(start) + 1,
+                        start,
+                        range.substring(left - from, start - from),
+                        range.substring(start - from, end - from),
+                        range.substring(end - from, right - from)
+                ));
+            }
+        }
+        return hits;
+    }
+
+    private String loadRawText(UUID fileId) {
+        String text = fileContentRepository.findRawTextByFileId(fileId);
+        if (text == null) {
+            throw new EntityNotFoundException("Содержимое файла не найдено");
+        }
+        return text;
+    }
+}
@@ -4,18 +4,24 @@ import by.egrius.app.dto.fileDTO.RegexMatchReadDto;
 import by.egrius.app.entity.PatternMatches;
 import by.egrius.app.entity.RegexMatch;
 import by.egrius.app.entity.UploadedFile;
+import by.egrius.app.entity.enums.FileEventType;
 import by.egrius.app.entity.enums.PatternType;
+import by.egrius.app.event.FileProgressEvent;
 import by.egrius.app.mapper.RegexMatchReadMapper;
+import by.egrius.app.publisher.FileEventPublisher;
 import by.egrius.app.repository.PatternMatchesRepository;
 import by.egrius.app.repository.RegexMatchRepository;
 import by.egrius.app.repository.UploadedFileRepository;
+import by.egrius.app.text.LineIndex;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
-import java.util.regex.MatchResult;
 import java.util.regex.Pattern;
 
 @Service
@@ -34,14 +40,34 @@ public class RegexMatchService {
     private final RegexMatchRepository regexMatchRepository;
     private final RegexMatchReadMapper regexMatchReadMapper;
     private final PatternMatchesRepository patternMatchesRepository;
+    private final FileEventPublisher fileEventPublisher;
+    private final FileStatsViewService fileStatsViewService;
+    private final MeterRegistry meterRegistry;
 
     @Transactional
     public RegexMatchReadDto createRegexMatch(UUID fileId, Set<PatternType> types) {
         UploadedFile file = uploadedFileRepository.findById(fileId)
                 .orElseThrow(() -> new EntityNotFoundException("Файл не найден"));
 
-        Optional<RegexMatch> existingMatch = regexMatchRepository.findByUploadedFileId(fileId);
+        return createRegexMatch(file, regexMatchRepository.findByUploadedFileId(fileId), types);
+    }
+
+    // Запрос пользователя: файл, его текст и прежний результат приходят одним запросом с проверкой владельца
+    @Transactional
+    public RegexMatchReadDto createRegexMatch(UUID userId, UUID fileId, Set<PatternType> types) {
+        UploadedFile file = uploadedFileRepository.findForProcessing(fileId, userId)
+                .orElseThrow(() -> new EntityNotFoundException("Файл не найден или не принадлежит пользователю"));
+
+        return createRegexMatch(file, Optional.ofNullable(file.getRegexMatch()), types);
+    }
+
+    private RegexMatchReadDto createRegexMatch(UploadedFile file, Optional<RegexMatch> existingMatch,
+                                               Set<PatternType> types) {
+        UUID fileId = file.getId();
+
         if (existingMatch.isPresent()) {
+            // Иначе каскад от файла вернёт удалённый результат при flush
+            file.setRegexMatch(null);
             regexMatchRepository.delete(existingMatch.get());
             regexMatchRepository.flush();
         }
@@ -51,26 +77,58 @@ public class RegexMatchService {
             throw new IllegalArgumentException("Файл не содержит текста для анализа");
         }
 
+        fileEventPublisher.publish(FileEventType.REGEX_START, fileId);
+
+        try {
+            RegexMatchReadDto result = scan(file, fileId, rawText, types);
+            fileEventPublisher.publish(FileEventType.REGEX_END, fileId);
+            return result;
+        } catch (RuntimeException e) {
+            // Как и у анализа: REGEX_START откатится вместе с транзакцией, ERROR записывается отдельно
+            fileEventPublisher.publishError(fileId);
+            throw e;
+        }
+    }
+
+    private RegexMatchReadDto scan(UploadedFile file, UUID fileId, String rawText, Set<PatternType> types) {
+        byte[] storedIndex = file.getFileContent().getLineIndex();
+        LineIndex lineIndex = storedIndex != null ? LineIndex.fromBytes(storedIndex) : LineIndex.build(rawText);
+
         RegexMatch regexMatch = new RegexMatch();
         regexMatch.setUploadedFile(file);
+        file.setRegexMatch(regexMatch);
 
         List<PatternMatches> allPatternMatches = new ArrayList<>();
         long totalMatches = 0;
+        int processedTypes = 0;
 
         for (PatternType type : types) {
+            // Прогресс - доля уже обработанных типов шаблонов
+            fileEventPublisher.publishProgress(fileId, FileProgressEvent.Job.REGEX, processedTypes++ * 100 / types.size());
             Pattern pattern = patternTypes.get(type);
             if (pattern == null) continue;
 
-            List<String> matches = pattern.matcher(rawText)
+            // Уникальные совпадения со смещением первого вхождения
+            Map<String, Integer> matches = new LinkedHashMap<>();
+            Timer.Sample scan = Timer.start(meterRegistry);
+            pattern.matcher(rawText)
                     .results()
-                    .map(MatchResult::group)
-                    .distinct()
-                    .toList();
-
-            for (String matchValue : matches) {
+                    .forEach(result -> matches.putIfAbsent(result.group(), result.start()));
+            scan.stop(Timer.builder("file.regex.scan")
+                    .description("Время поиска одного типа шаблона по тексту файла")
+                    .tag("pattern", type.name())
+                    .register(meterRegistry));
+            DistributionSummary.builder("file.regex.matches")
+                    .description("Уникальные совпадения одного типа шаблона в файле")
+                    .tag("pattern", type.name())
+                    .register(meterRegistry)
+                    .record(matches.size());
+
+            for (Map.Entry<String, Integer> match : matches.entrySet()) {
                 PatternMatches patternMatch = PatternMatches.builder()
                         .patternType(type)
-                        .match(matchValue)
+                        .match(match.getKey())
+                        .lineNumber(lineIndex.lineOf(match.getValue()) + 1)
                         .regexMatch(regexMatch)
                         .build();
                 allPatternMatches.add(patternMatch);
@@ -84,8 +142,11 @@ public class RegexMatchService {
 
         regexMatchRepository.save(regexMatch);
         regexMatchRepository.flush();
+        RegexMatchReadDto result = regexMatchReadMapper.map(regexMatch);
+        fileStatsViewService.regexWritten(fileId, result);
+        fileEventPublisher.publishProgress(fileId, FileProgressEvent.Job.REGEX, 100);
 
-        return regexMatchReadMapper.map(regexMatch);
+        return result;
     }
 
     @Transactional(readOnly = true)
@@ -94,15 +155,53 @@ public class RegexMatchService {
                 .map(regexMatchReadMapper::map);
     }
 
+    @Transactional(readOnly = true)
+    public Optional<RegexMatchReadDto> getRegexMatchByFileId(UUID userId, UUID fileId) {
+        return regexMatchRepository.findByFileIdAndUserId(fileId, userId)
+                .map(regexMatchReadMapper::map);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean hasRegexMatch(UUID fileId) {
+        return regexMatchRepository.existsByUploadedFileId(fileId);
+    }
+
     @Transactional(readOnly = true)
     public List<PatternMatches> getPatternMatchesByType(UUID fileId, PatternType type) {
         return patternMatchesRepository.findByRegexMatchUploadedFileIdAndPatternType(fileId, type);
     }
 
+    // Пустой ответ бывает и у чужого файла, поэтому только тогда владелец проверяется отдельно
+    @Transactional(readOnly = true)
+    public List<PatternMatches> getPatternMatchesByType(UUID userId, UUID fileId, PatternType type) {
+        List<PatternMatches> matches = patternMatchesRepository.findByFileIdAndUserIdAndPatternType(fileId, userId, type);
+        if (matches.isEmpty()) {
+            checkFileOwnership(userId, fileId);
+        }
+        return matches;
+    }
+
     @Transactional
     public void deleteRegexMatch(UUID fileId) {
         regexMatchRepository.findByUploadedFileId(fileId)
                 .ifPresent(regexMatchRepository::delete);
+        fileStatsViewService.regexRemoved(fileId);
+    }
 
+    // Удаление двумя DELETE без загрузки совпадений: каскад удалял бы их по одному
+    @Transactional
+    public void deleteRegexMatch(UUID userId, UUID fileId) {
+        checkFileOwnership(userId, fileId);
+        List<UUID> fileIds = List.of(fileId);
+        patternMatchesRepository.deleteByFileIds(fileIds);
+        if (regexMatchRepository.deleteByFileIds(fileIds) > 0) {
+            fileStatsViewService.regexRemoved(fileId);
+        }
+    }
+
+    private void checkFileOwnership(UUID userId, UUID fileId) {
+        if (!uploadedFileRepository.existsByIdAndUser_UserId(fileId, userId)) {
+            throw new EntityNotFoundException("Файл не найден или не принадлежит пользователю");
+        }
     }
 }
@@ -0,0 +1,151 @@
+package by.egrius.app.service;
+
+import by.egrius.app.entity.enums.PatternType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Фоновый предрасчёт анализа и regex-совпадений сразу после загрузки файла.
+ * Задачи раскладываются по очередям пользователей, которые обслуживаются по кругу:
+ * у одного пользователя в работе не больше одной задачи, поэтому массовая загрузка
+ * не занимает все потоки и не задерживает чужие файлы.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "file.precompute.enabled", havingValue = "true")
+public class UploadPrecomputeService {
+
+    private final FileAnalysisService fileAnalysisService;
+    private final RegexMatchService regexMatchService;
+
+    @Value("${file.precompute.threads:2}")
+    private int threads;
+
+    @Value("${file.precompute.max-pending-per-user:50}")
+    private int maxPendingPerUser;
+
+    @Value("${file.precompute.max-pending:1000}")
+    private int maxPending;
+
+    @Value("${file.precompute.top-n:10}")
+    private int topN;
+
+    private final Object lock = new Object();
+    private final Map<UUID, Deque<UUID>> pendingByUser = new HashMap<>();
+    private final Deque<UUID> readyUsers = new ArrayDeque<>();
+    private int pendingTotal;
+
+    private ExecutorService workers;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "precompute-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < threads; i++) {
+            workers.submit(this::workLoop);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Ставит файл в очередь пользователя. Возвращает false, если очередь переполнена:
+     * предрасчёт необязателен, данные всё равно посчитаются при первом запросе.
+     */
+    public boolean submit(UUID userId, UUID fileId) {
+        synchronized (lock) {
+            Deque<UUID> queue = pendingByUser.get(userId);
+            int queued = queue == null ? 0 : queue.size();
+            if (queued >= maxPendingPerUser || pendingTotal >= maxPending) {
+                log.warn("Очередь предрасчёта переполнена, файл {} пользователя {} пропущен", fileId, userId);
+                return false;
+            }
+
+            // Очередь существует, пока у пользователя есть ожидающие или выполняемые задачи
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                pendingByUser.put(userId, queue);
+                readyUsers.addLast(userId);
+            }
+            queue.addLast(fileId);
+            pendingTotal++;
+            lock.notify();
+            return true;
+        }
+    }
+
+    private void workLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            UUID userId;
+            UUID fileId;
+            synchronized (lock) {
+                while (readyUsers.isEmpty()) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                userId = readyUsers.pollFirst();
+                fileId = pendingByUser.get(userId).pollFirst();
+                pendingTotal--;
+            }
+
+            try {
+                precompute(fileId);
+            } catch (Throwable e) {
+                // Цикл запущен через submit: вылетевшая ошибка (StackOverflowError на регулярке,
+                // OutOfMemoryError на большом файле) молча завершила бы воркер навсегда
+                log.error("Ошибка предрасчёта для файла {}, воркер продолжает работу", fileId, e);
+            } finally {
+                synchronized (lock) {
+                    Deque<UUID> queue = pendingByUser.get(userId);
+                    if (queue.isEmpty()) {
+                        pendingByUser.remove(userId);
+                    } else {
+                        readyUsers.addLast(userId);
+                        lock.notify();
+                    }
+                }
+            }
+        }
+    }
+
+    private void precompute(UUID fileId) {
+        try {
+            if (!fileAnalysisService.hasAnalysis(fileId)) {
+                fileAnalysisService.createAnalysis(fileId, topN, true);
+            }
+        } catch (RuntimeException e) {
+            // Анализ мог появиться по запросу пользователя между проверкой и созданием
+            log.warn("Предрасчёт анализа для файла {} не выполнен: {}", fileId, e.getMessage());
+        }
+
+        try {
+            if (!regexMatchService.hasRegexMatch(fileId)) {
+                regexMatchService.createRegexMatch(fileId, EnumSet.allOf(PatternType.class));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Предрасчёт regex-совпадений для файла {} не выполнен: {}", fileId, e.getMessage());
+        }
+    }
+}
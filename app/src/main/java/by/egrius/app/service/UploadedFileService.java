@@ -1,23 +1,38 @@
 package by.egrius.app.service;
 
 import by.egrius.app.dto.fileDTO.FileContentReadDto;
+import by.egrius.app.dto.fileDTO.FileLinesReadDto;
+import by.egrius.app.dto.fileDTO.FileListPageDto;
 import by.egrius.app.dto.fileDTO.UploadedFileReadDto;
+import by.egrius.app.entity.CsvProfile;
 import by.egrius.app.entity.FileContent;
 import by.egrius.app.entity.UploadedFile;
 import by.egrius.app.entity.User;
 import by.egrius.app.entity.enums.ContentType;
+import by.egrius.app.entity.enums.Language;
 import by.egrius.app.mapper.fileMapper.UploadedFileReadMapper;
 import by.egrius.app.publisher.FileEventPublisher;
+import by.egrius.app.repository.FileContentRepository;
 import by.egrius.app.repository.UploadedFileRepository;
 import by.egrius.app.repository.UserRepository;
+import by.egrius.app.security.UserPrincipal;
+import by.egrius.app.text.LanguageDetector;
+import by.egrius.app.text.LineIndex;
+import by.egrius.app.text.TrigramFilter;
+import by.egrius.app.text.Trigrams;
+import by.egrius.app.text.csv.CsvProfiler;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -25,10 +40,13 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.AccessDeniedException;
 import java.sql.Timestamp;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Slf4j
@@ -43,6 +61,20 @@ public class UploadedFileService {
     private final UploadedFileReadMapper uploadedFileReadMapper;
     private final FileEventPublisher fileEventPublisher;
     private final UserRepository userRepository;
+    private final LanguageDetector languageDetector;
+    private final CsvProfiler csvProfiler;
+    private final FileContentRepository fileContentRepository;
+    private final FileSearchIndexService fileSearchIndexService;
+    private final FilenameIndexService filenameIndexService;
+    private final PositionalIndexService positionalIndexService;
+    private final FileStatsViewService fileStatsViewService;
+    private final FileBulkDeleteService fileBulkDeleteService;
+    private final MeterRegistry meterRegistry;
+
+    public static final int MAX_PAGE_LIMIT = 500;
+
+    @Value("${file.lines.max-range:5000}")
+    private int maxLineRange = 5000;
 
     @Transactional
     public UploadedFileReadDto uploadFile(MultipartFile file, UUID userId) {
@@ -75,37 +107,60 @@ public class UploadedFileService {
                 throw new IllegalArgumentException("Файл пустой или не содержит текстового содержимого");
             }
 
-            long lineCount = rawText.lines().count();
+            LineIndex lineIndex = LineIndex.build(rawText);
+            long lineCount = lineIndex.lineCount();
             long wordCount = Arrays.stream(rawText.split("\\s+"))
                     .filter(word -> !word.isBlank())
                     .count();
 
+            Language language = languageDetector.detect(rawText);
+
             User user = userRepository.findById(userId)
                     .orElseThrow(() -> new EntityNotFoundException("User not found"));
 
+            ContentType contentType = resolveContentType(filename, file.getContentType());
+
             UploadedFile uploadedFile = UploadedFile.builder()
                     .filename(filename)
                     .uploadTime(Timestamp.valueOf(LocalDateTime.now()))
-                    .contentType(ContentType.TXT)
+                    .contentType(contentType)
                     .user(user)
                     .build();
 
             FileContent fileContent = FileContent.builder()
                     .uploadedFile(uploadedFile)
                     .rawText(rawText)
+                    .sizeBytes((long) fileBytes.length)
                     .lineCount(lineCount)
                     .wordCount(wordCount)
-                    .language(null) // Допилить
+                    .language(language)
+                    .lineIndex(lineIndex.toBytes())
+                    .trigramFilter(TrigramFilter.build(rawText))
                     .build();
 
             uploadedFile.setFileContent(fileContent);
 
+            if (contentType == ContentType.CSV) {
+                CsvProfile csvProfile = csvProfiler.profile(file.getInputStream());
+                csvProfile.setUploadedFile(uploadedFile);
+                uploadedFile.setCsvProfile(csvProfile);
+                log.info("CSV '{}': {} строк, {} колонок", filename,
+                        csvProfile.getRowCount(), csvProfile.getColumns().size());
+            }
+
             uploadedFileRepository.save(uploadedFile);
+            fileStatsViewService.fileUploaded(uploadedFile);
+            fileSearchIndexService.indexFile(userId, uploadedFile.getId(), filename, rawText);
+            filenameIndexService.indexFilename(userId, uploadedFile.getId(), filename);
 
-            // fileEventPublisher.publishUpload(uploadedFile.getId());
+            fileEventPublisher.publishUpload(uploadedFile.getId(), userId);
 
-            log.info("Файл '{}' успешно добавлен. Размер: {} байт, Строки: {}, Слова: {}",
-                    filename, fileBytes.length, lineCount, wordCount);
+            recordUpload("file.upload.bytes", "Размер загруженного файла", "bytes", fileBytes.length);
+            recordUpload("file.upload.lines", "Число строк в загруженном файле", "lines", lineCount);
+            recordUpload("file.upload.words", "Число слов в загруженном файле", "words", wordCount);
+
+            log.info("Файл '{}' успешно добавлен. Размер: {} байт, Строки: {}, Слова: {}, Язык: {}",
+                    filename, fileBytes.length, lineCount, wordCount, language);
 
             return uploadedFileReadMapper.map(uploadedFile);
         } catch (IOException e) {
@@ -115,24 +170,49 @@ public class UploadedFileService {
         }
     }
 
+    private void recordUpload(String name, String description, String baseUnit, long value) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit(baseUnit)
+                .register(meterRegistry)
+                .record(value);
+    }
+
+    private ContentType resolveContentType(String filename, String mimeType) {
+        if (filename.toLowerCase().endsWith(".csv") || "text/csv".equalsIgnoreCase(mimeType)) {
+            return ContentType.CSV;
+        }
+        return ContentType.TXT;
+    }
+
     public UploadedFileReadDto showUploadedFileById(UUID userId, UUID fileId) {
-        UploadedFile uploadedFile = uploadedFileRepository.findByFileIdAndUserId(fileId, userId)
+        return uploadedFileRepository.findReadDtoByIdAndUserId(fileId, userId)
                 .orElseThrow(() -> new EntityNotFoundException("Файл не найден или не принадлежит пользователю"));
+    }
 
-        return uploadedFileReadMapper.map(uploadedFile);
+    public void checkFileOwnership(UUID userId, UUID fileId) {
+        if (!uploadedFileRepository.existsByIdAndUser_UserId(fileId, userId)) {
+            throw new EntityNotFoundException("Файл не найден или не принадлежит пользователю");
+        }
     }
 
     public UploadedFileReadDto showUploadedFileByFilename(String filename, UUID userId) {
-
-        UploadedFile uploadedFile = uploadedFileRepository.findByFilenameAndUserId(filename, userId)
+        return uploadedFileRepository.findReadDtoByFilenameAndUserId(filename, userId)
                 .orElseThrow(() -> new EntityNotFoundException("Файл с именем \" " + filename + " \" не найден"));
-
-        return uploadedFileReadMapper.map(uploadedFile);
     }
 
     public Page<UploadedFileReadDto> showAllUploadedFilesByUserId(UUID userId, Pageable pageable) {
-        Page<UploadedFile> files = uploadedFileRepository.findAllFilesByUserId(userId, pageable);
-        return files.map(uploadedFileReadMapper::map);
+        return uploadedFileRepository.findReadDtosByUserId(userId, pageable);
+    }
+
+    // Страница по курсору: стоимость не зависит от глубины листания, COUNT только при withTotal
+    public FileListPageDto showUploadedFilesPage(UUID userId, String cursor, int limit, boolean withTotal) {
+        Pageable page = keysetPage(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<UploadedFileReadDto> files = after == null
+                ? uploadedFileRepository.findFirstKeysetPage(userId, page)
+                : uploadedFileRepository.findKeysetPageAfter(userId, after.time(), after.id(), page);
+        return keysetResult(files, limit, withTotal ? uploadedFileRepository.countCachedByUserId(userId) : null);
     }
 
     public FileContentReadDto getFileContent(UUID userId, UUID fileId) {
@@ -152,46 +232,121 @@ public class UploadedFileService {
         );
     }
 
+    // Номера строк с единицы, обе границы включительно
+    public FileLinesReadDto getFileLines(UUID userId, UUID fileId, int from, int to) {
+        if (from < 1 || to < from) {
+            throw new IllegalArgumentException("Некорректный диапазон строк");
+        }
+        if (to - from >= maxLineRange) {
+            throw new IllegalArgumentException("За один запрос можно получить не более " + maxLineRange + " строк");
+        }
+        checkFileOwnership(userId, fileId);
+
+        // Для файлов, загруженных до появления индекса, строим его по тексту
+        String text = null;
+        byte[] storedIndex = fileContentRepository.findLineIndexByFileId(fileId);
+        LineIndex lineIndex;
+        if (storedIndex != null) {
+            lineIndex = LineIndex.fromBytes(storedIndex);
+        } else {
+            text = loadRawText(fileId);
+            lineIndex = LineIndex.build(text);
+        }
+
+        int totalLines = lineIndex.lineCount();
+        int last = Math.min(to, totalLines);
+        if (from > last) {
+            return new FileLinesReadDto(from, to, totalLines, List.of());
+        }
+
+        int start = lineIndex.lineStart(from - 1);
+        int end = lineIndex.lineEnd(last - 1);
+
+        String range;
+        if (text != null) {
+            range = text.substring(start, end);
+        } else if (lineIndex.hasSurrogates()) {
+            // БД считает позиции по символам, а индекс - по UTF-16, поэтому режем в памяти
+            range = loadRawText(fileId).substring(start, end);
+        } else {
+            range = fileContentRepository.findTextRange(fileId, start + 1, end - start);
+        }
+
+        return new FileLinesReadDto(from, last, totalLines, range.lines().toList());
+    }
+
+    private String loadRawText(UUID fileId) {
+        String rawText = fileContentRepository.findRawTextByFileId(fileId);
+        if (rawText == null) {
+            throw new EntityNotFoundException("Содержимое файла отсутствует");
+        }
+        return rawText;
+    }
+
     @Transactional
     public void removeFileById(UUID userId, String rawPassword, UUID fileId) throws AccessDeniedException {
 
-        User currentUser = userService.getCurrentUser();
+        UserPrincipal currentUser = userService.getCurrentUser();
 
-        if (!currentUser.getUserId().equals(userId)) {
+        if (!currentUser.getId().equals(userId)) {
             throw new AccessDeniedException("Нельзя удалять файлы других пользователей");
         }
 
-        UploadedFile uploadedFile = uploadedFileRepository.findByFileIdAndUserId(fileId, userId)
+        uploadedFileRepository.findReadDtoByIdAndUserId(fileId, userId)
                 .orElseThrow(() -> new EntityNotFoundException("Не удалось найти файл для удаления"));
 
         if (!passwordEncoder.matches(rawPassword, currentUser.getPassword())) {
             throw new org.springframework.security.access.AccessDeniedException("Неверный пароль");
         }
 
-        uploadedFileRepository.delete(uploadedFile);
+        fileBulkDeleteService.removeFiles(userId, List.of(fileId));
         log.info("Файл {} удалён пользователем {}", fileId, userId);
-        fileEventPublisher.publishDeleted(fileId);
+        fileEventPublisher.publishDeleted(fileId, userId);
     }
 
     @Transactional
     public void removeFileByFilename(UUID userId, String rawPassword, String filename) throws AccessDeniedException {
 
-        User currentUser = userService.getCurrentUser();
+        UserPrincipal currentUser = userService.getCurrentUser();
 
-        if (!currentUser.getUserId().equals(userId)) {
+        if (!currentUser.getId().equals(userId)) {
             throw new AccessDeniedException("Нельзя удалять файлы других пользователей");
         }
 
-        UploadedFile uploadedFile = uploadedFileRepository.findByFilenameAndUserId(filename, userId)
+        UUID fileId = uploadedFileRepository.findReadDtoByFilenameAndUserId(filename, userId)
+                .map(UploadedFileReadDto::id)
                 .orElseThrow(() -> new EntityNotFoundException("Файл с таким именем не найден"));
 
         if (!passwordEncoder.matches(rawPassword, currentUser.getPassword())) {
             throw new AccessDeniedException("Неверный пароль");
         }
 
-        uploadedFileRepository.delete(uploadedFile);
+        fileBulkDeleteService.removeFiles(userId, List.of(fileId));
         log.info("Файл {} удалён пользователем {}", filename, userId);
-        fileEventPublisher.publishDeleted(uploadedFile.getId());
+        fileEventPublisher.publishDeleted(fileId, userId);
+    }
+
+    // Ровно один критерий: список id или граница времени загрузки.
+    // Без своей транзакции: удаление по дате коммитит пачки по отдельности
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public int removeFiles(UUID userId, String rawPassword, List<UUID> fileIds, Instant uploadedBefore)
+            throws AccessDeniedException {
+        if ((fileIds == null || fileIds.isEmpty()) == (uploadedBefore == null)) {
+            throw new IllegalArgumentException("Укажите либо список файлов, либо дату загрузки");
+        }
+
+        UserPrincipal currentUser = userService.getCurrentUser();
+
+        if (!currentUser.getId().equals(userId)) {
+            throw new AccessDeniedException("Нельзя удалять файлы других пользователей");
+        }
+        if (!passwordEncoder.matches(rawPassword, currentUser.getPassword())) {
+            throw new AccessDeniedException("Неверный пароль");
+        }
+
+        return uploadedBefore != null
+                ? fileBulkDeleteService.deleteFilesUploadedBefore(userId, uploadedBefore)
+                : fileBulkDeleteService.deleteFiles(userId, fileIds);
     }
 
     public long countFilesByUserId(UUID userId) {
@@ -199,20 +354,88 @@ public class UploadedFileService {
     }
 
     public List<UploadedFileReadDto> getRecentFiles(UUID userId, int limit) {
-        return uploadedFileRepository.findTopByUser_UserIdOrderByUploadTimeDesc(userId, PageRequest.of(0, limit))
-                .stream()
-                .map(uploadedFileReadMapper::map)
-                .toList();
+        return uploadedFileRepository.findRecentReadDtosByUserId(userId, PageRequest.of(0, limit));
     }
 
     // Поиск
     public Page<UploadedFileReadDto> searchFiles(UUID userId, String keyword, Pageable pageable) {
-        return uploadedFileRepository.findByUser_IdAndFilenameContaining(userId, keyword, pageable)
-                .map(uploadedFileReadMapper::map);
+        String normalized = keyword.toLowerCase(Locale.ROOT);
+        String escaped = normalized.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+
+        Set<String> trigrams = Trigrams.of(normalized);
+        if (trigrams.isEmpty()) {
+            return uploadedFileRepository.searchReadDtosByFilename(userId, "%" + escaped + "%", pageable);
+        }
+        // Сначала совпадения с начала имени, затем более короткие имена
+        return uploadedFileRepository.searchReadDtosByFilenameTrigrams(
+                userId, trigrams, trigrams.size(), "%" + escaped + "%", escaped + "%", pageable);
+    }
+
+    // Курсорный поиск идёт от новых файлов к старым, а не по релевантности
+    public FileListPageDto searchFilesPage(UUID userId, String keyword, String cursor, int limit, boolean withTotal) {
+        Pageable page = keysetPage(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        String normalized = keyword.toLowerCase(Locale.ROOT);
+        String pattern = "%" + normalized.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+
+        Set<String> trigrams = Trigrams.of(normalized);
+        List<UploadedFileReadDto> files;
+        Long total = null;
+        if (trigrams.isEmpty()) {
+            files = after == null
+                    ? uploadedFileRepository.searchFirstKeysetPage(userId, pattern, page)
+                    : uploadedFileRepository.searchKeysetPageAfter(userId, pattern, after.time(), after.id(), page);
+            if (withTotal) {
+                total = uploadedFileRepository.countCachedByFilename(userId, pattern);
+            }
+        } else {
+            files = after == null
+                    ? uploadedFileRepository.searchFirstKeysetPageByTrigrams(userId, trigrams, trigrams.size(), pattern, page)
+                    : uploadedFileRepository.searchKeysetPageByTrigramsAfter(
+                            userId, trigrams, trigrams.size(), pattern, after.time(), after.id(), page);
+            if (withTotal) {
+                total = uploadedFileRepository.countCachedByFilenameTrigrams(userId, trigrams, trigrams.size(), pattern);
+            }
+        }
+        return keysetResult(files, limit, total);
     }
 
     public Page<UploadedFileReadDto> filterByContentType(UUID userId, String contentType, Pageable pageable) {
-        return uploadedFileRepository.findByUserIdAndContentType(userId, contentType, pageable)
-                .map(uploadedFileReadMapper::map);
+        return uploadedFileRepository.findReadDtosByContentType(userId, parseContentType(contentType), pageable);
+    }
+
+    public FileListPageDto filterByContentTypePage(UUID userId, String contentType, String cursor, int limit, boolean withTotal) {
+        ContentType type = parseContentType(contentType);
+        Pageable page = keysetPage(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<UploadedFileReadDto> files = after == null
+                ? uploadedFileRepository.findFirstKeysetPageByContentType(userId, type, page)
+                : uploadedFileRepository.findKeysetPageByContentTypeAfter(userId, type, after.time(), after.id(), page);
+        return keysetResult(files, limit, withTotal ? uploadedFileRepository.countCachedByContentType(userId, type) : null);
+    }
+
+    private static ContentType parseContentType(String contentType) {
+        try {
+            return ContentType.valueOf(contentType.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестный тип файла: " + contentType);
+        }
+    }
+
+    // Лишняя строка показывает, есть ли следующая страница
+    private static Pageable keysetPage(int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_LIMIT) {
+            throw new IllegalArgumentException("limit должен быть от 1 до " + MAX_PAGE_LIMIT);
+        }
+        return PageRequest.of(0, limit + 1);
+    }
+
+    private static FileListPageDto keysetResult(List<UploadedFileReadDto> files, int limit, Long total) {
+        if (files.size() <= limit) {
+            return new FileListPageDto(files, null, total);
+        }
+        List<UploadedFileReadDto> page = files.subList(0, limit);
+        UploadedFileReadDto last = page.getLast();
+        return new FileListPageDto(List.copyOf(page), new KeysetCursor(last.uploadTime(), last.id()).encode(), total);
     }
 }
\ No newline at end of file
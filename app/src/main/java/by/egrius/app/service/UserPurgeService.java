@@ -0,0 +1,170 @@
+package by.egrius.app.service;
+
+import by.egrius.app.entity.UserPurge;
+import by.egrius.app.publisher.FileEventPublisher;
+import by.egrius.app.repository.UploadedFileRepository;
+import by.egrius.app.repository.UserPurgeRepository;
+import by.egrius.app.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Фоновое удаление данных пользователя после deleteUser. Пользователь сразу помечается
+ * удалённым, а его файлы удаляются пачками по batch-size, каждая в своей транзакции,
+ * с паузой batch-pause-ms между пачками, чтобы не занимать соединения и блокировки надолго.
+ * Когда файлов не остаётся, удаляются индексы пользователя и сама строка Users.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserPurgeService {
+
+    private final UserPurgeRepository userPurgeRepository;
+    private final UserRepository userRepository;
+    private final UploadedFileRepository uploadedFileRepository;
+    private final FileBulkDeleteService fileBulkDeleteService;
+    private final FileSearchIndexService fileSearchIndexService;
+    private final FilenameIndexService filenameIndexService;
+    private final PositionalIndexService positionalIndexService;
+    private final FileStatsViewService fileStatsViewService;
+    private final FileEventPublisher fileEventPublisher;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${user.purge.enabled:true}")
+    private boolean enabled;
+
+    @Value("${user.purge.batch-size:200}")
+    private int batchSize;
+
+    @Value("${user.purge.batch-pause-ms:200}")
+    private long batchPauseMillis;
+
+    @Value("${user.purge.poll-interval-ms:30000}")
+    private long pollIntervalMillis;
+
+    private TransactionTemplate transactionTemplate;
+    private Thread purger;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        purger = new Thread(this::purgeLoop, "user-purge");
+        purger.setDaemon(true);
+        purger.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (purger != null) {
+            LockSupport.unpark(purger);
+            purger.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    // Вызывается в транзакции удаления пользователя; поток будится после её коммита
+    public void schedule(UUID userId) {
+        Timestamp now = Timestamp.from(Instant.now());
+        userPurgeRepository.save(UserPurge.builder()
+                .userId(userId)
+                .requestedAt(now)
+                .filesTotal(uploadedFileRepository.countByUser_UserId(userId))
+                .updatedAt(now)
+                .build());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUp();
+                }
+            });
+        } else {
+            wakeUp();
+        }
+    }
+
+    public void wakeUp() {
+        Thread thread = purger;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    // Одна пачка в отдельной транзакции; false - очередь пуста
+    public boolean purgeBatch() {
+        Boolean worked = transactionTemplate.execute(status -> {
+            List<UserPurge> next = userPurgeRepository.lockNext(PageRequest.of(0, 1));
+            if (next.isEmpty()) {
+                return false;
+            }
+            UserPurge purge = next.getFirst();
+            UUID userId = purge.getUserId();
+
+            List<UUID> fileIds = uploadedFileRepository.findIdsByUserId(userId, PageRequest.of(0, batchSize));
+            if (!fileIds.isEmpty()) {
+                fileBulkDeleteService.removeFiles(userId, fileIds);
+                // DELETED в той же транзакции, что и удаление: подписчики и журнал видят каждый файл
+                fileEventPublisher.publishDeleted(fileIds, userId);
+                purge.setFilesPurged(purge.getFilesPurged() + fileIds.size());
+                purge.setUpdatedAt(Timestamp.from(Instant.now()));
+                log.debug("Удаление пользователя {}: {} из {} файлов",
+                        userId, purge.getFilesPurged(), purge.getFilesTotal());
+                return true;
+            }
+
+            fileSearchIndexService.removeUser(userId);
+            filenameIndexService.removeUser(userId);
+            positionalIndexService.removeUser(userId);
+            fileStatsViewService.removeUser(userId);
+            userRepository.deleteRowById(userId);
+            userPurgeRepository.delete(purge);
+            log.info("Данные пользователя {} удалены: {} файлов", userId, purge.getFilesPurged());
+            return true;
+        });
+        return Boolean.TRUE.equals(worked);
+    }
+
+    // Разобрать очередь без пауз между пачками; возвращает число пачек
+    public int purgeAll() {
+        int batches = 0;
+        while (purgeBatch()) {
+            batches++;
+        }
+        return batches;
+    }
+
+    private void purgeLoop() {
+        while (running) {
+            try {
+                long pauseMillis = purgeBatch() ? batchPauseMillis : pollIntervalMillis;
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(pauseMillis));
+            } catch (RuntimeException e) {
+                // Пачка откатилась целиком и будет повторена
+                log.error("Ошибка при фоновом удалении данных пользователя", e);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(pollIntervalMillis));
+            }
+        }
+    }
+}
@@ -8,6 +8,8 @@ import by.egrius.app.mapper.userMapper.UserCreateMapper;
 import by.egrius.app.mapper.userMapper.UserReadMapper;
 import by.egrius.app.mapper.userMapper.UserUpdateMapper;
 import by.egrius.app.repository.UserRepository;
+import by.egrius.app.security.CachingPasswordEncoder;
+import by.egrius.app.security.UserDetailsCache;
 import by.egrius.app.security.UserPrincipal;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ConstraintViolation;
@@ -25,6 +27,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.*;
 
 @Slf4j
@@ -42,6 +46,10 @@ public class UserService implements UserDetailsService {
 
     private final Validator validator;
 
+    private final UserPurgeService userPurgeService;
+
+    private final UserDetailsCache userDetailsCache;
+
     private UserPrincipal getCurrentUserPrincipal() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth != null && auth.getPrincipal() instanceof UserPrincipal principal) {
@@ -53,13 +61,12 @@ public class UserService implements UserDetailsService {
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         log.debug("Загрузка пользователя с username: {}", username);
-        return userRepository.findByUsername(username)
-                .map(UserPrincipal::new)
+        return userDetailsCache.get(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден: " + username));
     }
 
-    public User getCurrentUser() {
-        return getCurrentUserPrincipal().getUser();
+    public UserPrincipal getCurrentUser() {
+        return getCurrentUserPrincipal();
     }
 
     public boolean canModifyUser(UUID targetUserId) {
@@ -123,9 +130,14 @@ public class UserService implements UserDetailsService {
             throw new IllegalArgumentException("Данный email уже используется");
         }
 
+        String oldUsername = user.getUsername();
         userUpdateMapper.map(userUpdateDto, user);
 
         if (userUpdateDto.getRawPassword() != null && !userUpdateDto.getRawPassword().isBlank()) {
+            // Старый пароль не должен проходить по кэшу проверок
+            if (passwordEncoder instanceof CachingPasswordEncoder cachingEncoder) {
+                cachingEncoder.evict(user.getPassword());
+            }
             user.setPassword(passwordEncoder.encode(userUpdateDto.getRawPassword()));
         }
 
@@ -133,6 +145,8 @@ public class UserService implements UserDetailsService {
         if(!violations.isEmpty()) {
             throw new ConstraintViolationException(violations);
         }
+        user.setSecurityVersion(user.getSecurityVersion() + 1);
+        userDetailsCache.evict(oldUsername, user.getUsername());
         log.info("Пользователь обновлён: {}", user.getUsername());
         return userReadMapper.map(user);
     }
@@ -151,7 +165,12 @@ public class UserService implements UserDetailsService {
             throw new SecurityException("Некорректный пароль");
         }
 
-        userRepository.delete(user);
-        log.info("Пользователь '{}' (ID: {}) удалён", user.getUsername(), id);
+        // Каскад по файлам пользователя держал бы транзакцию минутами: здесь только пометка,
+        // файлы и индексы удаляет UserPurgeService
+        user.setDeletedAt(Timestamp.from(Instant.now()));
+        user.setSecurityVersion(user.getSecurityVersion() + 1);
+        userDetailsCache.evict(user.getUsername());
+        userPurgeService.schedule(id);
+        log.info("Пользователь '{}' (ID: {}) удалён, данные удаляются в фоне", user.getUsername(), id);
     }
 }
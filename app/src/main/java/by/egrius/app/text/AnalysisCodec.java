@@ -0,0 +1,178 @@
+package by.egrius.app.text;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Двоичная форма результата анализа FileAnalysis в одном массиве байт.
+ * Формат версии 2: байт версии, затем секции topWords, startsWithMap, punctuationMap,
+ * гистограмма длин, самые длинные и самые короткие слова и, по флагу, карта "слово - длина".
+ * Секция - число записей и записи; строки - длина в байтах UTF-8 и байты, символы - код UTF-16,
+ * числа - varint. Порядок записей сохраняется, topWords остаётся отсортированным.
+ */
+public final class AnalysisCodec {
+
+    public static final byte VERSION = 2;
+
+    private AnalysisCodec() {
+    }
+
+    // wordLengthMap == null - карта не сохранялась
+    public record Payload(
+            Map<String, Long> topWords,
+            Map<Character, Long> startsWithMap,
+            Map<Character, Long> punctuationMap,
+            WordLengthStats wordLengthStats,
+            Map<String, Integer> wordLengthMap
+    ) {}
+
+    public static byte[] encode(Payload payload) {
+        Writer writer = new Writer();
+        writer.buffer[writer.length++] = VERSION;
+
+        writer.stringLongMap(payload.topWords());
+        writer.charMap(payload.startsWithMap());
+        writer.charMap(payload.punctuationMap());
+
+        WordLengthStats stats = payload.wordLengthStats();
+        writer.varint(stats.histogram().size());
+        stats.histogram().forEach((length, count) -> {
+            writer.varint(length);
+            writer.varlong(count);
+        });
+        writer.strings(stats.longestWords());
+        writer.strings(stats.shortestWords());
+
+        Map<String, Integer> wordLengthMap = payload.wordLengthMap();
+        writer.varint(wordLengthMap != null ? 1 : 0);
+        if (wordLengthMap != null) {
+            writer.stringIntMap(wordLengthMap);
+        }
+        return Arrays.copyOf(writer.buffer, writer.length);
+    }
+
+    public static Payload decode(byte[] data) {
+        if (data.length == 0 || data[0] != VERSION) {
+            throw new IllegalArgumentException("Неподдерживаемый формат результата анализа");
+        }
+        VarInts.Reader reader = new VarInts.Reader(data, 1);
+
+        Map<String, Long> topWords = stringLongMap(data, reader);
+        Map<Character, Long> startsWithMap = charMap(reader);
+        Map<Character, Long> punctuationMap = charMap(reader);
+
+        int histogramSize = reader.next();
+        Map<Integer, Long> histogram = new LinkedHashMap<>(capacity(histogramSize));
+        for (int i = 0; i < histogramSize; i++) {
+            histogram.put(reader.next(), reader.nextLong());
+        }
+        List<String> longest = strings(data, reader);
+        List<String> shortest = strings(data, reader);
+        Map<String, Integer> wordLengthMap = reader.next() != 0 ? stringIntMap(data, reader) : null;
+
+        return new Payload(topWords, startsWithMap, punctuationMap,
+                new WordLengthStats(histogram, longest, shortest), wordLengthMap);
+    }
+
+    private static Map<String, Long> stringLongMap(byte[] data, VarInts.Reader reader) {
+        int count = reader.next();
+        Map<String, Long> map = new LinkedHashMap<>(capacity(count));
+        for (int i = 0; i < count; i++) {
+            map.put(string(data, reader), reader.nextLong());
+        }
+        return map;
+    }
+
+    private static Map<String, Integer> stringIntMap(byte[] data, VarInts.Reader reader) {
+        int count = reader.next();
+        Map<String, Integer> map = new LinkedHashMap<>(capacity(count));
+        for (int i = 0; i < count; i++) {
+            map.put(string(data, reader), reader.next());
+        }
+        return map;
+    }
+
+    private static Map<Character, Long> charMap(VarInts.Reader reader) {
+        int count = reader.next();
+        Map<Character, Long> map = new LinkedHashMap<>(capacity(count));
+        for (int i = 0; i < count; i++) {
+            map.put((char) reader.next(), reader.nextLong());
+        }
+        return map;
+    }
+
+    private static List<String> strings(byte[] data, VarInts.Reader reader) {
+        int count = reader.next();
+        List<String> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(string(data, reader));
+        }
+        return list;
+    }
+
+    private static String string(byte[] data, VarInts.Reader reader) {
+        int length = reader.next();
+        return new String(data, reader.skip(length), length, StandardCharsets.UTF_8);
+    }
+
+    private static int capacity(int entries) {
+        return (int) (entries / 0.75f) + 1;
+    }
+
+    private static final class Writer {
+
+        private byte[] buffer = new byte[256];
+        private int length;
+
+        void varint(int value) {
+            buffer = VarInts.ensureCapacity(buffer, length, VarInts.MAX_BYTES);
+            length = VarInts.write(buffer, length, value);
+        }
+
+        void varlong(long value) {
+            buffer = VarInts.ensureCapacity(buffer, length, VarInts.MAX_LONG_BYTES);
+            length = VarInts.writeLong(buffer, length, value);
+        }
+
+        void string(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length);
+            buffer = VarInts.ensureCapacity(buffer, length, bytes.length);
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+        }
+
+        void strings(List<String> values) {
+            varint(values.size());
+            values.forEach(this::string);
+        }
+
+        void stringLongMap(Map<String, Long> map) {
+            varint(map.size());
+            map.forEach((key, value) -> {
+                string(key);
+                varlong(value);
+            });
+        }
+
+        void stringIntMap(Map<String, Integer> map) {
+            varint(map.size());
+            map.forEach((key, value) -> {
+                string(key);
+                varint(value);
+            });
+        }
+
+        void charMap(Map<Character, Long> map) {
+            varint(map.size());
+            map.forEach((character, count) -> {
+                varint(character);
+                varlong(count);
+            });
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package by.egrius.app.text;
+
+/**
+ * Обёртка над текстом, которая прерывает regex-поиск по истечении времени.
+ * Matcher читает текст только через charAt, поэтому даже катастрофический
+ * бэктрекинг на пользовательском шаблоне не займёт поток навсегда.
+ */
+public final class DeadlineCharSequence implements CharSequence {
+
+    private static final int CHECK_MASK = 0xFFF;
+
+    private final CharSequence text;
+    private final long deadlineNanos;
+    private int reads;
+
+    public DeadlineCharSequence(CharSequence text, long deadlineNanos) {
+        this.text = text;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if ((++reads & CHECK_MASK) == 0 && System.nanoTime() - deadlineNanos > 0) {
+            throw new DeadlineExceededException();
+        }
+        return text.charAt(index);
+    }
+
+    @Override
+    public int length() {
+        return text.length();
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return text.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+
+    public static class DeadlineExceededException extends RuntimeException {
+        public DeadlineExceededException() {
+            super("Превышено время поиска по шаблону", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package by.egrius.app.text;
+
+import by.egrius.app.entity.enums.Language;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LanguageDetector {
+
+    private static final int TABLE_BITS = 16;
+    private static final int MAX_WEIGHT = 100;
+    private static final double MIN_SCORE_RATIO = 1.2;
+
+    private static final int BOUNDARY = 0;
+    private static final int FOREIGN_LETTER = 59;
+
+    private static final Language[] LANGUAGES = {Language.RU, Language.EN};
+
+    // Самые частые символьные триграммы в порядке убывания частоты, пробел - граница слова
+    private static final String[] RU_TRIGRAMS = {
+            " по", " на", "ого", "ени", " пр", "ост", " не", "ств", "ния", "ть ",
+            "то ", "ет ", "ова", "ани", "про", "ние", " и ", "ать", "на ", "ий ",
+            "ых ", "ой ", "его", " ко", "ель", " с ", "ают", "ные", "ный", "тел",
+            " со", " за", " от", "ста", "ово", "ает", "пре", " до", " ра", "ли ",
+            "ся ", "ом ", "ая ", "ких", "ами", "ить", "или", " ка", " вы", "что",
+            " чт", "как", "это", " эт", "ым ", "ем ", "при", "ски", "ват", " ст",
+            " в ", "ено", "ове", "ому", "ход", "лен", "ере", "ред", " об"
+    };
+
+    private static final String[] EN_TRIGRAMS = {
+            " th", "the", "he ", " an", "and", "nd ", " of", "of ", " to", "to ",
+            "ing", "ng ", " in", "in ", "ed ", " a ", "er ", "ion", " is", "is ",
+            "es ", "re ", "on ", "at ", "ent", " co", "tio", "for", " fo", "or ",
+            "hat", "tha", " wh", "ter", "ly ", "as ", " be", "her", "ere", "ati",
+            "all", "his", "st ", " it", "it ", "ver", " wa", "was", "ith", "wit",
+            " wi", " re", "en ", "al ", "con", "you", " yo", "ou ", "thi", " ha",
+            "are", "nt ", " on", "ce ", "ons", "ess", "ted", "ers", " st", "est"
+    };
+
+    private final byte[][] profiles = new byte[LANGUAGES.length][1 << TABLE_BITS];
+
+    @Value("${text.language.sample-chars:8192}")
+    private int sampleChars = 8192;
+
+    public LanguageDetector() {
+        fillProfile(profiles[0], RU_TRIGRAMS);
+        fillProfile(profiles[1], EN_TRIGRAMS);
+    }
+
+    public Language detect(CharSequence text) {
+        if (text == null || text.isEmpty()) {
+            return Language.UNKNOWN;
+        }
+
+        int limit = Math.min(text.length(), sampleChars);
+        long[] scores = new long[LANGUAGES.length];
+
+        // Окно из трёх последних кодов символов, каждое слово обрамляется одной границей
+        int first = BOUNDARY;
+        int second = BOUNDARY;
+        for (int i = 0; i < limit; i++) {
+            int code = encode(text.charAt(i));
+            if (code == BOUNDARY && second == BOUNDARY) {
+                continue;
+            }
+
+            if (second != BOUNDARY) {
+                score(scores, first, second, code);
+            }
+            first = code == BOUNDARY ? BOUNDARY : second;
+            second = code;
+        }
+        if (second != BOUNDARY) {
+            score(scores, first, second, BOUNDARY);
+        }
+
+        return pickLanguage(scores);
+    }
+
+    private void score(long[] scores, int a, int b, int c) {
+        int slot = slot(a, b, c);
+        for (int l = 0; l < LANGUAGES.length; l++) {
+            scores[l] += profiles[l][slot];
+        }
+    }
+
+    private Language pickLanguage(long[] scores) {
+        int best = 0;
+        for (int l = 1; l < scores.length; l++) {
+            if (scores[l] > scores[best]) {
+                best = l;
+            }
+        }
+
+        long runnerUp = 0;
+        for (int l = 0; l < scores.length; l++) {
+            if (l != best) {
+                runnerUp = Math.max(runnerUp, scores[l]);
+            }
+        }
+
+        if (scores[best] == 0 || scores[best] < runnerUp * MIN_SCORE_RATIO) {
+            return Language.UNKNOWN;
+        }
+        return LANGUAGES[best];
+    }
+
+    private static void fillProfile(byte[] profile, String[] trigrams) {
+        int n = trigrams.length;
+        for (int rank = 0; rank < n; rank++) {
+            String trigram = trigrams[rank];
+            int slot = slot(encode(trigram.charAt(0)), encode(trigram.charAt(1)), encode(trigram.charAt(2)));
+            byte weight = (byte) (1 + (MAX_WEIGHT - 1) * (n - rank) / n);
+            profile[slot] = (byte) Math.max(profile[slot], weight);
+        }
+    }
+
+    private static int slot(int a, int b, int c) {
+        int code = (a << 12) | (b << 6) | c;
+        return (code * 0x9E3779B1) >>> (32 - TABLE_BITS);
+    }
+
+    // 0 - граница слова, 1..26 - латиница, 27..58 - кириллица (ё = е), 59 - прочие буквы
+    private static int encode(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 1;
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 1;
+        }
+        if (c >= 'а' && c <= 'я') {
+            return c - 'а' + 27;
+        }
+        if (c >= 'А' && c <= 'Я') {
+            return c - 'А' + 27;
+        }
+        if (c == 'ё' || c == 'Ё') {
+            return 'е' - 'а' + 27;
+        }
+        return Character.isLetter(c) ? FOREIGN_LETTER : BOUNDARY;
+    }
+}
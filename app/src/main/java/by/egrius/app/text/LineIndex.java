@@ -0,0 +1,195 @@
+package by.egrius.app.text;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Компактный индекс начал строк текста.
+ * Смещения хранятся дельтами в varint, каждые {@value #BLOCK_LINES} строк - контрольная точка
+ * с абсолютным смещением, поэтому для доступа к строке распаковывается не больше одного блока.
+ * Строки считаются так же, как в {@link String#lines()}: разделители \n, \r и \r\n.
+ * Смещения - в символах Java (UTF-16).
+ */
+public final class LineIndex {
+
+    private static final byte VERSION = 1;
+    private static final int BLOCK_LINES = 64;
+    // версия, количество строк, длина текста, флаги
+    private static final int HEADER_BYTES = 1 + 4 + 4 + 1;
+    // смещение в тексте и позиция в области дельт
+    private static final int CHECKPOINT_BYTES = 4 + 4;
+    private static final byte FLAG_SURROGATES = 1;
+
+    private final byte[] data;
+    private final int lineCount;
+    private final int textLength;
+    private final boolean surrogates;
+    private final int deltasStart;
+
+    private LineIndex(byte[] data) {
+        if (data.length < HEADER_BYTES || data[0] != VERSION) {
+            throw new IllegalArgumentException("Неподдерживаемый формат индекса строк");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data, 1, HEADER_BYTES - 1);
+        this.data = data;
+        this.lineCount = buffer.getInt();
+        this.textLength = buffer.getInt();
+        this.surrogates = (buffer.get() & FLAG_SURROGATES) != 0;
+        this.deltasStart = HEADER_BYTES + blockCount(lineCount) * CHECKPOINT_BYTES;
+    }
+
+    public static LineIndex fromBytes(byte[] data) {
+        return new LineIndex(data);
+    }
+
+    public static LineIndex build(CharSequence text) {
+        Writer writer = new Writer();
+        int length = text.length();
+        boolean surrogates = false;
+
+        if (length > 0) {
+            writer.add(0);
+        }
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                if (i + 1 < length) {
+                    writer.add(i + 1);
+                }
+            } else if (Character.isSurrogate(c)) {
+                surrogates = true;
+            }
+        }
+        return new LineIndex(writer.toBytes(length, surrogates));
+    }
+
+    public byte[] toBytes() {
+        return data;
+    }
+
+    public int lineCount() {
+        return lineCount;
+    }
+
+    public int textLength() {
+        return textLength;
+    }
+
+    /**
+     * В тексте есть суррогатные пары: смещения в UTF-16 расходятся с позициями символов в БД.
+     */
+    public boolean hasSurrogates() {
+        return surrogates;
+    }
+
+    // Номера строк здесь и далее начинаются с нуля
+    public int lineStart(int line) {
+        Objects.checkIndex(line, lineCount);
+        int block = line / BLOCK_LINES;
+        int offset = checkpointOffset(block);
+        VarInts.Reader reader = new VarInts.Reader(data, deltasStart + checkpointPosition(block));
+        for (int i = block * BLOCK_LINES; i < line; i++) {
+            offset += reader.next();
+        }
+        return offset;
+    }
+
+    // Конец строки вместе с переводом строки, то есть начало следующей
+    public int lineEnd(int line) {
+        Objects.checkIndex(line, lineCount);
+        return line + 1 < lineCount ? lineStart(line + 1) : textLength;
+    }
+
+    public int lineOf(int offset) {
+        if (offset < 0 || offset >= textLength) {
+            throw new IndexOutOfBoundsException("Смещение " + offset + " вне текста длиной " + textLength);
+        }
+
+        int low = 0;
+        int high = blockCount(lineCount) - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (checkpointOffset(mid) <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        int line = low * BLOCK_LINES;
+        int last = Math.min(lineCount, line + BLOCK_LINES) - 1;
+        int start = checkpointOffset(low);
+        VarInts.Reader reader = new VarInts.Reader(data, deltasStart + checkpointPosition(low));
+        while (line < last) {
+            int next = start + reader.next();
+            if (next > offset) {
+                break;
+            }
+            start = next;
+            line++;
+        }
+        return line;
+    }
+
+    private int checkpointOffset(int block) {
+        return readInt(HEADER_BYTES + block * CHECKPOINT_BYTES);
+    }
+
+    private int checkpointPosition(int block) {
+        return readInt(HEADER_BYTES + block * CHECKPOINT_BYTES + 4);
+    }
+
+    private int readInt(int position) {
+        return ((data[position] & 0xFF) << 24)
+                | ((data[position + 1] & 0xFF) << 16)
+                | ((data[position + 2] & 0xFF) << 8)
+                | (data[position + 3] & 0xFF);
+    }
+
+    private static int blockCount(int lines) {
+        return (lines + BLOCK_LINES - 1) / BLOCK_LINES;
+    }
+
+    private static final class Writer {
+
+        private int[] checkpoints = new int[16];
+        private byte[] deltas = new byte[256];
+        private int deltaLength;
+        private int lines;
+        private int previous;
+
+        void add(int start) {
+            if (lines % BLOCK_LINES == 0) {
+                int slot = lines / BLOCK_LINES * 2;
+                if (slot + 2 > checkpoints.length) {
+                    checkpoints = Arrays.copyOf(checkpoints, checkpoints.length * 2);
+                }
+                checkpoints[slot] = start;
+                checkpoints[slot + 1] = deltaLength;
+            } else {
+                deltas = VarInts.ensureCapacity(deltas, deltaLength, VarInts.MAX_BYTES);
+                deltaLength = VarInts.write(deltas, deltaLength, start - previous);
+            }
+            previous = start;
+            lines++;
+        }
+
+        byte[] toBytes(int textLength, boolean surrogates) {
+            int blocks = blockCount(lines);
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + blocks * CHECKPOINT_BYTES + deltaLength);
+            buffer.put(VERSION)
+                    .putInt(lines)
+                    .putInt(textLength)
+                    .put(surrogates ? FLAG_SURROGATES : 0);
+            for (int block = 0; block < blocks; block++) {
+                buffer.putInt(checkpoints[block * 2]).putInt(checkpoints[block * 2 + 1]);
+            }
+            buffer.put(deltas, 0, deltaLength);
+            return buffer.array();
+        }
+    }
+}
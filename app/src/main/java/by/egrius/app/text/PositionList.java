@@ -0,0 +1,72 @@
+package by.egrius.app.text;
+
+import java.util.Arrays;
+
+/**
+ * Вхождения одного терма в файле: номер слова, смещение в тексте и длина исходного слова.
+ * Номера и смещения возрастают, поэтому хранятся разностями, всё - в varint.
+ */
+public final class PositionList {
+
+    private PositionList() {
+    }
+
+    public static Occurrences decode(byte[] data, int count) {
+        int[] positions = new int[count];
+        int[] offsets = new int[count];
+        int[] lengths = new int[count];
+        VarInts.Reader reader = new VarInts.Reader(data, 0);
+        int position = 0;
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            position += reader.next();
+            offset += reader.next();
+            positions[i] = position;
+            offsets[i] = offset;
+            lengths[i] = reader.next();
+        }
+        return new Occurrences(positions, offsets, lengths);
+    }
+
+    public record Occurrences(int[] positions, int[] offsets, int[] lengths) {
+
+        public int size() {
+            return positions.length;
+        }
+
+        // Индекс вхождения с данным номером слова или отрицательное число
+        public int indexOfPosition(int position) {
+            return Arrays.binarySearch(positions, position);
+        }
+    }
+
+    public static final class Writer {
+
+        private byte[] buffer = new byte[16];
+        private int length;
+        private int count;
+        private int lastPosition;
+        private int lastOffset;
+
+        public void add(int position, int offset, int wordLength) {
+            if (count > 0 && (position <= lastPosition || offset < lastOffset)) {
+                throw new IllegalArgumentException("Вхождения должны добавляться по возрастанию позиции");
+            }
+            buffer = VarInts.ensureCapacity(buffer, length, 3 * VarInts.MAX_BYTES);
+            length = VarInts.write(buffer, length, position - lastPosition);
+            length = VarInts.write(buffer, length, offset - lastOffset);
+            length = VarInts.write(buffer, length, wordLength);
+            lastPosition = position;
+            lastOffset = offset;
+            count++;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public byte[] toBytes() {
+            return Arrays.copyOf(buffer, length);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package by.egrius.app.text;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Собирает позиционный индекс файла из потока слов TextTokenizer.scan.
+ * Слишком длинные слова не индексируются, но номер слова для них всё равно растёт,
+ * чтобы фраза не «склеивалась» через пропущенное слово.
+ */
+public class PositionalIndexBuilder implements TextTokenizer.Visitor {
+
+    private final int maxTermLength;
+    private final Map<String, PositionList.Writer> terms = new HashMap<>();
+    private int position;
+
+    public PositionalIndexBuilder(int maxTermLength) {
+        this.maxTermLength = maxTermLength;
+    }
+
+    @Override
+    public void token(String word, int start, int end) {
+        if (word.length() <= maxTermLength) {
+            terms.computeIfAbsent(word, w -> new PositionList.Writer()).add(position, start, end - start);
+        }
+        position++;
+    }
+
+    public Map<String, PositionList.Writer> getTerms() {
+        return terms;
+    }
+
+    public int getTokenCount() {
+        return position;
+    }
+}
@@ -0,0 +1,76 @@
+package by.egrius.app.text;
+
+import java.util.Arrays;
+
+/**
+ * Список вхождений терма: пары (номер документа, частота), номера документов по возрастанию.
+ * Номер хранится дельтой от предыдущего, оба числа - varint, поэтому частый терм занимает
+ * около двух байт на документ.
+ */
+public final class PostingList {
+
+    public static final int NO_DOCUMENT = -1;
+
+    private PostingList() {
+    }
+
+    public interface Visitor {
+        void accept(int docNo, int termFrequency);
+    }
+
+    public static void forEach(byte[] postings, Visitor visitor) {
+        VarInts.Reader reader = new VarInts.Reader(postings, 0);
+        int docNo = NO_DOCUMENT;
+        while (reader.hasNext(postings.length)) {
+            docNo += reader.next();
+            visitor.accept(docNo, reader.next());
+        }
+    }
+
+    public static final class Writer {
+
+        private byte[] buffer;
+        private int length;
+        private int lastDocNo;
+        private int count;
+
+        public Writer() {
+            this(new byte[16], 0, NO_DOCUMENT);
+        }
+
+        private Writer(byte[] buffer, int length, int lastDocNo) {
+            this.buffer = buffer;
+            this.length = length;
+            this.lastDocNo = lastDocNo;
+        }
+
+        // Дописывание в конец уже сохранённого списка без его распаковки
+        public static Writer appendTo(byte[] postings, int lastDocNo) {
+            return new Writer(Arrays.copyOf(postings, postings.length + 2 * VarInts.MAX_BYTES), postings.length, lastDocNo);
+        }
+
+        public void add(int docNo, int termFrequency) {
+            if (docNo <= lastDocNo) {
+                throw new IllegalArgumentException("Номера документов должны возрастать: " + docNo + " после " + lastDocNo);
+            }
+            buffer = VarInts.ensureCapacity(buffer, length, 2 * VarInts.MAX_BYTES);
+            length = VarInts.write(buffer, length, docNo - lastDocNo);
+            length = VarInts.write(buffer, length, termFrequency);
+            lastDocNo = docNo;
+            count++;
+        }
+
+        public int getLastDocNo() {
+            return lastDocNo;
+        }
+
+        // Количество документов, добавленных этим писателем
+        public int getCount() {
+            return count;
+        }
+
+        public byte[] toBytes() {
+            return Arrays.copyOf(buffer, length);
+        }
+    }
+}
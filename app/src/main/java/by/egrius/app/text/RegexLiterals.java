@@ -0,0 +1,215 @@
+package by.egrius.app.text;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Извлекает из регулярного выражения литералы, которые обязаны встретиться в любом совпадении.
+ * Разбор консервативный: группы, классы символов и всё необязательное разрывают литерал,
+ * а на незнакомых конструкциях возвращается пустой список - «ограничений нет».
+ * Пустой список никогда не приводит к потере совпадений, только к лишнему сканированию.
+ */
+public final class RegexLiterals {
+
+    // Экранирования без аргументов, которые обозначают класс или позицию, а не символ
+    private static final String CLASS_ESCAPES = "dDwWsSbBAzZGhHvVRXtnrfae";
+
+    // В режиме комментариев пробелы и # в шаблоне не являются литералами
+    private static final Pattern COMMENTS_FLAG = Pattern.compile("\\(\\?[a-zA-Z-]*x[a-zA-Z-]*[:)]");
+
+    private RegexLiterals() {
+    }
+
+    public static List<String> requiredLiterals(String regex) {
+        if (COMMENTS_FLAG.matcher(regex).find() || hasTopLevelAlternation(regex)) {
+            return List.of();
+        }
+
+        List<String> literals = new ArrayList<>();
+        StringBuilder run = new StringBuilder();
+        int i = 0;
+        int n = regex.length();
+        while (i < n) {
+            char c = regex.charAt(i);
+            boolean literal = false;
+            int next;
+
+            if (c == '\\') {
+                if (i + 1 >= n) {
+                    return List.of();
+                }
+                char escaped = regex.charAt(i + 1);
+                if (Character.isLetterOrDigit(escaped)) {
+                    // \x41, \p{L}, \1 и подобные - проще отказаться, чем разбирать аргументы
+                    if (CLASS_ESCAPES.indexOf(escaped) < 0) {
+                        return List.of();
+                    }
+                } else {
+                    literal = true;
+                    c = escaped;
+                }
+                next = i + 2;
+            } else if (c == '[') {
+                next = skipClass(regex, i);
+            } else if (c == '(') {
+                next = skipGroup(regex, i);
+            } else if (c == '.' || c == '^' || c == '$') {
+                next = i + 1;
+            } else if (c == '*' || c == '+' || c == '?' || c == '{' || c == ')' || c == ']') {
+                return List.of();
+            } else {
+                literal = true;
+                next = i + 1;
+            }
+            if (next < 0) {
+                return List.of();
+            }
+
+            int minRepeat = minRepeat(regex, next);
+            if (minRepeat == 1 && literal) {
+                run.append(c);
+            } else {
+                // Необязательный или повторяемый атом разрывает непрерывный литерал
+                if (minRepeat > 0 && literal) {
+                    run.append(c);
+                } else if (literal && Character.isLowSurrogate(c) && !run.isEmpty()
+                        && Character.isHighSurrogate(run.charAt(run.length() - 1))) {
+                    // Квантификатор относится ко всей кодовой точке, а не к её второй половине
+                    run.setLength(run.length() - 1);
+                }
+                flush(run, literals);
+            }
+            i = skipQuantifier(regex, next);
+        }
+        flush(run, literals);
+        return literals;
+    }
+
+    private static void flush(StringBuilder run, List<String> literals) {
+        if (run.length() >= 3) {
+            literals.add(run.toString());
+        }
+        run.setLength(0);
+    }
+
+    // 1 - атом без квантификатора, 0 - может отсутствовать, 2 - обязателен, но повторяется
+    private static int minRepeat(String regex, int pos) {
+        if (pos >= regex.length()) {
+            return 1;
+        }
+        char c = regex.charAt(pos);
+        if (c == '?' || c == '*') {
+            return 0;
+        }
+        if (c == '+') {
+            return 2;
+        }
+        if (c == '{') {
+            int end = pos + 1;
+            while (end < regex.length() && Character.isDigit(regex.charAt(end))) {
+                end++;
+            }
+            return end == pos + 1 || Integer.parseInt(regex.substring(pos + 1, end)) == 0 ? 0 : 2;
+        }
+        return 1;
+    }
+
+    private static int skipQuantifier(String regex, int pos) {
+        if (pos >= regex.length()) {
+            return pos;
+        }
+        char c = regex.charAt(pos);
+        int next;
+        if (c == '?' || c == '*' || c == '+') {
+            next = pos + 1;
+        } else if (c == '{') {
+            int close = regex.indexOf('}', pos);
+            next = close < 0 ? regex.length() : close + 1;
+        } else {
+            return pos;
+        }
+        // Ленивые и сверхжадные модификаторы
+        if (next < regex.length() && (regex.charAt(next) == '?' || regex.charAt(next) == '+')) {
+            next++;
+        }
+        return next;
+    }
+
+    // Позиция после закрывающей ']' или -1, если класс разобрать не удалось
+    private static int skipClass(String regex, int start) {
+        int i = start + 1;
+        if (i < regex.length() && regex.charAt(i) == '^') {
+            i++;
+        }
+        // ']' сразу после '[' трактуется по-разному, не рискуем
+        if (i < regex.length() && regex.charAt(i) == ']') {
+            return -1;
+        }
+        int depth = 1;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '[') {
+                depth++;
+            } else if (c == ']' && --depth == 0) {
+                return i + 1;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private static int skipGroup(String regex, int start) {
+        int depth = 0;
+        int i = start;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '[') {
+                i = skipClass(regex, i);
+                if (i < 0) {
+                    return -1;
+                }
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i + 1;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private static boolean hasTopLevelAlternation(String regex) {
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '|') {
+                return true;
+            }
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '[') {
+                i = skipClass(regex, i);
+            } else if (c == '(') {
+                i = skipGroup(regex, i);
+            } else {
+                i++;
+            }
+            if (i < 0) {
+                // Неразобранная конструкция - считаем, что альтернатива может быть
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,56 @@
+package by.egrius.app.text;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Несколько списков строк в одном массиве байт: байт версии, число списков,
+ * затем для каждого списка число строк и строки (длина в байтах UTF-8 и байты, длины - varint).
+ */
+public final class StringListsCodec {
+
+    public static final byte VERSION = 1;
+
+    private StringListsCodec() {
+    }
+
+    public static byte[] encode(List<List<String>> lists) {
+        byte[] buffer = new byte[64];
+        int length = 0;
+        buffer[length++] = VERSION;
+        length = VarInts.write(buffer, length, lists.size());
+        for (List<String> list : lists) {
+            buffer = VarInts.ensureCapacity(buffer, length, VarInts.MAX_BYTES);
+            length = VarInts.write(buffer, length, list.size());
+            for (String value : list) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                buffer = VarInts.ensureCapacity(buffer, length, VarInts.MAX_BYTES + bytes.length);
+                length = VarInts.write(buffer, length, bytes.length);
+                System.arraycopy(bytes, 0, buffer, length, bytes.length);
+                length += bytes.length;
+            }
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    public static List<List<String>> decode(byte[] data) {
+        if (data.length == 0 || data[0] != VERSION) {
+            throw new IllegalArgumentException("Неподдерживаемый формат списков строк");
+        }
+        VarInts.Reader reader = new VarInts.Reader(data, 1);
+        int listCount = reader.next();
+        List<List<String>> lists = new ArrayList<>(listCount);
+        for (int i = 0; i < listCount; i++) {
+            int size = reader.next();
+            List<String> list = new ArrayList<>(size);
+            for (int j = 0; j < size; j++) {
+                int length = reader.next();
+                list.add(new String(data, reader.skip(length), length, StandardCharsets.UTF_8));
+            }
+            lists.add(list);
+        }
+        return lists;
+    }
+}
@@ -0,0 +1,63 @@
+package by.egrius.app.text;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разбиение текста на слова: разделители - пробельные символы, ASCII-пунктуация кроме дефиса
+ * выбрасывается, слово приводится к нижнему регистру.
+ * Один проход без регулярных выражений, результат совпадает с прежним split("\\s+") + replaceAll.
+ */
+public final class TextTokenizer {
+
+    private TextTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        scan(text, (word, start, end) -> words.add(word));
+        return words;
+    }
+
+    /**
+     * Тот же разбор, но вместе со словом сообщает его границы в исходном тексте:
+     * [start, end) охватывает всё слово, включая выброшенную пунктуацию.
+     */
+    public static void scan(String text, Visitor visitor) {
+        StringBuilder word = new StringBuilder();
+        int length = text.length();
+        int start = 0;
+
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (isWhitespace(c)) {
+                if (!word.isEmpty()) {
+                    String normalized = word.toString().toLowerCase().trim();
+                    if (!normalized.isBlank()) {
+                        visitor.token(normalized, start, i);
+                    }
+                    word.setLength(0);
+                }
+                start = i + 1;
+            } else if (!isDroppedPunctuation(c)) {
+                word.append(c);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Visitor {
+        void token(String word, int start, int end);
+    }
+
+    // То же множество, что \s в java.util.regex
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    // \p{Punct} без дефиса
+    private static boolean isDroppedPunctuation(char c) {
+        return c != '-' && c < 128
+                && ((c >= '!' && c <= '/') || (c >= ':' && c <= '@') || (c >= '[' && c <= '`') || (c >= '{' && c <= '~'));
+    }
+}
@@ -0,0 +1,58 @@
+package by.egrius.app.text;
+
+import java.util.Collection;
+
+/**
+ * Битовая маска триграмм текста фиксированного размера: каждая триграмма хешируется в один бит.
+ * Отсутствие бита гарантирует, что триграммы в тексте нет; установленный бит - только «возможно».
+ * У очень больших файлов маска насыщается и перестаёт отсекать, но результат остаётся верным.
+ */
+public final class TrigramFilter {
+
+    public static final int BYTES = 2048;
+
+    private static final int BITS_LOG = 14;
+
+    private TrigramFilter() {
+    }
+
+    public static byte[] build(CharSequence text) {
+        byte[] filter = new byte[BYTES];
+        if (text.length() < 3) {
+            return filter;
+        }
+        char first = fold(text.charAt(0));
+        char second = fold(text.charAt(1));
+        for (int i = 2; i < text.length(); i++) {
+            char third = fold(text.charAt(i));
+            int bit = bit(first, second, third);
+            filter[bit >>> 3] |= (byte) (1 << (bit & 7));
+            first = second;
+            second = third;
+        }
+        return filter;
+    }
+
+    // true, если в тексте могут встречаться все триграммы каждого литерала
+    public static boolean mightContainAll(byte[] filter, Collection<String> literals) {
+        for (String literal : literals) {
+            for (int i = 0; i + 3 <= literal.length(); i++) {
+                int bit = bit(fold(literal.charAt(i)), fold(literal.charAt(i + 1)), fold(literal.charAt(i + 2)));
+                if ((filter[bit >>> 3] & (1 << (bit & 7))) == 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Посимвольная свёртка регистра без учёта контекста, чтобы текст и литерал сворачивались одинаково
+    static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static int bit(char a, char b, char c) {
+        long key = ((long) a << 32) | ((long) b << 16) | c;
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - BITS_LOG));
+    }
+}
@@ -0,0 +1,21 @@
+package by.egrius.app.text;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+public final class Trigrams {
+
+    private Trigrams() {
+    }
+
+    // Все различные подстроки длины 3 в нижнем регистре
+    public static Set<String> of(String text) {
+        String normalized = text.toLowerCase(Locale.ROOT);
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            trigrams.add(normalized.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+}
@@ -0,0 +1,96 @@
+package by.egrius.app.text;
+
+import java.util.Arrays;
+
+/**
+ * Беззнаковые varint (LEB128): 7 бит значения на байт, старший бит - признак продолжения.
+ */
+public final class VarInts {
+
+    public static final int MAX_BYTES = 5;
+    public static final int MAX_LONG_BYTES = 10;
+
+    private VarInts() {
+    }
+
+    public static int write(byte[] buffer, int position, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("varint не поддерживает отрицательные значения: " + value);
+        }
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    public static int writeLong(byte[] buffer, int position, long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("varint не поддерживает отрицательные значения: " + value);
+        }
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    public static byte[] ensureCapacity(byte[] buffer, int length, int extra) {
+        if (length + extra <= buffer.length) {
+            return buffer;
+        }
+        return Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+    }
+
+    public static final class Reader {
+
+        private final byte[] buffer;
+        private int position;
+
+        public Reader(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        public int next() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        public long nextLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        // Пропускает length байт и возвращает позицию их начала
+        public int skip(int length) {
+            int start = position;
+            position += length;
+            return start;
+        }
+
+        public boolean hasNext(int limit) {
+            return position < limit;
+        }
+
+        public int position() {
+            return position;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package by.egrius.app.text;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Сводка длин по словарю файла: сколько разных слов каждой длины и несколько самых длинных
+ * и самых коротких слов. Заменяет карту "слово - длина", которая повторяет весь словарь.
+ * Длина - в символах Java, как у String.length().
+ */
+public record WordLengthStats(
+        Map<Integer, Long> histogram,
+        List<String> longestWords,
+        List<String> shortestWords
+) {
+
+    public static final int SAMPLE_SIZE = 10;
+
+    // words - различные слова
+    public static WordLengthStats of(Collection<String> words, int samples) {
+        Map<Integer, Long> histogram = words.stream()
+                .collect(Collectors.groupingBy(String::length, TreeMap::new, Collectors.counting()));
+
+        Comparator<String> byLength = Comparator.comparingInt(String::length);
+        List<String> longest = sample(words, byLength.reversed().thenComparing(Function.identity()), samples);
+        List<String> shortest = sample(words, byLength.thenComparing(Function.identity()), samples);
+        return new WordLengthStats(histogram, longest, shortest);
+    }
+
+    // Куча на samples слов вместо сортировки всего словаря; в вершине - худшее из отобранных
+    private static List<String> sample(Collection<String> words, Comparator<String> order, int samples) {
+        if (samples <= 0) {
+            return List.of();
+        }
+        PriorityQueue<String> heap = new PriorityQueue<>(samples + 1, order.reversed());
+        for (String word : words) {
+            if (heap.size() < samples) {
+                heap.add(word);
+            } else if (order.compare(word, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(word);
+            }
+        }
+        List<String> sample = new ArrayList<>(heap);
+        sample.sort(order);
+        return List.copyOf(sample);
+    }
+}
@@ -0,0 +1,210 @@
+package by.egrius.app.text.csv;
+
+import by.egrius.app.entity.CsvColumnStats;
+import by.egrius.app.entity.enums.CsvColumnType;
+
+/**
+ * Однопроходная статистика по одной колонке CSV. Значения разбираются прямо из байтов ячейки.
+ */
+public class CsvColumnAccumulator {
+
+    private static final int HLL_PRECISION = 12;
+    private static final int MAX_MANTISSA_DIGITS = 18;
+
+    private final String name;
+    private final HyperLogLog distinct = new HyperLogLog(HLL_PRECISION);
+
+    private long nullCount;
+    private long nonNullCount;
+    private long integerCount;
+    private long decimalCount;
+    private long booleanCount;
+
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double sum;
+
+    // Результат последнего разбора числа, чтобы не создавать объект на каждую ячейку
+    private double parsedValue;
+    private boolean parsedInteger;
+
+    public CsvColumnAccumulator(String name) {
+        this.name = name;
+    }
+
+    public void accept(byte[] value, int length) {
+        int from = 0;
+        int to = length;
+        while (from < to && isSpace(value[from])) from++;
+        while (to > from && isSpace(value[to - 1])) to--;
+
+        if (from == to || isNullLiteral(value, from, to)) {
+            nullCount++;
+            return;
+        }
+
+        nonNullCount++;
+        // Как и проверки на null и число, по значению без пробелов по краям
+        distinct.add(value, from, to);
+
+        if (parseNumber(value, from, to)) {
+            if (parsedInteger) {
+                integerCount++;
+            } else {
+                decimalCount++;
+            }
+            min = Math.min(min, parsedValue);
+            max = Math.max(max, parsedValue);
+            sum += parsedValue;
+        } else if (isBoolean(value, from, to)) {
+            booleanCount++;
+        }
+    }
+
+    public void acceptMissing() {
+        nullCount++;
+    }
+
+    public CsvColumnStats toStats() {
+        CsvColumnType type = inferType();
+        boolean numeric = type == CsvColumnType.INTEGER || type == CsvColumnType.DECIMAL;
+        long numericCount = integerCount + decimalCount;
+
+        return CsvColumnStats.builder()
+                .name(name)
+                .type(type)
+                .nullCount(nullCount)
+                .nonNullCount(nonNullCount)
+                .minValue(numeric ? min : null)
+                .maxValue(numeric ? max : null)
+                .meanValue(numeric ? sum / numericCount : null)
+                .approxDistinct(nonNullCount == 0 ? 0 : Math.min(distinct.estimate(), nonNullCount))
+                .build();
+    }
+
+    private CsvColumnType inferType() {
+        if (nonNullCount == 0) {
+            return CsvColumnType.EMPTY;
+        }
+        if (integerCount == nonNullCount) {
+            return CsvColumnType.INTEGER;
+        }
+        if (integerCount + decimalCount == nonNullCount) {
+            return CsvColumnType.DECIMAL;
+        }
+        if (booleanCount == nonNullCount) {
+            return CsvColumnType.BOOLEAN;
+        }
+        return CsvColumnType.STRING;
+    }
+
+    // [+-]цифры[.цифры][e[+-]цифры]
+    private boolean parseNumber(byte[] value, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (value[i] == '-' || value[i] == '+') {
+            negative = value[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean integer = true;
+        boolean anyDigit = false;
+
+        while (i < to && isDigit(value[i])) {
+            anyDigit = true;
+            if (digits < MAX_MANTISSA_DIGITS) {
+                mantissa = mantissa * 10 + (value[i] - '0');
+                if (mantissa != 0) digits++;
+            } else {
+                exponent++;
+                integer = false;
+            }
+            i++;
+        }
+
+        if (i < to && value[i] == '.') {
+            integer = false;
+            i++;
+            while (i < to && isDigit(value[i])) {
+                anyDigit = true;
+                if (digits < MAX_MANTISSA_DIGITS) {
+                    mantissa = mantissa * 10 + (value[i] - '0');
+                    if (mantissa != 0) digits++;
+                    exponent--;
+                }
+                i++;
+            }
+        }
+
+        if (!anyDigit) {
+            return false;
+        }
+
+        if (i < to && (value[i] == 'e' || value[i] == 'E')) {
+            integer = false;
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (value[i] == '-' || value[i] == '+')) {
+                negativeExponent = value[i] == '-';
+                i++;
+            }
+            int explicitExponent = 0;
+            boolean exponentDigit = false;
+            while (i < to && isDigit(value[i])) {
+                exponentDigit = true;
+                explicitExponent = Math.min(explicitExponent * 10 + (value[i] - '0'), 400);
+                i++;
+            }
+            if (!exponentDigit) {
+                return false;
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (i != to) {
+            return false;
+        }
+
+        double result = exponent >= 0
+                ? mantissa * Math.pow(10, exponent)
+                : mantissa / Math.pow(10, -exponent);
+        parsedValue = negative ? -result : result;
+        parsedInteger = integer;
+        return true;
+    }
+
+    private static boolean isBoolean(byte[] value, int from, int to) {
+        return equalsIgnoreCase(value, from, to, "true") || equalsIgnoreCase(value, from, to, "false");
+    }
+
+    private static boolean isNullLiteral(byte[] value, int from, int to) {
+        return equalsIgnoreCase(value, from, to, "null");
+    }
+
+    private static boolean equalsIgnoreCase(byte[] value, int from, int to, String literal) {
+        if (to - from != literal.length()) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            int c = value[from + i];
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            if (c != literal.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t';
+    }
+}
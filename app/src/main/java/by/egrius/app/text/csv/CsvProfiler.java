@@ -0,0 +1,63 @@
+package by.egrius.app.text.csv;
+
+import by.egrius.app.entity.CsvColumnStats;
+import by.egrius.app.entity.CsvProfile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class CsvProfiler {
+
+    public CsvProfile profile(InputStream in) throws IOException {
+        CsvStreamParser parser = new CsvStreamParser();
+        ProfilingHandler handler = new ProfilingHandler();
+
+        long rows = parser.parse(in, handler);
+
+        List<CsvColumnStats> columns = handler.columns.stream()
+                .map(CsvColumnAccumulator::toStats)
+                .toList();
+
+        return CsvProfile.builder()
+                .rowCount(Math.max(rows - 1, 0))
+                .delimiter(String.valueOf((char) parser.getDelimiter()))
+                .columns(new ArrayList<>(columns))
+                .build();
+    }
+
+    // Первая строка считается заголовком, остальные только обновляют аккумуляторы колонок
+    private static class ProfilingHandler implements CsvStreamParser.Handler {
+
+        private final List<CsvColumnAccumulator> columns = new ArrayList<>();
+        private boolean header = true;
+
+        @Override
+        public void cell(int column, byte[] value, int length) {
+            if (header) {
+                String name = new String(value, 0, length, StandardCharsets.UTF_8).trim();
+                columns.add(new CsvColumnAccumulator(name.isEmpty() ? "column_" + (column + 1) : name));
+                return;
+            }
+            while (column >= columns.size()) {
+                columns.add(new CsvColumnAccumulator("column_" + (columns.size() + 1)));
+            }
+            columns.get(column).accept(value, length);
+        }
+
+        @Override
+        public void endRow(int cellCount) {
+            if (header) {
+                header = false;
+                return;
+            }
+            for (int i = cellCount; i < columns.size(); i++) {
+                columns.get(i).acceptMissing();
+            }
+        }
+    }
+}
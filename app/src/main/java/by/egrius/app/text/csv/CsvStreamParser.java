@@ -0,0 +1,183 @@
+package by.egrius.app.text.csv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Потоковый разбор CSV прямо по байтовому буферу.
+ * Значение ячейки копируется в переиспользуемый буфер и отдаётся обработчику без создания строк,
+ * поэтому память не зависит от количества строк в файле.
+ * Поддерживаются кавычки, экранирование "" и переводы строк внутри кавычек.
+ */
+public class CsvStreamParser {
+
+    public interface Handler {
+        void cell(int column, byte[] value, int length);
+
+        void endRow(int cellCount);
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte QUOTE = '"';
+    private static final byte[] CANDIDATE_DELIMITERS = {',', ';', '\t', '|'};
+
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+
+    private byte[] cell = new byte[256];
+    private int cellLength;
+    private int column;
+    private byte delimiter;
+
+    public byte getDelimiter() {
+        return delimiter;
+    }
+
+    public long parse(InputStream in, Handler handler) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read = readFully(in, buffer);
+        if (read <= 0) {
+            return 0;
+        }
+
+        int start = hasBom(buffer, read) ? 3 : 0;
+        delimiter = detectDelimiter(buffer, start, read);
+
+        long rows = 0;
+        int state = FIELD_START;
+        cellLength = 0;
+        column = 0;
+
+        while (read > 0) {
+            for (int i = start; i < read; i++) {
+                byte b = buffer[i];
+                switch (state) {
+                    case FIELD_START -> {
+                        if (b == QUOTE) {
+                            state = QUOTED;
+                        } else if (b == delimiter) {
+                            emitCell(handler);
+                        } else if (b == '\n') {
+                            if (column > 0) {
+                                emitCell(handler);
+                                rows += emitRow(handler);
+                            }
+                        } else if (b != '\r') {
+                            append(b);
+                            state = UNQUOTED;
+                        }
+                    }
+                    case UNQUOTED -> {
+                        if (b == delimiter) {
+                            emitCell(handler);
+                            state = FIELD_START;
+                        } else if (b == '\n') {
+                            emitCell(handler);
+                            rows += emitRow(handler);
+                            state = FIELD_START;
+                        } else if (b != '\r') {
+                            append(b);
+                        }
+                    }
+                    case QUOTED -> {
+                        if (b == QUOTE) {
+                            state = QUOTE_IN_QUOTED;
+                        } else {
+                            append(b);
+                        }
+                    }
+                    default -> {
+                        if (b == QUOTE) {
+                            append(b);
+                            state = QUOTED;
+                        } else if (b == delimiter) {
+                            emitCell(handler);
+                            state = FIELD_START;
+                        } else if (b == '\n') {
+                            emitCell(handler);
+                            rows += emitRow(handler);
+                            state = FIELD_START;
+                        } else if (b != '\r') {
+                            // Мусор после закрывающей кавычки оставляем как есть, не отбрасывая строку
+                            append(b);
+                            state = UNQUOTED;
+                        }
+                    }
+                }
+            }
+            start = 0;
+            read = readFully(in, buffer);
+        }
+
+        if (state != FIELD_START || column > 0) {
+            emitCell(handler);
+            rows += emitRow(handler);
+        }
+        return rows;
+    }
+
+    private void append(byte b) {
+        if (cellLength == cell.length) {
+            cell = Arrays.copyOf(cell, cell.length * 2);
+        }
+        cell[cellLength++] = b;
+    }
+
+    private void emitCell(Handler handler) {
+        handler.cell(column++, cell, cellLength);
+        cellLength = 0;
+    }
+
+    private int emitRow(Handler handler) {
+        handler.endRow(column);
+        column = 0;
+        return 1;
+    }
+
+    private static int readFully(InputStream in, byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int n = in.read(buffer, total, buffer.length - total);
+            if (n < 0) {
+                break;
+            }
+            total += n;
+        }
+        return total;
+    }
+
+    private static boolean hasBom(byte[] buffer, int length) {
+        return length >= 3 && buffer[0] == (byte) 0xEF && buffer[1] == (byte) 0xBB && buffer[2] == (byte) 0xBF;
+    }
+
+    // Разделитель определяется по первой строке: побеждает самый частый символ вне кавычек
+    private static byte detectDelimiter(byte[] buffer, int start, int length) {
+        int[] counts = new int[CANDIDATE_DELIMITERS.length];
+        boolean quoted = false;
+        for (int i = start; i < length; i++) {
+            byte b = buffer[i];
+            if (b == QUOTE) {
+                quoted = !quoted;
+            } else if (!quoted && b == '\n') {
+                break;
+            } else if (!quoted) {
+                for (int d = 0; d < CANDIDATE_DELIMITERS.length; d++) {
+                    if (b == CANDIDATE_DELIMITERS[d]) {
+                        counts[d]++;
+                    }
+                }
+            }
+        }
+
+        int best = 0;
+        for (int d = 1; d < counts.length; d++) {
+            if (counts[d] > counts[best]) {
+                best = d;
+            }
+        }
+        return CANDIDATE_DELIMITERS[best];
+    }
+}
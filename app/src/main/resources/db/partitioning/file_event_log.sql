@@ -0,0 +1,68 @@
+-- Перевод file_event_log на секционирование по неделям (PostgreSQL 12+).
+-- Выполняется один раз вручную, в окно обслуживания, при остановленном приложении.
+-- Дальше недельные секции создаёт и удаляет FileEventLogPartitionMaintainer
+-- (file.events.partitioning.enabled=true): удаление старой недели - DROP TABLE вместо DELETE.
+
+BEGIN;
+
+-- Уникальный ключ секционированной таблицы обязан включать ключ секционирования,
+-- поэтому внешний ключ uploaded_file.file_event_log_id -> file_event_log(id) снимается
+DO $$
+DECLARE
+    fk record;
+BEGIN
+    FOR fk IN
+        SELECT conname
+        FROM pg_constraint
+        WHERE conrelid = 'uploaded_file'::regclass
+          AND confrelid = 'file_event_log'::regclass
+          AND contype = 'f'
+    LOOP
+        EXECUTE format('ALTER TABLE uploaded_file DROP CONSTRAINT %I', fk.conname);
+    END LOOP;
+END $$;
+
+ALTER TABLE file_event_log RENAME TO file_event_log_legacy;
+DROP INDEX IF EXISTS idx_file_event_log_file_time;
+DROP INDEX IF EXISTS idx_file_event_log_user_time;
+
+CREATE TABLE file_event_log (
+    id              uuid         NOT NULL,
+    file_id         uuid,
+    user_id         uuid,
+    file_event_type varchar(255),
+    "timestamp"     timestamp(6) NOT NULL,
+    PRIMARY KEY (id, "timestamp")
+) PARTITION BY RANGE ("timestamp");
+
+-- Недельные секции с понедельника: вся история и две недели вперёд
+DO $$
+DECLARE
+    week_start date := date_trunc('week', coalesce(
+            (SELECT min("timestamp") FROM file_event_log_legacy), now()))::date;
+    last_week  date := date_trunc('week', now() + interval '2 weeks')::date;
+BEGIN
+    WHILE week_start <= last_week LOOP
+        EXECUTE format(
+            'CREATE TABLE %I PARTITION OF file_event_log FOR VALUES FROM (%L) TO (%L)',
+            'file_event_log_p' || to_char(week_start, 'YYYYMMDD'),
+            week_start, week_start + 7);
+        week_start := week_start + 7;
+    END LOOP;
+END $$;
+
+-- Страховка на случай, если обслуживание не успело создать секцию
+CREATE TABLE file_event_log_default PARTITION OF file_event_log DEFAULT;
+
+CREATE INDEX idx_file_event_log_file_time ON file_event_log (file_id, "timestamp", id);
+CREATE INDEX idx_file_event_log_user_time ON file_event_log (user_id, "timestamp", id);
+
+-- Колонки user_id в старой таблице не было: владелец берётся из uploaded_file
+INSERT INTO file_event_log (id, file_id, user_id, file_event_type, "timestamp")
+SELECT l.id, l.file_id, f.user_id, l.file_event_type, coalesce(l."timestamp", now())
+FROM file_event_log_legacy l
+LEFT JOIN uploaded_file f ON f.id = l.file_id;
+
+DROP TABLE file_event_log_legacy;
+
+COMMIT;
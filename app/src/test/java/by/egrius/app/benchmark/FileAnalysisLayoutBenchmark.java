@@ -0,0 +1,191 @@
+package by.egrius.app.benchmark;
+
+import by.egrius.app.TestUtils;
+import by.egrius.app.dto.fileDTO.FileAnalysisReadDto;
+import by.egrius.app.entity.FileAnalysis;
+import by.egrius.app.entity.UploadedFile;
+import by.egrius.app.entity.User;
+import by.egrius.app.entity.enums.ContentType;
+import by.egrius.app.integration.service.ServiceTestConfig;
+import by.egrius.app.integration.service.SqlStatementCollector;
+import by.egrius.app.mapper.fileMapper.FileAnalysisReadMapper;
+import by.egrius.app.repository.FileAnalysisRepository;
+import by.egrius.app.repository.UploadedFileRepository;
+import by.egrius.app.repository.UserRepository;
+import by.egrius.app.text.AnalysisCodec;
+import by.egrius.app.text.WordLengthStats;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сравнение хранения анализа: четыре коллекции против одного payload.
+ * Размеры как у книги на ~200 тыс. слов. Запуск: ./gradlew benchmark
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=OFF",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=OFF",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "by.egrius.app.integration.service.SqlStatementCollector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({ServiceTestConfig.class})
+class FileAnalysisLayoutBenchmark {
+
+    private static final int ANALYSES = 5;
+    private static final int UNIQUE_WORDS = 20_000;
+    private static final int TOP_WORDS = 50;
+
+    @Autowired
+    private FileAnalysisRepository fileAnalysisRepository;
+
+    @Autowired
+    private UploadedFileRepository uploadedFileRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private FileAnalysisReadMapper fileAnalysisReadMapper;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void compareCollectionsAndPayload() {
+        User user = TestUtils.createTestUser(userRepository, passwordEncoder, UUID.randomUUID().toString().substring(0, 8));
+        AnalysisCodec.Payload payload = realisticPayload();
+
+        // Прогрев: первый запуск тратит время на загрузку классов и подготовку запросов
+        measure(user, payload, this::legacyAnalysis);
+        measure(user, payload, this::payloadAnalysis);
+
+        Result legacy = measure(user, payload, this::legacyAnalysis);
+        Result binary = measure(user, payload, this::payloadAnalysis);
+
+        System.out.printf("Коллекции: запись %d мс, чтение %d мс, запросов на чтение %d%n",
+                legacy.writeMillis(), legacy.readMillis(), legacy.readStatements());
+        System.out.printf("Payload:   запись %d мс, чтение %d мс, запросов на чтение %d, %d байт%n",
+                binary.writeMillis(), binary.readMillis(), binary.readStatements(),
+                AnalysisCodec.encode(payload).length);
+
+        assertEquals(ANALYSES, binary.readStatements());
+        assertEquals(5 * ANALYSES, legacy.readStatements());
+    }
+
+    private Result measure(User user, AnalysisCodec.Payload payload,
+                           BiFunction<UploadedFile, AnalysisCodec.Payload, FileAnalysis> factory) {
+        List<UUID> fileIds = new ArrayList<>();
+        long writeStart = System.nanoTime();
+        for (int i = 0; i < ANALYSES; i++) {
+            UploadedFile file = uploadedFileRepository.save(UploadedFile.builder()
+                    .user(user)
+                    .filename("benchmark_" + UUID.randomUUID() + ".txt")
+                    .uploadTime(new Timestamp(System.currentTimeMillis()))
+                    .contentType(ContentType.TXT)
+                    .build());
+            FileAnalysis analysis = factory.apply(file, payload);
+            file.setFileAnalysis(analysis);
+            fileAnalysisRepository.save(analysis);
+            fileIds.add(file.getId());
+        }
+        entityManager.flush();
+        long writeMillis = (System.nanoTime() - writeStart) / 1_000_000;
+        entityManager.clear();
+
+        SqlStatementCollector.clear();
+        long readStart = System.nanoTime();
+        for (UUID fileId : fileIds) {
+            FileAnalysisReadDto dto = fileAnalysisReadMapper.map(
+                    fileAnalysisRepository.findByUploadedFile_Id(fileId).orElseThrow(), true);
+            assertEquals(payload.wordLengthMap().size(), dto.wordLengthMap().size());
+        }
+        long readMillis = (System.nanoTime() - readStart) / 1_000_000;
+        long readStatements = SqlStatementCollector.getStatements().stream()
+                .filter(sql -> sql.toLowerCase().startsWith("select"))
+                .count();
+        entityManager.clear();
+        return new Result(writeMillis, readMillis, readStatements);
+    }
+
+    private FileAnalysis legacyAnalysis(UploadedFile file, AnalysisCodec.Payload payload) {
+        return FileAnalysis.builder()
+                .uploadedFile(file)
+                .topWords(new HashMap<>(payload.topWords()))
+                .startsWithMap(new HashMap<>(payload.startsWithMap()))
+                .punctuationMap(new HashMap<>(payload.punctuationMap()))
+                .wordLengthMap(new HashMap<>(payload.wordLengthMap()))
+                .stopWordsExcluded(true)
+                .build();
+    }
+
+    private FileAnalysis payloadAnalysis(UploadedFile file, AnalysisCodec.Payload payload) {
+        return FileAnalysis.builder()
+                .uploadedFile(file)
+                .payload(AnalysisCodec.encode(payload))
+                .stopWordsExcluded(true)
+                .build();
+    }
+
+    private static AnalysisCodec.Payload realisticPayload() {
+        Random random = new Random(42);
+        String alphabet = "абвгдеёжзийклмнопрстуфхцчшщъыьэюя";
+        Map<String, Integer> wordLengths = new LinkedHashMap<>();
+        while (wordLengths.size() < UNIQUE_WORDS) {
+            int length = 2 + random.nextInt(12);
+            StringBuilder word = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                word.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            wordLengths.put(word.toString(), length);
+        }
+
+        Map<String, Long> topWords = new LinkedHashMap<>();
+        long count = 10_000;
+        for (String word : wordLengths.keySet()) {
+            if (topWords.size() == TOP_WORDS) {
+                break;
+            }
+            topWords.put(word, count);
+            count -= 1 + random.nextInt(150);
+        }
+
+        Map<Character, Long> startsWith = new LinkedHashMap<>();
+        for (char c : alphabet.toCharArray()) {
+            startsWith.put(c, (long) random.nextInt(20_000));
+        }
+        Map<Character, Long> punctuation = new LinkedHashMap<>();
+        for (char c : ".,!?;:-—()\"'«»".toCharArray()) {
+            punctuation.put(c, (long) random.nextInt(10_000));
+        }
+        return new AnalysisCodec.Payload(topWords, startsWith, punctuation,
+                WordLengthStats.of(wordLengths.keySet(), WordLengthStats.SAMPLE_SIZE), wordLengths);
+    }
+
+    private record Result(long writeMillis, long readMillis, long readStatements) {
+    }
+}
@@ -805,6 +805,77 @@ class FileControllerIT {
                     .andExpect(jsonPath("$.content.length()").value(1))
                     .andExpect(jsonPath("$.content[0].filename").value("data.json"));
         }
+
+        @Test
+        void searchFiles_withoutPage_shouldKeepPageResponseShape() throws Exception {
+            mockMvc.perform(get("/file/search")
+                            .param("keyword", "doc")
+                            .with(httpBasic("TestUser", "1234")))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.page").value(0))
+                    .andExpect(jsonPath("$.size").value(10))
+                    .andExpect(jsonPath("$.totalElements").value(1))
+                    .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        }
+
+        @Test
+        void filterByContentType_withoutPage_shouldKeepPageResponseShape() throws Exception {
+            mockMvc.perform(get("/file/filter/by-type")
+                            .param("contentType", "TXT")
+                            .with(httpBasic("TestUser", "1234")))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.page").value(0))
+                    .andExpect(jsonPath("$.size").value(10))
+                    .andExpect(jsonPath("$.totalElements").value(3))
+                    .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        }
+
+        @Test
+        void searchFilesPage_shouldWalkPagesByCursor() throws Exception {
+            String body = mockMvc.perform(get("/file/search/page")
+                            .param("keyword", ".txt")
+                            .param("limit", "1")
+                            .param("withTotal", "true")
+                            .with(httpBasic("TestUser", "1234")))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(1))
+                    .andExpect(jsonPath("$.totalElements").value(2))
+                    .andExpect(jsonPath("$.page").doesNotExist())
+                    .andReturn().getResponse().getContentAsString();
+            String cursor = objectMapper.readTree(body).get("nextCursor").asText();
+
+            mockMvc.perform(get("/file/search/page")
+                            .param("keyword", ".txt")
+                            .param("limit", "1")
+                            .param("cursor", cursor)
+                            .with(httpBasic("TestUser", "1234")))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(1))
+                    .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        }
+
+        @Test
+        void filterByContentTypePage_shouldReturnKeysetPage() throws Exception {
+            mockMvc.perform(get("/file/filter/by-type/page")
+                            .param("contentType", "TXT")
+                            .param("limit", "2")
+                            .with(httpBasic("TestUser", "1234")))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(2))
+                    .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                    .andExpect(jsonPath("$.page").doesNotExist());
+        }
+
+        @Test
+        void showUploadedFilesPage_shouldReturnKeysetPage() throws Exception {
+            mockMvc.perform(get("/file/show-files/page")
+                            .param("limit", "2")
+                            .with(httpBasic("TestUser", "1234")))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(2))
+                    .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                    .andExpect(jsonPath("$.totalElements").doesNotExist());
+        }
     }
 
     // ============ STOP WORDS TESTS ============
@@ -0,0 +1,72 @@
+package by.egrius.app.integration.controller;
+
+import by.egrius.app.entity.User;
+import by.egrius.app.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "rate-limit.enabled=true",
+        "rate-limit.upload.capacity=1",
+        "rate-limit.upload.refill-per-second=0.01"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class RateLimitIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setup() {
+        User user = User.builder()
+                .username("RateLimitedUser")
+                .email("rate-limited@test.com")
+                .password("1234")
+                .build();
+        userId = userRepository.save(user).getUserId();
+    }
+
+    @AfterEach
+    void cleanup() {
+        userRepository.deleteById(userId);
+    }
+
+    @Test
+    void upload_shouldReturn429WithRetryAfterWhenBucketIsEmpty() throws Exception {
+        mockMvc.perform(multipart("/file/upload")
+                        .file(new MockMultipartFile("file", "first.txt", "text/plain", "First".getBytes()))
+                        .with(httpBasic("RateLimitedUser", "1234")))
+                .andExpect(status().isOk());
+
+        String retryAfter = mockMvc.perform(multipart("/file/upload")
+                        .file(new MockMultipartFile("file", "second.txt", "text/plain", "Second".getBytes()))
+                        .with(httpBasic("RateLimitedUser", "1234")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.code").value("RATE_LIMIT_EXCEEDED"))
+                .andReturn().getResponse().getHeader(HttpHeaders.RETRY_AFTER);
+
+        assertTrue(Long.parseLong(retryAfter) > 0);
+    }
+}
@@ -3,6 +3,7 @@ package by.egrius.app.integration.controller;
 import by.egrius.app.dto.userDTO.UserCreateDto;
 import by.egrius.app.entity.User;
 import by.egrius.app.repository.UserRepository;
+import by.egrius.app.service.UserPurgeService;
 import by.egrius.app.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -37,6 +38,9 @@ class UserControllerIT {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserPurgeService userPurgeService;
+
     @BeforeEach
     void clearDatabase() {
         userRepository.deleteAll();
@@ -346,6 +350,13 @@ class UserControllerIT {
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.deleted").value(true));
 
+            // Сразу после удаления войти нельзя, а строка ждёт фоновой очистки
+            assertNotNull(userRepository.findById(testUserUUID).orElseThrow().getDeletedAt());
+            mockMvc.perform(get("/user/by-username/TestUser")
+                            .with(httpBasic("TestUser", "1234")))
+                    .andExpect(status().isUnauthorized());
+
+            userPurgeService.purgeAll();
             assertFalse(userRepository.findById(testUserUUID).isPresent());
         }
 
@@ -1,6 +1,8 @@
 package by.egrius.app.integration.service;
 
 import by.egrius.app.dto.fileDTO.FileAnalysisReadDto;
+import by.egrius.app.dto.fileDTO.KwicHitDto;
+import by.egrius.app.dto.fileDTO.KwicReadDto;
 import by.egrius.app.entity.FileAnalysis;
 import by.egrius.app.entity.FileContent;
 import by.egrius.app.entity.UploadedFile;
@@ -10,11 +12,15 @@ import by.egrius.app.repository.FileAnalysisRepository;
 import by.egrius.app.repository.UploadedFileRepository;
 import by.egrius.app.repository.UserRepository;
 import by.egrius.app.service.FileAnalysisService;
+import by.egrius.app.service.PositionalIndexService;
 import by.egrius.app.service.UserService;
+import by.egrius.app.service.FileStatsViewService;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -24,6 +30,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -34,7 +42,9 @@ import static org.junit.jupiter.api.Assertions.*;
 @ActiveProfiles("test")
 @Import({
         ServiceTestConfig.class,
-        FileAnalysisService.class
+        FileAnalysisService.class,
+        PositionalIndexService.class,
+        FileStatsViewService.class
 })
 class FileAnalysisIT {
     @Autowired
@@ -52,6 +62,12 @@ class FileAnalysisIT {
     @Autowired
     private FileAnalysisService fileAnalysisService;
 
+    @Autowired
+    private PositionalIndexService positionalIndexService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
     private User user;
     private UploadedFile uploadedFile;
     private UUID uploadedFileId;
@@ -136,12 +152,12 @@ class FileAnalysisIT {
         assertEquals(2L, startsWith.get('h'), "Should have 2 words starting with 'h' (hello, hello)");
         assertTrue(startsWith.containsKey('e'), "Should contain words starting with 'e' (egor)");
 
-        // Проверка: длина слов
-        Map<String, Integer> wordLengths = dto.wordLengthMap();
-        assertEquals(5, wordLengths.get("hello"), "'hello' should have length 5");
-        assertEquals(4, wordLengths.get("egor"), "'egor' should have length 4");
-        assertEquals(5, wordLengths.get("world"), "'world' should have length 5");
-        assertEquals(4, wordLengths.get("test"), "'test' should have length 4");
+        // Проверка: длина слов - гистограмма по словарю, без карты слов
+        Map<Integer, Long> histogram = dto.wordLengthHistogram();
+        assertTrue(histogram.get(5) >= 2, "'hello' and 'world' have length 5");
+        assertTrue(histogram.get(4) >= 2, "'egor' and 'test' have length 4");
+        assertEquals("punctuation", dto.longestWords().getFirst());
+        assertNull(dto.wordLengthMap(), "Word length map is returned only on request");
 
         // Проверка: анализ сохранился в БД
         FileAnalysis savedAnalysis = fileAnalysisRepository.findByUploadedFile_Id(uploadedFileId)
@@ -274,6 +290,51 @@ class FileAnalysisIT {
         assertTrue(optionalDto.isEmpty());
     }
 
+    @Test
+    void createAnalysis_shouldKeepWordLengthMapOnlyWhenRequested() {
+
+        FileAnalysisReadDto createdDto = fileAnalysisService.createAnalysis(uploadedFileId, 5, true, true);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(5, createdDto.wordLengthMap().get("hello"));
+        assertEquals(4, createdDto.wordLengthMap().get("egor"));
+        assertEquals(createdDto.wordLengthMap(),
+                fileAnalysisService.getAnalysisByFileId(uploadedFileId, true).orElseThrow().wordLengthMap());
+        assertNull(fileAnalysisService.getAnalysisByFileId(uploadedFileId).orElseThrow().wordLengthMap());
+    }
+
+    @Test
+    void getAnalysisByFileId_shouldReadPayloadAndLegacyCollections() {
+
+        FileAnalysisReadDto createdDto = fileAnalysisService.createAnalysis(uploadedFileId, 5, false);
+        entityManager.flush();
+        entityManager.clear();
+
+        FileAnalysisReadDto retrievedDto = fileAnalysisService.getAnalysisByFileId(uploadedFileId).orElseThrow();
+        assertEquals(createdDto, retrievedDto);
+        assertEquals(createdDto.topWords().keySet().stream().toList(),
+                retrievedDto.topWords().keySet().stream().toList(), "Порядок топ-слов сохраняется");
+
+        // Анализ, записанный до появления payload, читается из коллекций
+        FileAnalysis legacy = fileAnalysisRepository.findByUploadedFile_Id(uploadedFileId).orElseThrow();
+        legacy.setPayload(null);
+        legacy.setTopWords(new HashMap<>(Map.of("egor", 4L)));
+        legacy.setStartsWithMap(new HashMap<>(Map.of('e', 4L)));
+        legacy.setPunctuationMap(new HashMap<>(Map.of('!', 2L)));
+        legacy.setWordLengthMap(new HashMap<>(Map.of("egor", 4)));
+        entityManager.flush();
+        entityManager.clear();
+
+        FileAnalysisReadDto legacyDto = fileAnalysisService.getAnalysisByFileId(uploadedFileId, true).orElseThrow();
+        assertEquals(Map.of("egor", 4L), legacyDto.topWords());
+        assertEquals(Map.of('e', 4L), legacyDto.startsWithMap());
+        assertEquals(Map.of('!', 2L), legacyDto.punctuationMap());
+        assertEquals(Map.of("egor", 4), legacyDto.wordLengthMap());
+        assertEquals(Map.of(4, 1L), legacyDto.wordLengthHistogram());
+        assertEquals(List.of("egor"), legacyDto.longestWords());
+    }
+
     @Test
     void createAnalysis_shouldThrowWhenAnalysisAlreadyExists() {
 
@@ -282,4 +343,49 @@ class FileAnalysisIT {
         assertThrows(IllegalStateException.class,
                 () -> fileAnalysisService.createAnalysis(uploadedFileId, 5, true));
     }
-}
\ No newline at end of file
+
+    @Test
+    void userScopedAnalysis_shouldIgnoreForeignFiles() {
+        UUID strangerId = UUID.randomUUID();
+
+        assertThrows(EntityNotFoundException.class,
+                () -> fileAnalysisService.createAnalysis(strangerId, uploadedFileId, 5, true, false));
+
+        FileAnalysisReadDto created = fileAnalysisService.createAnalysis(user.getUserId(), uploadedFileId, 5, true, false);
+
+        assertEquals(created.id(), fileAnalysisService.getAnalysisByFileId(user.getUserId(), uploadedFileId, false)
+                .orElseThrow().id());
+        assertTrue(fileAnalysisService.getAnalysisByFileId(strangerId, uploadedFileId, false).isEmpty());
+    }
+
+    @Test
+    void kwic_shouldFindPhraseWithContextAfterAnalysis() {
+
+        fileAnalysisService.createAnalysis(uploadedFileId, 5, true);
+
+        KwicReadDto phrase = positionalIndexService.kwic(uploadedFileId, "hello AGAIN", 6, 10);
+
+        assertEquals(1, phrase.totalOccurrences());
+        KwicHitDto hit = phrase.hits().getFirst();
+        assertEquals(1, hit.line());
+        assertEquals(13, hit.offset());
+        assertEquals("orld! ", hit.left());
+        assertEquals("Hello again.", hit.match());
+        assertEquals(" This ", hit.right());
+
+        // Стоп-слова исключаются из анализа, но не из позиционного индекса
+        assertEquals(1, positionalIndexService.kwic(uploadedFileId, "this is a test", 0, 10).totalOccurrences());
+
+        KwicReadDto egor = positionalIndexService.kwic(uploadedFileId, "egor", 3, 2);
+        assertEquals(4, egor.totalOccurrences());
+        assertEquals(2, egor.hits().size());
+        assertEquals(3, egor.hits().get(1).line());
+    }
+
+    @Test
+    void kwic_shouldRequireAnalysis() {
+
+        assertThrows(EntityNotFoundException.class,
+                () -> positionalIndexService.kwic(uploadedFileId, "hello", 10, 10));
+    }
+}
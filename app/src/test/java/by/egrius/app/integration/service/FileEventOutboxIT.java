@@ -0,0 +1,108 @@
+package by.egrius.app.integration.service;
+
+import by.egrius.app.entity.FileEventOutbox;
+import by.egrius.app.entity.enums.FileEventType;
+import by.egrius.app.event.FileEvent;
+import by.egrius.app.publisher.FileEventPublisher;
+import by.egrius.app.repository.FileEventOutboxRepository;
+import by.egrius.app.service.FileEventOutboxRelay;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "file.outbox.relay.enabled=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@RecordApplicationEvents
+@Import({FileEventPublisher.class, FileEventOutboxRelay.class})
+class FileEventOutboxIT {
+
+    @Autowired
+    private FileEventPublisher fileEventPublisher;
+
+    @Autowired
+    private FileEventOutboxRelay outboxRelay;
+
+    @Autowired
+    private FileEventOutboxRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @Test
+    void dispatchBatch_shouldPublishPendingEventsOnceAndSupportReplay() {
+        UUID fileId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        Timestamp before = new Timestamp(System.currentTimeMillis() - 1000);
+
+        fileEventPublisher.publishUpload(fileId, userId);
+        fileEventPublisher.publish(FileEventType.PARSE_START, fileId);
+
+        assertEquals(2, outboxRelay.dispatchBatch());
+        assertEquals(0, outboxRelay.dispatchBatch());
+
+        List<FileEvent> events = applicationEvents.stream(FileEvent.class).toList();
+        assertEquals(List.of(FileEventType.UPLOAD, FileEventType.PARSE_START),
+                events.stream().map(FileEvent::getFileEventType).toList());
+        assertEquals(userId, events.getFirst().getUserId());
+        outboxRepository.findAll().forEach(entry -> assertNotNull(entry.getDispatchedAt()));
+
+        assertEquals(2, outboxRelay.replaySince(before));
+        assertEquals(2, outboxRelay.dispatchBatch());
+        assertEquals(4, applicationEvents.stream(FileEvent.class).count());
+    }
+
+    @Test
+    void publishDeletedBatch_shouldWriteOneEntryPerFile() {
+        UUID userId = UUID.randomUUID();
+        List<UUID> fileIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        fileEventPublisher.publishDeleted(fileIds, userId);
+        fileEventPublisher.publishDeleted(List.of(), userId);
+
+        assertEquals(3, outboxRelay.dispatchBatch());
+        List<FileEvent> events = applicationEvents.stream(FileEvent.class).toList();
+        assertEquals(fileIds, events.stream().map(FileEvent::getFileId).toList());
+        events.forEach(event -> {
+            assertEquals(FileEventType.DELETED, event.getFileEventType());
+            assertEquals(userId, event.getUserId());
+        });
+    }
+
+    @Test
+    void publishError_shouldSurviveRollbackOfCallerTransaction() {
+        UUID fileId = UUID.randomUUID();
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        fileEventPublisher.publishError(fileId);
+
+        try {
+            // Запись сделана в отдельной транзакции и видна из другой
+            List<FileEventOutbox> committed = requiresNew.execute(status -> outboxRepository.findAll().stream()
+                    .filter(entry -> entry.getFileId().equals(fileId))
+                    .toList());
+            assertEquals(1, committed.size());
+            assertEquals(FileEventType.ERROR, committed.getFirst().getEventType());
+        } finally {
+            requiresNew.executeWithoutResult(status -> outboxRepository.deleteAll());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package by.egrius.app.integration.service;
+
+import by.egrius.app.dto.fileDTO.FileEventTimelineDto;
+import by.egrius.app.dto.fileDTO.FileEventTimelinePageDto;
+import by.egrius.app.entity.FileEventLog;
+import by.egrius.app.entity.enums.FileEventType;
+import by.egrius.app.repository.FileEventLogRepository;
+import by.egrius.app.service.FileEventTimelineService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(FileEventTimelineService.class)
+class FileEventTimelineServiceIT {
+
+    private static final Instant BASE = Instant.parse("2025-03-10T12:00:00Z");
+
+    @Autowired
+    private FileEventTimelineService timelineService;
+
+    @Autowired
+    private FileEventLogRepository fileEventLogRepository;
+
+    @Test
+    void getFileTimeline_shouldPageNewestFirstWithoutGapsOnEqualTimestamps() {
+        UUID fileId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        // Пары событий с одинаковым временем: граница страницы проходит внутри пары
+        for (int i = 0; i < 7; i++) {
+            save(fileId, userId, FileEventType.PARSE_START, BASE.plusSeconds(i / 2));
+        }
+        save(UUID.randomUUID(), userId, FileEventType.UPLOAD, BASE);
+
+        List<FileEventTimelineDto> collected = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            FileEventTimelinePageDto page = timelineService.getFileTimeline(fileId, null, null, cursor, 3);
+            collected.addAll(page.events());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(7, collected.size());
+        assertEquals(7, collected.stream().map(FileEventTimelineDto::id).distinct().count());
+        for (int i = 1; i < collected.size(); i++) {
+            assertFalse(collected.get(i).timestamp().after(collected.get(i - 1).timestamp()));
+        }
+    }
+
+    @Test
+    void getUserTimeline_shouldApplyRangeAcrossFiles() {
+        UUID userId = UUID.randomUUID();
+        save(UUID.randomUUID(), userId, FileEventType.UPLOAD, BASE.minusSeconds(60));
+        save(UUID.randomUUID(), userId, FileEventType.UPLOAD, BASE);
+        save(UUID.randomUUID(), userId, FileEventType.DELETED, BASE.plusSeconds(30));
+        save(UUID.randomUUID(), userId, FileEventType.UPLOAD, BASE.plusSeconds(60));
+        save(UUID.randomUUID(), UUID.randomUUID(), FileEventType.UPLOAD, BASE);
+
+        FileEventTimelinePageDto page = timelineService.getUserTimeline(
+                userId, BASE, BASE.plusSeconds(60), null, 50);
+
+        assertNull(page.nextCursor());
+        assertEquals(List.of(FileEventType.DELETED, FileEventType.UPLOAD),
+                page.events().stream().map(FileEventTimelineDto::fileEventType).toList());
+    }
+
+    @Test
+    void getFileTimeline_shouldRejectBadArguments() {
+        UUID fileId = UUID.randomUUID();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> timelineService.getFileTimeline(fileId, null, null, "not-a-cursor", 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> timelineService.getFileTimeline(fileId, null, null, null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> timelineService.getFileTimeline(fileId, BASE, BASE, null, 10));
+    }
+
+    private void save(UUID fileId, UUID userId, FileEventType type, Instant time) {
+        fileEventLogRepository.save(FileEventLog.builder()
+                .fileId(fileId)
+                .userId(userId)
+                .fileEventType(type)
+                .timestamp(Timestamp.from(time))
+                .build());
+    }
+}
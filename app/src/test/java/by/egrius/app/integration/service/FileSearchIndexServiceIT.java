@@ -0,0 +1,125 @@
+package by.egrius.app.integration.service;
+
+import by.egrius.app.dto.fileDTO.ContentSearchHitDto;
+import by.egrius.app.entity.SearchPosting;
+import by.egrius.app.repository.SearchDocumentRepository;
+import by.egrius.app.repository.SearchPostingRepository;
+import by.egrius.app.service.FileSearchIndexService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(FileSearchIndexService.class)
+class FileSearchIndexServiceIT {
+
+    @Autowired
+    private FileSearchIndexService fileSearchIndexService;
+
+    @Autowired
+    private SearchPostingRepository searchPostingRepository;
+
+    @Autowired
+    private SearchDocumentRepository searchDocumentRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setup() {
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void search_shouldRankFilesByTermRelevance() {
+        UUID logFile = UUID.randomUUID();
+        UUID notesFile = UUID.randomUUID();
+        UUID recipeFile = UUID.randomUUID();
+
+        fileSearchIndexService.indexFile(userId, logFile, "server.log",
+                "ERROR timeout while connecting. Error again: timeout, timeout!");
+        fileSearchIndexService.indexFile(userId, notesFile, "notes.txt",
+                "Meeting notes: discuss the timeout issue with the team");
+        fileSearchIndexService.indexFile(userId, recipeFile, "recipe.txt",
+                "Flour, sugar, eggs and butter");
+
+        List<ContentSearchHitDto> hits = fileSearchIndexService.search(userId, "timeout error", 10);
+
+        assertEquals(List.of(logFile, notesFile), hits.stream().map(ContentSearchHitDto::fileId).toList());
+        assertEquals("server.log", hits.getFirst().filename());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    void search_shouldNotSeeOtherUsersFiles() {
+        fileSearchIndexService.indexFile(userId, UUID.randomUUID(), "mine.txt", "shared keyword");
+        fileSearchIndexService.indexFile(UUID.randomUUID(), UUID.randomUUID(), "theirs.txt", "shared keyword");
+
+        List<ContentSearchHitDto> hits = fileSearchIndexService.search(userId, "keyword", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals("mine.txt", hits.getFirst().filename());
+    }
+
+    @Test
+    void removeFiles_shouldHideFileFromResults() {
+        UUID removed = UUID.randomUUID();
+        UUID kept = UUID.randomUUID();
+        fileSearchIndexService.indexFile(userId, removed, "old.txt", "quarterly report draft");
+        fileSearchIndexService.indexFile(userId, kept, "new.txt", "quarterly report final");
+
+        fileSearchIndexService.removeFiles(userId, List.of(removed));
+        // Пометки ставит пакетный UPDATE, документы из indexFile в сессии остались прежними
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ContentSearchHitDto> hits = fileSearchIndexService.search(userId, "quarterly", 10);
+        assertEquals(List.of(kept), hits.stream().map(ContentSearchHitDto::fileId).toList());
+    }
+
+    @Test
+    void removeFiles_shouldKeepTombstoneUntilCompaction() {
+        UUID removed = UUID.randomUUID();
+        fileSearchIndexService.indexFile(userId, removed, "only.txt", "unique words here");
+
+        // Пометок меньше порога сжатия: списки вхождений остаются, документ отфильтровывается при поиске
+        fileSearchIndexService.removeFiles(userId, List.of(removed));
+        // Пометки ставит пакетный UPDATE, документы из indexFile в сессии остались прежними
+        entityManager.flush();
+        entityManager.clear();
+
+        assertTrue(searchDocumentRepository.findByFileId(removed).orElseThrow().isDeleted());
+        assertFalse(searchPostingRepository.findByUserIdAndTerms(userId, List.of("unique")).isEmpty());
+        assertTrue(fileSearchIndexService.search(userId, "unique", 10).isEmpty());
+    }
+
+    @Test
+    void indexFile_shouldAppendToExistingPostings() {
+        fileSearchIndexService.indexFile(userId, UUID.randomUUID(), "a.txt", "alpha beta");
+        fileSearchIndexService.indexFile(userId, UUID.randomUUID(), "b.txt", "alpha alpha");
+
+        SearchPosting alpha = searchPostingRepository.findByUserIdAndTerms(userId, List.of("alpha")).getFirst();
+
+        assertEquals(2, alpha.getDocumentFrequency());
+        assertEquals(1, alpha.getLastDocNo());
+    }
+
+    @Test
+    void search_withoutWords_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> fileSearchIndexService.search(userId, " ,.! ", 10));
+    }
+}
@@ -0,0 +1,167 @@
+package by.egrius.app.integration.service;
+
+import by.egrius.app.TestUtils;
+import by.egrius.app.dto.fileDTO.FileStatsDto;
+import by.egrius.app.entity.FileContent;
+import by.egrius.app.entity.UploadedFile;
+import by.egrius.app.entity.User;
+import by.egrius.app.entity.enums.ContentType;
+import by.egrius.app.entity.enums.PatternType;
+import by.egrius.app.repository.FileStatsViewRepository;
+import by.egrius.app.repository.UploadedFileRepository;
+import by.egrius.app.repository.UserRepository;
+import by.egrius.app.service.FileAnalysisService;
+import by.egrius.app.service.FileStatsViewService;
+import by.egrius.app.service.PositionalIndexService;
+import by.egrius.app.service.RegexMatchService;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "by.egrius.app.integration.service.SqlStatementCollector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({
+        ServiceTestConfig.class,
+        FileStatsViewService.class,
+        FileAnalysisService.class,
+        PositionalIndexService.class,
+        RegexMatchService.class
+})
+class FileStatsViewServiceIT {
+
+    private static final String TEXT = "Пишите на support@company.org, звоните +375 29 123-45-67. Ответим быстро, ответим честно.";
+
+    @Autowired
+    private FileStatsViewService fileStatsViewService;
+
+    @Autowired
+    private FileAnalysisService fileAnalysisService;
+
+    @Autowired
+    private RegexMatchService regexMatchService;
+
+    @Autowired
+    private FileStatsViewRepository fileStatsViewRepository;
+
+    @Autowired
+    private UploadedFileRepository uploadedFileRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private UUID userId;
+    private UploadedFile uploadedFile;
+
+    @BeforeEach
+    void setup() {
+        User user = TestUtils.createTestUser(userRepository, passwordEncoder, UUID.randomUUID().toString().substring(0, 8));
+        userId = user.getUserId();
+
+        uploadedFile = UploadedFile.builder()
+                .user(user)
+                .filename("stats.txt")
+                .uploadTime(new Timestamp(System.currentTimeMillis()))
+                .contentType(ContentType.TXT)
+                .build();
+        uploadedFile.setFileContent(FileContent.builder()
+                .uploadedFile(uploadedFile)
+                .rawText(TEXT)
+                .sizeBytes((long) TEXT.length())
+                .lineCount(1L)
+                .wordCount(11L)
+                .build());
+        uploadedFileRepository.save(uploadedFile);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SqlStatementCollector.clear();
+    }
+
+    @Test
+    void getStats_shouldFollowAnalysisAndRegexWrites() {
+        UUID fileId = uploadedFile.getId();
+        fileStatsViewService.fileUploaded(uploadedFile);
+
+        FileStatsDto empty = fileStatsViewService.getStats(userId, fileId);
+        assertFalse(empty.hasAnalysis());
+        assertFalse(empty.hasRegexMatches());
+        assertEquals(11L, empty.file().wordCount());
+
+        fileAnalysisService.createAnalysis(fileId, 5, false, true);
+        regexMatchService.createRegexMatch(fileId, Set.of(PatternType.EMAIL, PatternType.PHONE));
+        entityManager.flush();
+        entityManager.clear();
+
+        FileStatsDto stats = fileStatsViewService.getStats(userId, fileId);
+        assertTrue(stats.hasAnalysis());
+        assertEquals(2L, stats.analysis().topWords().get("ответим"));
+        assertNull(stats.analysis().wordLengthMap());
+        assertFalse(stats.analysis().wordLengthHistogram().isEmpty());
+        assertTrue(stats.hasRegexMatches());
+        assertEquals(List.of("support@company.org"), stats.regexMatch().emailMatches());
+        assertEquals(2L, stats.regexMatch().matchCount());
+
+        regexMatchService.deleteRegexMatch(fileId);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertFalse(fileStatsViewService.getStats(userId, fileId).hasRegexMatches());
+    }
+
+    @Test
+    void getStats_shouldBackfillRowOnceAndThenReadSingleStatement() {
+        UUID fileId = uploadedFile.getId();
+        // Файл загружен до появления модели чтения: строки нет, анализ уже есть
+        fileAnalysisService.createAnalysis(fileId, 5, false);
+        entityManager.flush();
+        entityManager.clear();
+        assertTrue(fileStatsViewRepository.findById(fileId).isEmpty());
+
+        FileStatsDto rebuilt = fileStatsViewService.getStats(userId, fileId);
+        entityManager.flush();
+        entityManager.clear();
+        assertTrue(rebuilt.hasAnalysis());
+        assertFalse(rebuilt.hasRegexMatches());
+
+        SqlStatementCollector.clear();
+        FileStatsDto stats = fileStatsViewService.getStats(userId, fileId);
+
+        assertEquals(rebuilt.analysis(), stats.analysis());
+        assertEquals(11L, stats.file().wordCount());
+        List<String> statements = SqlStatementCollector.getStatements();
+        assertEquals(1, statements.size(), statements.toString());
+    }
+
+    @Test
+    void getStats_shouldRejectForeignFile() {
+        fileStatsViewService.fileUploaded(uploadedFile);
+
+        assertThrows(EntityNotFoundException.class,
+                () -> fileStatsViewService.getStats(UUID.randomUUID(), uploadedFile.getId()));
+    }
+}
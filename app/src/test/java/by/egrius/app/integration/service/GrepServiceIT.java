@@ -0,0 +1,156 @@
+package by.egrius.app.integration.service;
+
+import by.egrius.app.TestUtils;
+import by.egrius.app.entity.User;
+import by.egrius.app.repository.UserRepository;
+import by.egrius.app.security.UserDetailsCache;
+import by.egrius.app.service.CsvProfileService;
+import by.egrius.app.service.FileSearchIndexService;
+import by.egrius.app.service.FilenameIndexService;
+import by.egrius.app.service.PositionalIndexService;
+import by.egrius.app.service.GrepService;
+import by.egrius.app.service.UploadedFileService;
+import by.egrius.app.service.UserPurgeService;
+import by.egrius.app.service.UserService;
+import by.egrius.app.service.FileStatsViewService;
+import by.egrius.app.service.FileBulkDeleteService;
+import by.egrius.app.text.LanguageDetector;
+import by.egrius.app.text.csv.CsvProfiler;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({
+        ServiceTestConfig.class,
+        UploadedFileService.class,
+        UserService.class,
+        UserDetailsCache.class,
+        UserPurgeService.class,
+        LanguageDetector.class,
+        CsvProfiler.class,
+        CsvProfileService.class,
+        FileSearchIndexService.class,
+        FilenameIndexService.class,
+        PositionalIndexService.class,
+        FileStatsViewService.class,
+        FileBulkDeleteService.class,
+        GrepService.class,
+        JacksonAutoConfiguration.class
+})
+class GrepServiceIT {
+
+    @Autowired
+    private GrepService grepService;
+
+    @Autowired
+    private UploadedFileService uploadedFileService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserPurgeService userPurgeService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+
+    @BeforeEach
+    void setup() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        user = TestUtils.createTestUser(userRepository, passwordEncoder, suffix);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Файлы сканируются в отдельных потоках, поэтому данные закоммичены и удаляются явно
+        TestUtils.setupSecurityContext(user);
+        userService.deleteUser(user.getUserId(), "1234");
+        userPurgeService.purgeAll();
+        TestUtils.clearSecurityContext();
+    }
+
+    @Test
+    void grep_shouldStreamHitsWithLineAndOffset() throws Exception {
+        UUID serverLog = upload("server-" + user.getUserId() + ".log",
+                "started\nERROR 504 timeout on /api\nok\nerror 500 timeout again");
+        upload("notes-" + user.getUserId() + ".txt", "nothing interesting here\nno errors at all");
+        commit();
+
+        List<JsonNode> hits = grep("(?i)error \\d+ timeout");
+
+        assertEquals(2, hits.size());
+        hits.forEach(hit -> assertEquals(serverLog.toString(), hit.get("fileId").asText()));
+        assertEquals(List.of(2, 4), hits.stream().map(hit -> hit.get("line").asInt()).toList());
+        assertEquals(8, hits.getFirst().get("offset").asInt());
+        assertEquals("ERROR 504 timeout", hits.getFirst().get("match").asText());
+    }
+
+    @Test
+    void grep_shouldScanAllFilesWhenPatternHasNoLiterals() throws Exception {
+        upload("a-" + user.getUserId() + ".txt", "id 42");
+        upload("b-" + user.getUserId() + ".txt", "id 7\nid 13");
+        commit();
+
+        assertEquals(3, grep("\\d+").size());
+    }
+
+    @Test
+    void grep_shouldRejectInvalidPattern() {
+        commit();
+
+        assertThrows(IllegalArgumentException.class, () -> grepService.grep(user.getUserId(), "(unclosed"));
+    }
+
+    private UUID upload(String filename, String text) {
+        return uploadedFileService.uploadFile(new MockMultipartFile(
+                "file", filename, "text/plain", text.getBytes(StandardCharsets.UTF_8)), user.getUserId()).id();
+    }
+
+    private void commit() {
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+    }
+
+    private List<JsonNode> grep(String pattern) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        grepService.grep(user.getUserId(), pattern).writeTo(out);
+
+        List<JsonNode> hits = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                hits.add(objectMapper.readTree(line));
+            }
+        }
+        return hits;
+    }
+}
@@ -2,6 +2,7 @@ package by.egrius.app.integration.service;
 
 import by.egrius.app.dto.fileDTO.RegexMatchReadDto;
 import by.egrius.app.entity.FileContent;
+import by.egrius.app.entity.PatternMatches;
 import by.egrius.app.entity.UploadedFile;
 import by.egrius.app.entity.User;
 import by.egrius.app.entity.enums.ContentType;
@@ -12,6 +13,8 @@ import by.egrius.app.repository.UploadedFileRepository;
 import by.egrius.app.repository.UserRepository;
 import by.egrius.app.service.FileAnalysisService;
 import by.egrius.app.service.RegexMatchService;
+import by.egrius.app.service.FileStatsViewService;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,6 +26,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -33,9 +37,11 @@ import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -44,7 +50,8 @@ import static org.junit.jupiter.api.Assertions.*;
 @ActiveProfiles("test")
 @Import({
         ServiceTestConfig.class,
-        RegexMatchService.class
+        RegexMatchService.class,
+        FileStatsViewService.class
 })
 class RegexMatchServiceIT {
 
@@ -66,6 +73,9 @@ class RegexMatchServiceIT {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private FileContent fileContent;
 
     private UploadedFile uploadedFile;
@@ -140,4 +150,54 @@ class RegexMatchServiceIT {
         assertTrue(savedFile.isPresent());
         assertEquals(user.getUserId(), savedFile.get().getUser().getUserId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void createRegexMatch_shouldStoreLineNumbersOfFirstOccurrence() {
+        regexMatchService.createRegexMatch(uploadedFileId, Set.of(PatternType.EMAIL));
+
+        Map<String, Integer> lineNumbers = regexMatchService.getPatternMatchesByType(uploadedFileId, PatternType.EMAIL)
+                .stream()
+                .collect(Collectors.toMap(PatternMatches::getMatch, PatternMatches::getLineNumber));
+
+        assertEquals(1, lineNumbers.get("ivan.ivanov@example.com"));
+        assertEquals(3, lineNumbers.get("maria_pet@domain.by"));
+        assertEquals(5, lineNumbers.get("support@company.org"));
+    }
+
+    @Test
+    void userScopedOperations_shouldIgnoreForeignFiles() {
+        UUID userId = user.getUserId();
+        UUID strangerId = UUID.randomUUID();
+
+        assertThrows(EntityNotFoundException.class,
+                () -> regexMatchService.createRegexMatch(strangerId, uploadedFileId, Set.of(PatternType.EMAIL)));
+
+        // Каждый вызов - отдельный запрос со своим контекстом персистентности
+        entityManager.flush();
+        entityManager.clear();
+        RegexMatchReadDto created = regexMatchService.createRegexMatch(userId, uploadedFileId, Set.of(PatternType.EMAIL));
+        entityManager.flush();
+        entityManager.clear();
+        // Повторный поиск заменяет прежний результат
+        RegexMatchReadDto replaced = regexMatchService.createRegexMatch(userId, uploadedFileId, Set.of(PatternType.IP));
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(3, created.matchCount());
+        assertTrue(replaced.emailMatches().isEmpty());
+
+        assertTrue(regexMatchService.getRegexMatchByFileId(strangerId, uploadedFileId).isEmpty());
+        assertEquals(replaced.ipMatches(),
+                regexMatchService.getRegexMatchByFileId(userId, uploadedFileId).orElseThrow().ipMatches());
+        assertThrows(EntityNotFoundException.class,
+                () -> regexMatchService.getPatternMatchesByType(strangerId, uploadedFileId, PatternType.IP));
+        assertTrue(regexMatchService.getPatternMatchesByType(userId, uploadedFileId, PatternType.EMAIL).isEmpty());
+
+        assertThrows(EntityNotFoundException.class,
+                () -> regexMatchService.deleteRegexMatch(strangerId, uploadedFileId));
+        regexMatchService.deleteRegexMatch(userId, uploadedFileId);
+        entityManager.flush();
+        entityManager.clear();
+        assertTrue(regexMatchService.getRegexMatchByFileId(userId, uploadedFileId).isEmpty());
+        regexMatchService.deleteRegexMatch(userId, uploadedFileId);
+    }
+}
@@ -0,0 +1,251 @@
+package by.egrius.app.integration.service;
+
+import by.egrius.app.TestUtils;
+import by.egrius.app.config.CacheMetricsConfig;
+import by.egrius.app.entity.FileContent;
+import by.egrius.app.entity.UploadedFile;
+import by.egrius.app.entity.User;
+import by.egrius.app.entity.enums.ContentType;
+import by.egrius.app.entity.enums.PatternType;
+import by.egrius.app.repository.FileAnalysisRepository;
+import by.egrius.app.repository.FileStatsViewRepository;
+import by.egrius.app.repository.RegexMatchRepository;
+import by.egrius.app.repository.UploadedFileRepository;
+import by.egrius.app.repository.UserRepository;
+import by.egrius.app.service.FileAnalysisService;
+import by.egrius.app.service.FileStatsViewService;
+import by.egrius.app.service.PositionalIndexService;
+import by.egrius.app.service.RegexMatchService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Кэш заполняется только закоммиченными данными, поэтому тест работает без общей транзакции
+// и удаляет свои данные сам
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "by.egrius.app.integration.service.SqlStatementCollector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({
+        ServiceTestConfig.class,
+        FileAnalysisService.class,
+        PositionalIndexService.class,
+        FileStatsViewService.class,
+        RegexMatchService.class
+})
+class SecondLevelCacheIT {
+
+    @Autowired
+    private FileAnalysisService fileAnalysisService;
+
+    @Autowired
+    private RegexMatchService regexMatchService;
+
+    @Autowired
+    private PositionalIndexService positionalIndexService;
+
+    @Autowired
+    private UploadedFileRepository uploadedFileRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FileAnalysisRepository fileAnalysisRepository;
+
+    @Autowired
+    private RegexMatchRepository regexMatchRepository;
+
+    @Autowired
+    private FileStatsViewRepository fileStatsViewRepository;
+
+    @Autowired
+    private FileStatsViewService fileStatsViewService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private TransactionTemplate transaction;
+
+    private UUID userId;
+    private String username;
+    private UUID fileId;
+
+    @BeforeEach
+    void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        transaction = new TransactionTemplate(transactionManager);
+
+        String text = "Пишите на support@company.org или admin@company.org, ответим быстро.";
+        transaction.executeWithoutResult(status -> {
+            User user = TestUtils.createTestUser(userRepository, passwordEncoder, UUID.randomUUID().toString().substring(0, 8));
+            UploadedFile file = UploadedFile.builder()
+                    .user(user)
+                    .filename("cache_" + UUID.randomUUID() + ".txt")
+                    .uploadTime(new Timestamp(System.currentTimeMillis()))
+                    .contentType(ContentType.TXT)
+                    .build();
+            file.setFileContent(FileContent.builder().uploadedFile(file).rawText(text).build());
+            uploadedFileRepository.save(file);
+            userId = user.getUserId();
+            username = user.getUsername();
+            fileId = file.getId();
+        });
+        fileAnalysisService.createAnalysis(fileId, 5, false);
+        regexMatchService.createRegexMatch(fileId, Set.of(PatternType.EMAIL));
+        fileStatsViewService.getStats(userId, fileId);
+
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transaction.executeWithoutResult(status -> {
+            positionalIndexService.removeFiles(List.of(fileId));
+            fileStatsViewService.removeFiles(List.of(fileId));
+            userRepository.deleteById(userId);
+        });
+        SqlStatementCollector.clear();
+    }
+
+    @Test
+    void hotFileReads_shouldNotHitDatabaseAfterFirstRequest() {
+        readHotPath();
+        SqlStatementCollector.clear();
+
+        readHotPath();
+
+        assertEquals(0, SqlStatementCollector.getStatements().size(), SqlStatementCollector.getStatements().toString());
+        assertTrue(statistics.getQueryCacheHitCount() >= 1);
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    // Анализ с payload в кэш не попадает: каждое чтение идёт в БД
+    @Test
+    void analysisReads_shouldNotBeCached() {
+        assertTrue(fileAnalysisService.getAnalysisByFileId(fileId).isPresent());
+        SqlStatementCollector.clear();
+
+        assertTrue(fileAnalysisService.getAnalysisByFileId(fileId).isPresent());
+
+        assertFalse(SqlStatementCollector.getStatements().isEmpty());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void cacheMetrics_shouldExportRegionHitsWithoutHibernateStatistics() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        new CacheMetricsConfig().hibernateCacheMetrics(entityManagerFactory).bindTo(registry);
+
+        readHotPath();
+        readHotPath();
+
+        double hits = registry.get("cache.gets").tag("cache", "regexMatch").tag("result", "hit")
+                .functionCounter().count();
+        assertTrue(hits > 0);
+    }
+
+    @Test
+    void deleteRegexMatch_shouldEvictCachedResult() {
+        assertTrue(regexMatchService.getRegexMatchByFileId(fileId).isPresent());
+        assertTrue(regexMatchService.hasRegexMatch(fileId));
+
+        regexMatchService.deleteRegexMatch(fileId);
+
+        assertTrue(regexMatchService.getRegexMatchByFileId(fileId).isEmpty());
+        assertFalse(regexMatchService.hasRegexMatch(fileId));
+    }
+
+    @Test
+    void fileOwnershipCheck_shouldNotOutliveFileDeletion() {
+        assertTrue(uploadedFileRepository.existsByIdAndUser_UserId(fileId, userId));
+        assertFalse(uploadedFileRepository.existsByIdAndUser_UserId(fileId, UUID.randomUUID()));
+
+        transaction.executeWithoutResult(status -> uploadedFileRepository.deleteById(fileId));
+
+        assertFalse(uploadedFileRepository.existsByIdAndUser_UserId(fileId, userId));
+    }
+
+    // Кэш узла не видит записей с других узлов, поэтому проверка владельца и загрузка
+    // пользователя всегда читают БД
+    @Test
+    void ownershipAndUserLookups_shouldBypassQueryCache() {
+        uploadedFileRepository.existsByIdAndUser_UserId(fileId, userId);
+        userRepository.findByUsername(username);
+        uploadedFileRepository.findReadDtoByIdAndUserId(fileId, userId);
+        SqlStatementCollector.clear();
+
+        assertTrue(uploadedFileRepository.existsByIdAndUser_UserId(fileId, userId));
+        assertTrue(userRepository.findByUsername(username).isPresent());
+        assertTrue(uploadedFileRepository.findReadDtoByIdAndUserId(fileId, userId).isPresent());
+
+        assertEquals(3, SqlStatementCollector.getStatements().size(), SqlStatementCollector.getStatements().toString());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+    }
+
+    // /analysis, /regex и /stats проверяют владельца в самом запросе загрузки
+    @Test
+    void userScopedLoaders_shouldBypassQueryCache() {
+        readUserScoped();
+        SqlStatementCollector.clear();
+
+        readUserScoped();
+
+        assertEquals(3, SqlStatementCollector.getStatements().size(), SqlStatementCollector.getStatements().toString());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+
+        transaction.executeWithoutResult(status -> {
+            fileStatsViewService.removeFiles(List.of(fileId));
+            uploadedFileRepository.deleteById(fileId);
+        });
+
+        assertTrue(fileAnalysisRepository.findByFileIdAndUserId(fileId, userId).isEmpty());
+        assertTrue(regexMatchRepository.findByFileIdAndUserId(fileId, userId).isEmpty());
+        assertTrue(fileStatsViewRepository.findByFileIdAndUserId(fileId, userId).isEmpty());
+    }
+
+    private void readUserScoped() {
+        assertTrue(fileAnalysisRepository.findByFileIdAndUserId(fileId, userId).isPresent());
+        assertTrue(regexMatchRepository.findByFileIdAndUserId(fileId, userId).isPresent());
+        assertTrue(fileStatsViewRepository.findByFileIdAndUserId(fileId, userId).isPresent());
+    }
+
+    private void readHotPath() {
+        assertEquals(2L, regexMatchService.getRegexMatchByFileId(fileId).orElseThrow().matchCount());
+    }
+}
@@ -9,6 +9,8 @@ import by.egrius.app.mapper.userMapper.UserUpdateMapper;
 import by.egrius.app.publisher.FileEventPublisher;
 import by.egrius.app.repository.UserRepository;
 import by.egrius.app.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.validation.Validator;
 import org.mockito.Mockito;
 import org.springframework.boot.test.context.TestConfiguration;
@@ -58,6 +60,11 @@ public class ServiceTestConfig {
         );
     }
 */
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
     @Bean
     @Primary
     public FileEventPublisher fileEventPublisher() {
@@ -0,0 +1,30 @@
+package by.egrius.app.integration.service;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Запоминает все SQL-запросы Hibernate, чтобы тесты могли проверить, какие колонки читаются.
+ * Подключается через spring.jpa.properties.hibernate.session_factory.statement_inspector.
+ */
+public class SqlStatementCollector implements StatementInspector {
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    public static void clear() {
+        statements.clear();
+    }
+
+    public static List<String> getStatements() {
+        return new ArrayList<>(statements);
+    }
+}
@@ -0,0 +1,142 @@
+package by.egrius.app.integration.service;
+
+import by.egrius.app.TestUtils;
+import by.egrius.app.dto.fileDTO.UploadedFileReadDto;
+import by.egrius.app.entity.User;
+import by.egrius.app.repository.UserRepository;
+import by.egrius.app.security.UserDetailsCache;
+import by.egrius.app.service.CsvProfileService;
+import by.egrius.app.service.FileSearchIndexService;
+import by.egrius.app.service.FilenameIndexService;
+import by.egrius.app.service.PositionalIndexService;
+import by.egrius.app.service.UploadedFileService;
+import by.egrius.app.service.UserPurgeService;
+import by.egrius.app.service.UserService;
+import by.egrius.app.service.FileStatsViewService;
+import by.egrius.app.service.FileBulkDeleteService;
+import by.egrius.app.text.LanguageDetector;
+import by.egrius.app.text.csv.CsvProfiler;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "by.egrius.app.integration.service.SqlStatementCollector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({
+        ServiceTestConfig.class,
+        UploadedFileService.class,
+        UserService.class,
+        UserDetailsCache.class,
+        UserPurgeService.class,
+        LanguageDetector.class,
+        CsvProfiler.class,
+        CsvProfileService.class,
+        FileSearchIndexService.class,
+        FilenameIndexService.class,
+        PositionalIndexService.class,
+        FileStatsViewService.class,
+        FileBulkDeleteService.class
+})
+class UploadedFileProjectionIT {
+
+    @Autowired
+    private UploadedFileService uploadedFileService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private UUID userId;
+    private UUID fileId;
+
+    @BeforeEach
+    void setup() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = TestUtils.createTestUser(userRepository, passwordEncoder, suffix);
+        userId = user.getUserId();
+
+        fileId = uploadedFileService.uploadFile(new MockMultipartFile(
+                "file",
+                "notes.txt",
+                "text/plain",
+                "first line\nsecond line here".getBytes(StandardCharsets.UTF_8)
+        ), userId).id();
+
+        entityManager.flush();
+        entityManager.clear();
+        SqlStatementCollector.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SqlStatementCollector.clear();
+    }
+
+    @Test
+    void metadataReads_shouldExposeCountsWithoutLoadingText() {
+        UploadedFileReadDto byId = uploadedFileService.showUploadedFileById(userId, fileId);
+        UploadedFileReadDto byName = uploadedFileService.showUploadedFileByFilename("notes.txt", userId);
+        Page<UploadedFileReadDto> page = uploadedFileService.showAllUploadedFilesByUserId(userId, PageRequest.of(0, 10));
+        Page<UploadedFileReadDto> found = uploadedFileService.searchFiles(userId, "note", PageRequest.of(0, 10));
+        List<UploadedFileReadDto> recent = uploadedFileService.getRecentFiles(userId, 5);
+
+        assertEquals(27L, byId.sizeBytes());
+        assertEquals(2L, byId.lineCount());
+        assertEquals(5L, byId.wordCount());
+        assertEquals(fileId, byName.id());
+        assertEquals(1, page.getTotalElements());
+        assertEquals(5L, page.getContent().getFirst().wordCount());
+        assertEquals(1, found.getContent().size());
+        assertEquals(1, recent.size());
+
+        assertMetadataOnly(SqlStatementCollector.getStatements());
+    }
+
+    @Test
+    void checkFileOwnership_shouldNotLoadFileRow() {
+        uploadedFileService.checkFileOwnership(userId, fileId);
+        assertThrows(EntityNotFoundException.class,
+                () -> uploadedFileService.checkFileOwnership(UUID.randomUUID(), fileId));
+
+        List<String> statements = SqlStatementCollector.getStatements();
+        assertEquals(2, statements.size());
+        assertMetadataOnly(statements);
+        statements.forEach(sql -> assertFalse(sql.toLowerCase().contains("file_content"), sql));
+    }
+
+    private static void assertMetadataOnly(List<String> statements) {
+        assertFalse(statements.isEmpty());
+        for (String sql : statements) {
+            String normalized = sql.toLowerCase();
+            assertFalse(normalized.contains("raw_text"), sql);
+            assertFalse(normalized.contains("file_analysis"), sql);
+            assertFalse(normalized.contains("regex_match"), sql);
+            assertFalse(normalized.contains("csv_profile"), sql);
+        }
+    }
+}
@@ -1,17 +1,39 @@
 package by.egrius.app.integration.service;
 
 import by.egrius.app.TestUtils;
+import by.egrius.app.dto.fileDTO.CsvProfileReadDto;
+import by.egrius.app.dto.fileDTO.FileContentReadDto;
+import by.egrius.app.dto.fileDTO.FileLinesReadDto;
+import by.egrius.app.dto.fileDTO.FileListPageDto;
 import by.egrius.app.dto.fileDTO.UploadedFileReadDto;
 import by.egrius.app.entity.*;
+import by.egrius.app.entity.enums.ContentType;
+import by.egrius.app.entity.enums.CsvColumnType;
+import by.egrius.app.entity.enums.Language;
+import by.egrius.app.entity.enums.PatternType;
+import by.egrius.app.repository.CsvProfileRepository;
+import by.egrius.app.repository.FileAnalysisRepository;
+import by.egrius.app.repository.RegexMatchRepository;
 import by.egrius.app.repository.UploadedFileRepository;
 import by.egrius.app.repository.UserRepository;
+import by.egrius.app.security.UserDetailsCache;
+import by.egrius.app.service.CsvProfileService;
+import by.egrius.app.service.FileSearchIndexService;
+import by.egrius.app.service.FilenameIndexService;
+import by.egrius.app.service.PositionalIndexService;
 import by.egrius.app.service.UploadedFileService;
+import by.egrius.app.service.UserPurgeService;
 import by.egrius.app.service.UserService;
+import by.egrius.app.service.FileStatsViewService;
+import by.egrius.app.service.FileBulkDeleteService;
+import by.egrius.app.text.LanguageDetector;
+import by.egrius.app.text.csv.CsvProfiler;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -21,9 +43,15 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.AccessDeniedException;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -34,7 +62,17 @@ import static org.junit.jupiter.api.Assertions.*;
 @Import({
         ServiceTestConfig.class,
         UploadedFileService.class,
-        UserService.class
+        UserService.class,
+        UserDetailsCache.class,
+        UserPurgeService.class,
+        LanguageDetector.class,
+        CsvProfiler.class,
+        CsvProfileService.class,
+        FileSearchIndexService.class,
+        FilenameIndexService.class,
+        PositionalIndexService.class,
+        FileStatsViewService.class,
+        FileBulkDeleteService.class
 })
 class UploadedFileServiceIT {
 
@@ -50,6 +88,21 @@ class UploadedFileServiceIT {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private CsvProfileService csvProfileService;
+
+    @Autowired
+    private FileAnalysisRepository fileAnalysisRepository;
+
+    @Autowired
+    private RegexMatchRepository regexMatchRepository;
+
+    @Autowired
+    private CsvProfileRepository csvProfileRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
     private UUID userId;
     private User user;
 
@@ -138,6 +191,211 @@ class UploadedFileServiceIT {
         assertEquals("file.txt", foundDto.filename());
     }
 
+    @Test
+    void uploadFile_shouldDetectAndStoreLanguage() {
+
+        MultipartFile file = new MockMultipartFile(
+                "file",
+                "russian.txt",
+                "text/plain",
+                "Это обычный текст на русском языке, который нужно проанализировать.".getBytes(StandardCharsets.UTF_8)
+        );
+
+        UploadedFileReadDto dto = uploadedFileService.uploadFile(file, userId);
+
+        FileContentReadDto content = uploadedFileService.getFileContent(userId, dto.id());
+        assertEquals(Language.RU, content.language());
+    }
+
+    @Test
+    void getFileLines_shouldReturnRequestedRange() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 1; i <= 200; i++) {
+            text.append("log entry ").append(i).append('\n');
+        }
+        MultipartFile file = new MockMultipartFile(
+                "file",
+                "server.log",
+                "text/plain",
+                text.toString().getBytes(StandardCharsets.UTF_8)
+        );
+        UUID fileId = uploadedFileService.uploadFile(file, userId).id();
+
+        FileLinesReadDto lines = uploadedFileService.getFileLines(userId, fileId, 100, 102);
+
+        assertEquals(200, lines.totalLines());
+        assertEquals(List.of("log entry 100", "log entry 101", "log entry 102"), lines.lines());
+
+        FileLinesReadDto tail = uploadedFileService.getFileLines(userId, fileId, 199, 250);
+        assertEquals(200, tail.to());
+        assertEquals(List.of("log entry 199", "log entry 200"), tail.lines());
+
+        assertTrue(uploadedFileService.getFileLines(userId, fileId, 300, 310).lines().isEmpty());
+        assertThrows(EntityNotFoundException.class,
+                () -> uploadedFileService.getFileLines(UUID.randomUUID(), fileId, 1, 2));
+    }
+
+    @Test
+    void searchFiles_shouldFindFilenamesBySubstringThroughTrigrams() {
+        for (String name : List.of("Quarterly_Report.txt", "report.txt", "notes.txt", "old-reports.txt")) {
+            uploadedFileService.uploadFile(new MockMultipartFile(
+                    "file", name, "text/plain", "content".getBytes(StandardCharsets.UTF_8)), userId);
+        }
+
+        Page<UploadedFileReadDto> found = uploadedFileService.searchFiles(userId, "REPORT", PageRequest.of(0, 10));
+
+        assertEquals(3, found.getTotalElements());
+        // Совпадение с начала имени и более короткие имена идут первыми
+        assertEquals(List.of("report.txt", "old-reports.txt", "Quarterly_Report.txt"),
+                found.getContent().stream().map(UploadedFileReadDto::filename).toList());
+
+        assertEquals(1, uploadedFileService.searchFiles(userId, "y_r", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(0, uploadedFileService.searchFiles(userId, "xyz", PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void searchFiles_withShortKeyword_shouldFallBackToLike() {
+        uploadedFileService.uploadFile(new MockMultipartFile(
+                "file", "a1.txt", "text/plain", "content".getBytes(StandardCharsets.UTF_8)), userId);
+        uploadedFileService.uploadFile(new MockMultipartFile(
+                "file", "b2.txt", "text/plain", "content".getBytes(StandardCharsets.UTF_8)), userId);
+
+        Page<UploadedFileReadDto> found = uploadedFileService.searchFiles(userId, "A1", PageRequest.of(0, 10));
+
+        assertEquals(List.of("a1.txt"), found.getContent().stream().map(UploadedFileReadDto::filename).toList());
+    }
+
+    @Test
+    void keysetPages_shouldWalkAllFilesWithoutGapsOrDuplicates() {
+        List<String> names = List.of("report_1.txt", "report_2.txt", "notes.txt", "report_3.txt", "report_4.csv");
+        for (String name : names) {
+            uploadedFileService.uploadFile(new MockMultipartFile(
+                    "file", name, "text/plain", "content".getBytes(StandardCharsets.UTF_8)), userId);
+        }
+
+        List<String> listed = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            FileListPageDto page = uploadedFileService.showUploadedFilesPage(userId, cursor, 2, false);
+            assertNull(page.totalElements());
+            page.content().forEach(file -> listed.add(file.filename()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(Set.copyOf(names), Set.copyOf(listed));
+        assertEquals(names.size(), listed.size());
+
+        FileListPageDto found = uploadedFileService.searchFilesPage(userId, "REPORT", null, 3, true);
+        assertEquals(4L, found.totalElements());
+        assertEquals(3, found.content().size());
+        FileListPageDto rest = uploadedFileService.searchFilesPage(userId, "REPORT", found.nextCursor(), 3, false);
+        assertEquals(1, rest.content().size());
+        assertNull(rest.nextCursor());
+
+        FileListPageDto csv = uploadedFileService.filterByContentTypePage(userId, "csv", null, 10, true);
+        assertEquals(List.of("report_4.csv"), csv.content().stream().map(UploadedFileReadDto::filename).toList());
+        assertEquals(1L, csv.totalElements());
+    }
+
+    @Test
+    void keysetPages_shouldRejectBrokenCursorAndLimit() {
+        assertThrows(IllegalArgumentException.class,
+                () -> uploadedFileService.showUploadedFilesPage(userId, "not-a-cursor", 10, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> uploadedFileService.showUploadedFilesPage(userId, null, 0, false));
+    }
+
+    @Test
+    void removeFiles_shouldDeleteFilesWithDerivedDataInBulk() throws AccessDeniedException {
+        UploadedFileReadDto text = uploadedFileService.uploadFile(new MockMultipartFile(
+                "file", "bulk_text.txt", "text/plain", "alpha beta".getBytes(StandardCharsets.UTF_8)), userId);
+        UploadedFileReadDto csv = uploadedFileService.uploadFile(new MockMultipartFile(
+                "file", "bulk_table.csv", "text/csv", "id,amount\n1,2\n".getBytes(StandardCharsets.UTF_8)), userId);
+        UploadedFileReadDto kept = uploadedFileService.uploadFile(new MockMultipartFile(
+                "file", "bulk_kept.txt", "text/plain", "gamma".getBytes(StandardCharsets.UTF_8)), userId);
+
+        // Анализ старого формата с коллекциями и regex-результат с вхождениями
+        UploadedFile textFile = uploadedFileRepository.findById(text.id()).orElseThrow();
+        fileAnalysisRepository.save(FileAnalysis.builder()
+                .uploadedFile(textFile)
+                .topWords(new HashMap<>(Map.of("alpha", 1L)))
+                .startsWithMap(new HashMap<>(Map.of('a', 1L)))
+                .punctuationMap(new HashMap<>())
+                .wordLengthMap(new HashMap<>(Map.of("alpha", 5)))
+                .stopWordsExcluded(false)
+                .build());
+        RegexMatch regexMatch = RegexMatch.builder().uploadedFile(textFile).totalMatches(1L).build();
+        regexMatch.setPatternMatches(new ArrayList<>(List.of(PatternMatches.builder()
+                .patternType(PatternType.EMAIL)
+                .match("a@b.c")
+                .lineNumber(1)
+                .regexMatch(regexMatch)
+                .build())));
+        regexMatchRepository.save(regexMatch);
+        entityManager.flush();
+        entityManager.clear();
+
+        int deleted = uploadedFileService.removeFiles(userId, "1234",
+                List.of(text.id(), csv.id(), UUID.randomUUID()), null);
+        entityManager.clear();
+
+        assertEquals(2, deleted);
+        assertTrue(uploadedFileRepository.findById(text.id()).isEmpty());
+        assertTrue(uploadedFileRepository.findById(csv.id()).isEmpty());
+        assertTrue(fileAnalysisRepository.findByUploadedFile_Id(text.id()).isEmpty());
+        assertTrue(regexMatchRepository.findByUploadedFileId(text.id()).isEmpty());
+        assertTrue(csvProfileRepository.findWithColumnsByFileId(csv.id()).isEmpty());
+        assertTrue(uploadedFileService.searchFiles(userId, "bulk", PageRequest.of(0, 10)).getContent().stream()
+                .allMatch(file -> file.id().equals(kept.id())));
+        assertEquals(1L, uploadedFileService.countFilesByUserId(userId));
+    }
+
+    @Test
+    void removeFiles_byUploadTime_shouldDeleteOnlyOlderFiles() throws AccessDeniedException {
+        uploadedFileService.uploadFile(new MockMultipartFile(
+                "file", "old.txt", "text/plain", "content".getBytes(StandardCharsets.UTF_8)), userId);
+
+        assertEquals(0, uploadedFileService.removeFiles(userId, "1234", null, Instant.now().minusSeconds(3600)));
+        assertEquals(1, uploadedFileService.removeFiles(userId, "1234", null, Instant.now().plusSeconds(1)));
+        assertEquals(0L, uploadedFileService.countFilesByUserId(userId));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> uploadedFileService.removeFiles(userId, "1234", null, null));
+        assertThrows(AccessDeniedException.class,
+                () -> uploadedFileService.removeFiles(userId, "wrong_password", List.of(UUID.randomUUID()), null));
+    }
+
+    @Test
+    void uploadCsvFile_shouldStoreColumnStatistics() {
+
+        MultipartFile file = new MockMultipartFile(
+                "file",
+                "orders.csv",
+                "text/csv",
+                "id,amount,comment\n1,10.5,\"first, with comma\"\n2,20,\n3,-4.5,last\n".getBytes(StandardCharsets.UTF_8)
+        );
+
+        UploadedFileReadDto dto = uploadedFileService.uploadFile(file, userId);
+        assertEquals(ContentType.CSV, dto.contentType());
+
+        CsvProfileReadDto profile = csvProfileService.getProfileByFileId(dto.id()).orElseThrow();
+        assertEquals(3L, profile.rowCount());
+        assertEquals(3, profile.columns().size());
+
+        assertEquals("id", profile.columns().get(0).name());
+        assertEquals(CsvColumnType.INTEGER, profile.columns().get(0).type());
+
+        assertEquals(CsvColumnType.DECIMAL, profile.columns().get(1).type());
+        assertEquals(-4.5, profile.columns().get(1).min());
+        assertEquals(20.0, profile.columns().get(1).max());
+
+        assertEquals(CsvColumnType.STRING, profile.columns().get(2).type());
+        assertEquals(1L, profile.columns().get(2).nullCount());
+    }
+
     @Test
     void showAllUploadedFilesByUserId_shouldReturnPage() {
 
@@ -1,32 +1,58 @@
 package by.egrius.app.integration.service;
 
+import by.egrius.app.TestUtils;
 import by.egrius.app.dto.userDTO.UserCreateDto;
 import by.egrius.app.dto.userDTO.UserReadDto;
 import by.egrius.app.dto.userDTO.UserUpdateDto;
+import by.egrius.app.entity.UploadedFile;
 import by.egrius.app.entity.User;
+import by.egrius.app.entity.UserPurge;
+import by.egrius.app.entity.enums.ContentType;
+import by.egrius.app.publisher.FileEventPublisher;
+import by.egrius.app.repository.UploadedFileRepository;
+import by.egrius.app.repository.UserPurgeRepository;
 import by.egrius.app.repository.UserRepository;
+import by.egrius.app.security.UserDetailsCache;
+import by.egrius.app.security.UserPrincipal;
+import by.egrius.app.service.FileSearchIndexService;
+import by.egrius.app.service.FilenameIndexService;
+import by.egrius.app.service.PositionalIndexService;
+import by.egrius.app.service.UserPurgeService;
 import by.egrius.app.service.UserService;
+import by.egrius.app.service.FileStatsViewService;
+import by.egrius.app.service.FileBulkDeleteService;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
-@DataJpaTest
+@DataJpaTest(properties = "user.purge.batch-size=2")
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 @ActiveProfiles("test")
 @Import({
         ServiceTestConfig.class,
-        UserService.class
+        UserService.class,
+        UserDetailsCache.class,
+        UserPurgeService.class,
+        FileSearchIndexService.class,
+        FilenameIndexService.class,
+        PositionalIndexService.class,
+        FileStatsViewService.class,
+        FileBulkDeleteService.class
 })
 class UserServiceIT {
 
@@ -39,6 +65,24 @@ class UserServiceIT {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserPurgeService userPurgeService;
+
+    @Autowired
+    private UserPurgeRepository userPurgeRepository;
+
+    @Autowired
+    private UploadedFileRepository uploadedFileRepository;
+
+    @Autowired
+    private FileEventPublisher fileEventPublisher;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
     @Test
     void getUserByUsername_ShouldReturnCorrectUser() {
         String nameToFindUser = "TestToFind";
@@ -149,6 +193,44 @@ class UserServiceIT {
         assertTrue(passwordEncoder.matches(oldPassword, updated.getPassword()));
     }
 
+    @Test
+    void loadUserByUsername_shouldDropCachedSnapshotOnUpdate() {
+        User user = TestUtils.createTestUser(userRepository, passwordEncoder, "cache");
+        UserPrincipal before = (UserPrincipal) userService.loadUserByUsername(user.getUsername());
+        assertEquals(0L, before.getSecurityVersion());
+
+        TestUtils.setupSecurityContext(user);
+        try {
+            userService.updateUser(user.getUserId(), new UserUpdateDto("CachedRenamed", null, "new-password"));
+        } finally {
+            TestUtils.clearSecurityContext();
+        }
+
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername(before.getUsername()));
+        UserPrincipal after = (UserPrincipal) userService.loadUserByUsername("CachedRenamed");
+        assertEquals(1L, after.getSecurityVersion());
+        assertTrue(passwordEncoder.matches("new-password", after.getPassword()));
+    }
+
+    @Test
+    void userDetailsCache_shouldLoadCurrentRowWhenEntityIsStale() {
+        User user = TestUtils.createTestUser(userRepository, passwordEncoder, "stale");
+        userRepository.findById(user.getUserId()).orElseThrow();
+
+        // Другой узел меняет пароль: сущность в сессии остаётся со старыми значениями
+        entityManager.getEntityManager()
+                .createQuery("UPDATE User u SET u.password = :password, " +
+                        "u.securityVersion = u.securityVersion + 1 WHERE u.userId = :userId")
+                .setParameter("password", passwordEncoder.encode("changed"))
+                .setParameter("userId", user.getUserId())
+                .executeUpdate();
+        userDetailsCache.evict(user.getUsername());
+
+        UserPrincipal principal = userDetailsCache.get(user.getUsername()).orElseThrow();
+        assertEquals(1L, principal.getSecurityVersion());
+        assertTrue(passwordEncoder.matches("changed", principal.getPassword()));
+    }
+
     @Test
     void delete_ShouldDeleteUserFromDatabase() {
 
@@ -172,8 +254,54 @@ class UserServiceIT {
 
         userService.deleteUser(userToDelete.getUserId(), rawPasswordToDelete);
 
+        assertNotNull(userRepository.findById(idToDelete).orElseThrow().getDeletedAt());
+        assertTrue(userPurgeRepository.existsById(idToDelete));
+
+        userPurgeService.purgeAll();
+        entityManager.clear();
+
         Optional<User> deletedUser = userRepository.findById(idToDelete);
         assertTrue(deletedUser.isEmpty());
+        assertFalse(userPurgeRepository.existsById(idToDelete));
+    }
+
+    @Test
+    void purge_shouldRemoveFilesInBatchesAndTrackProgress() {
+        User user = userRepository.save(User.builder()
+                .username("PurgeInBatches")
+                .email("purge@example.com")
+                .password(passwordEncoder.encode("1234"))
+                .createdAt(LocalDate.now())
+                .build());
+        UUID userId = user.getUserId();
+        for (int i = 0; i < 3; i++) {
+            uploadedFileRepository.save(UploadedFile.builder()
+                    .user(user)
+                    .filename("purge_" + i + ".txt")
+                    .uploadTime(new Timestamp(System.currentTimeMillis()))
+                    .contentType(ContentType.TXT)
+                    .build());
+        }
+
+        userService.deleteUser(userId, "1234");
+        entityManager.flush();
+
+        assertTrue(userPurgeService.purgeBatch());
+        entityManager.clear();
+        UserPurge progress = userPurgeRepository.findById(userId).orElseThrow();
+        assertEquals(3L, progress.getFilesTotal());
+        assertEquals(2L, progress.getFilesPurged());
+        assertTrue(userRepository.findById(userId).isPresent());
+
+        // Оставшийся файл и завершающая пачка с удалением самого пользователя
+        assertEquals(2, userPurgeService.purgeAll());
+        entityManager.clear();
+
+        assertEquals(0L, uploadedFileRepository.countByUser_UserId(userId));
+        assertTrue(userRepository.findById(userId).isEmpty());
+        assertTrue(userPurgeRepository.findById(userId).isEmpty());
+        verify(fileEventPublisher).publishDeleted(argThat(ids -> ids.size() == 2), eq(userId));
+        verify(fileEventPublisher).publishDeleted(argThat(ids -> ids.size() == 1), eq(userId));
     }
 
     @Test
@@ -0,0 +1,37 @@
+package by.egrius.app.unit.event;
+
+import by.egrius.app.event.ProgressTracker;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgressTrackerUnitTest {
+
+    @Test
+    void update_shouldReportOncePerStepAndSkipCompletion() {
+        List<Integer> reported = new ArrayList<>();
+        ProgressTracker tracker = new ProgressTracker(1000, 25, reported::add);
+
+        for (int done = 1; done <= 1000; done++) {
+            tracker.update(done);
+        }
+
+        // 100% сообщает сама задача после сохранения результата
+        assertEquals(List.of(25, 50, 75), reported);
+    }
+
+    @Test
+    void update_shouldRoundDownToStepOnJumps() {
+        List<Integer> reported = new ArrayList<>();
+        ProgressTracker tracker = new ProgressTracker(100, 10, reported::add);
+
+        tracker.update(37);
+        tracker.update(38);
+        tracker.update(52);
+
+        assertEquals(List.of(30, 50), reported);
+    }
+}
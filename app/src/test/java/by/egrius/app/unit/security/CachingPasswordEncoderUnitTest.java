@@ -0,0 +1,54 @@
+package by.egrius.app.unit.security;
+
+import by.egrius.app.security.CachingPasswordEncoder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingPasswordEncoderUnitTest {
+
+    private static final String HASH = "$2a$10$hash";
+
+    private PasswordEncoder delegate;
+    private CachingPasswordEncoder encoder;
+
+    @BeforeEach
+    void setup() {
+        delegate = mock(PasswordEncoder.class);
+        when(delegate.matches("1234", HASH)).thenReturn(true);
+        encoder = new CachingPasswordEncoder(delegate, Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    void matches_shouldVerifyWithDelegateOnlyOnce() {
+        assertTrue(encoder.matches("1234", HASH));
+        assertTrue(encoder.matches("1234", HASH));
+        assertTrue(encoder.matches("1234", HASH));
+
+        verify(delegate, times(1)).matches("1234", HASH);
+    }
+
+    @Test
+    void matches_shouldNotCacheFailuresOrAcceptOtherPassword() {
+        assertTrue(encoder.matches("1234", HASH));
+
+        assertFalse(encoder.matches("wrong", HASH));
+        assertFalse(encoder.matches("wrong", HASH));
+
+        verify(delegate, times(2)).matches("wrong", HASH);
+    }
+
+    @Test
+    void evict_shouldForceVerificationAgain() {
+        assertTrue(encoder.matches("1234", HASH));
+        encoder.evict(HASH);
+        when(delegate.matches("1234", HASH)).thenReturn(false);
+
+        assertFalse(encoder.matches("1234", HASH));
+    }
+}
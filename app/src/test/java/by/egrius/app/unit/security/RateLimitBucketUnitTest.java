@@ -0,0 +1,57 @@
+package by.egrius.app.unit.security;
+
+import by.egrius.app.security.RateLimitBucket;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitBucketUnitTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryAcquire_shouldAllowBurstThenWaitForRefill() {
+        RateLimitBucket bucket = new RateLimitBucket(3, 2.0, 10, 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+
+        // Пополнение 2 в секунду: следующий токен через полсекунды
+        assertEquals(SECOND / 2, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(SECOND / 2));
+        assertTrue(bucket.tryAcquire(SECOND / 2) > 0);
+    }
+
+    @Test
+    void tryAcquire_shouldNotAccumulateMoreThanCapacity() {
+        RateLimitBucket bucket = new RateLimitBucket(2, 1.0, 10, 0);
+        long later = 100 * SECOND;
+
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertTrue(bucket.tryAcquire(later) > 0);
+    }
+
+    @Test
+    void tryEnter_shouldCapInFlightUntilExit() {
+        RateLimitBucket bucket = new RateLimitBucket(10, 1.0, 2, 0);
+
+        assertTrue(bucket.tryEnter());
+        assertTrue(bucket.tryEnter());
+        assertFalse(bucket.tryEnter());
+
+        bucket.exit();
+        assertEquals(1, bucket.inFlight());
+        assertTrue(bucket.tryEnter());
+    }
+
+    @Test
+    void constructor_shouldRejectBrokenLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitBucket(0, 1.0, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitBucket(1, 0, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitBucket(1, 1.0, 0, 0));
+    }
+}
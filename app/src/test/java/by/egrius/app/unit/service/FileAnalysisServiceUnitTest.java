@@ -11,12 +11,18 @@ import by.egrius.app.publisher.FileEventPublisher;
 import by.egrius.app.repository.FileAnalysisRepository;
 import by.egrius.app.repository.UploadedFileRepository;
 import by.egrius.app.service.FileAnalysisService;
+import by.egrius.app.service.PositionalIndexService;
+import by.egrius.app.service.FileStatsViewService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -38,6 +44,15 @@ class FileAnalysisServiceUnitTest {
     @Mock
     private FileAnalysisReadMapper fileAnalysisReadMapper;
 
+    @Mock
+    private PositionalIndexService positionalIndexService;
+
+    @Mock
+    private FileStatsViewService fileStatsViewService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private FileAnalysisService fileAnalysisService;
 
@@ -68,8 +83,8 @@ class FileAnalysisServiceUnitTest {
         System.out.println("Punctuation:");
         printFormattedMap(result.punctuationMap());
 
-        System.out.println("Words length map:");
-        printFormattedMap(result.wordLengthMap());
+        System.out.println("Words length histogram:");
+        printFormattedMap(result.wordLengthHistogram());
 
         // Проверка: исключены стоп-слова
         assertFalse(result.topWords().containsKey("и"));
@@ -92,10 +107,12 @@ class FileAnalysisServiceUnitTest {
         assertEquals(2L, result.startsWithMap().get('т')); // тестовый, текст
         assertEquals(1L, result.startsWithMap().get('е')); // ещё
 
-        // Проверка: длина слов
-        assertEquals(6, result.wordLengthMap().get("привет"));
-        assertEquals(8, result.wordLengthMap().get("тестовый"));
-        assertEquals(5, result.wordLengthMap().get("текст"));
+        // Проверка: длина слов - гистограмма по словарю, карта слов только по запросу
+        assertEquals(1L, result.wordLengthHistogram().get(6)); // привет
+        assertEquals(1L, result.wordLengthHistogram().get(8)); // тестовый
+        assertEquals(1L, result.wordLengthHistogram().get(5)); // текст
+        assertEquals("тестовый", result.longestWords().getFirst());
+        assertNull(result.wordLengthMap());
 
         // Проверка: флаг стоп-слов
         assertTrue(result.stopWordsExcluded());
@@ -229,7 +246,10 @@ class FileAnalysisServiceUnitTest {
                 Map.of("test", 1L),
                 Map.of(),
                 Map.of(),
-                Map.of(),
+                Map.of(4, 1L),
+                List.of("test"),
+                List.of("test"),
+                null,
                 true
         );
 
@@ -361,4 +381,23 @@ class FileAnalysisServiceUnitTest {
         assertEquals(4L, result.topWords().get("четыре"));
         assertEquals(3L, result.topWords().get("три"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void createAnalysis_shouldPublishErrorWhenFailingAfterParseStart() {
+
+        UUID fileId = UUID.randomUUID();
+        UploadedFile mockFile = UploadedFile.builder()
+                .id(fileId)
+                .fileContent(FileContent.builder().rawText("   ").build())
+                .build();
+
+        when(uploadedFileRepository.findWithFileAnalysisById(fileId)).thenReturn(Optional.of(mockFile));
+
+        assertThrows(IllegalStateException.class,
+                () -> fileAnalysisService.createAnalysis(fileId, 5, true));
+
+        verify(fileEventPublisher).publish(FileEventType.PARSE_START, fileId);
+        verify(fileEventPublisher).publishError(fileId);
+        verify(fileEventPublisher, never()).publish(FileEventType.PARSE_END, fileId);
+    }
+}
@@ -0,0 +1,76 @@
+package by.egrius.app.unit.service;
+
+import by.egrius.app.service.FileEventLogPartitionMaintainer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FileEventLogPartitionMaintainerUnitTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private FileEventLogPartitionMaintainer maintainer;
+
+    @BeforeEach
+    void setup() {
+        ReflectionTestUtils.setField(maintainer, "weeksAhead", 0);
+        ReflectionTestUtils.setField(maintainer, "retentionWeeks", 12);
+        ReflectionTestUtils.setField(maintainer, "transactionTemplate", new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    void maintain_shouldMoveRowsOutOfDefaultPartitionForMissedWeek() {
+        when(jdbcTemplate.queryForObject(contains("to_regclass"), eq(Boolean.class))).thenReturn(false);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class))).thenReturn(true);
+        when(jdbcTemplate.update(anyString())).thenReturn(3);
+
+        ReflectionTestUtils.invokeMethod(maintainer, "maintain");
+
+        InOrder order = inOrder(jdbcTemplate, transactionManager);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(jdbcTemplate).execute("ALTER TABLE file_event_log DETACH PARTITION file_event_log_default");
+        order.verify(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS file_event_log_p"));
+        order.verify(jdbcTemplate).update(startsWith("INSERT INTO file_event_log_p"));
+        order.verify(jdbcTemplate).update(startsWith("DELETE FROM file_event_log_default WHERE"));
+        order.verify(jdbcTemplate).execute("ALTER TABLE file_event_log ATTACH PARTITION file_event_log_default DEFAULT");
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void maintain_shouldCreatePartitionDirectlyWhenDefaultHasNoRowsForWeek() {
+        when(jdbcTemplate.queryForObject(contains("to_regclass"), eq(Boolean.class))).thenReturn(false);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class))).thenReturn(false);
+
+        ReflectionTestUtils.invokeMethod(maintainer, "maintain");
+
+        verify(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS file_event_log_p"));
+        verify(jdbcTemplate, never()).execute(contains("DETACH"));
+        verify(jdbcTemplate, never()).update(anyString());
+    }
+
+    @Test
+    void maintain_shouldSkipExistingPartition() {
+        when(jdbcTemplate.queryForObject(contains("to_regclass"), eq(Boolean.class))).thenReturn(true);
+
+        ReflectionTestUtils.invokeMethod(maintainer, "maintain");
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verifyNoInteractions(transactionManager);
+    }
+}
@@ -0,0 +1,117 @@
+package by.egrius.app.unit.service;
+
+import by.egrius.app.entity.FileEventLog;
+import by.egrius.app.entity.enums.FileEventType;
+import by.egrius.app.event.FileEvent;
+import by.egrius.app.repository.FileEventLogRepository;
+import by.egrius.app.service.FileEventLogService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FileEventLogServiceUnitTest {
+
+    @Mock
+    private FileEventLogRepository fileEventLogRepository;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private FileEventLogService fileEventLogService;
+
+    @BeforeEach
+    void setup() {
+        ReflectionTestUtils.setField(fileEventLogService, "bufferSize", 16);
+        ReflectionTestUtils.setField(fileEventLogService, "batchSize", 10);
+        ReflectionTestUtils.setField(fileEventLogService, "flushIntervalMillis", 10L);
+        ReflectionTestUtils.setField(fileEventLogService, "overflowPolicy", FileEventLogService.OverflowPolicy.DROP);
+        ReflectionTestUtils.setField(fileEventLogService, "offerTimeoutMillis", 10L);
+    }
+
+    @Test
+    void log_shouldWriteEventsInBatchesOffCallerThread() {
+        List<FileEventLog> saved = new ArrayList<>();
+        List<Integer> batchSizes = new ArrayList<>();
+        when(fileEventLogRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<FileEventLog> batch = invocation.getArgument(0);
+            batchSizes.add(batch.size());
+            saved.addAll(batch);
+            return batch;
+        });
+
+        ReflectionTestUtils.invokeMethod(fileEventLogService, "start");
+        for (int i = 0; i < 12; i++) {
+            fileEventLogService.log(event(FileEventType.PARSE_START));
+        }
+        ReflectionTestUtils.invokeMethod(fileEventLogService, "stop");
+
+        batchSizes.forEach(size -> assertTrue(size <= 10));
+        assertEquals(12, saved.size());
+
+        assertEquals(12, count("file.events.accepted"));
+        assertEquals(12, count("file.events.written"));
+        assertEquals(0, count("file.events.dropped"));
+    }
+
+    @Test
+    void log_shouldCountDroppedEventsWhenBufferOverflows() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(fileEventLogRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return invocation.getArgument(0);
+        });
+
+        ReflectionTestUtils.invokeMethod(fileEventLogService, "start");
+        fileEventLogService.log(event(FileEventType.UPLOAD));
+        writing.await();
+        // Поток записи занят первой пачкой, буфер на 16 событий переполняется
+        for (int i = 0; i < 20; i++) {
+            fileEventLogService.log(event(FileEventType.PARSE_START));
+        }
+        release.countDown();
+        ReflectionTestUtils.invokeMethod(fileEventLogService, "stop");
+
+        assertEquals(4, count("file.events.dropped"));
+        assertEquals(17, count("file.events.accepted"));
+        assertEquals(17, count("file.events.written"));
+    }
+
+    @Test
+    void log_shouldIgnoreIncompleteEvents() {
+        ReflectionTestUtils.invokeMethod(fileEventLogService, "start");
+        fileEventLogService.log(null);
+        fileEventLogService.log(new FileEvent(this, null, FileEventType.UPLOAD, new Timestamp(0)));
+        ReflectionTestUtils.invokeMethod(fileEventLogService, "stop");
+
+        verifyNoInteractions(fileEventLogRepository);
+        assertEquals(0, count("file.events.accepted"));
+    }
+
+    private double count(String name) {
+        return meterRegistry.get(name).functionCounter().count();
+    }
+
+    private FileEvent event(FileEventType type) {
+        return new FileEvent(this, UUID.randomUUID(), type, new Timestamp(System.currentTimeMillis()));
+    }
+}
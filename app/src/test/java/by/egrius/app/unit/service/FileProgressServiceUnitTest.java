@@ -0,0 +1,149 @@
+package by.egrius.app.unit.service;
+
+import by.egrius.app.dto.fileDTO.FileProgressSnapshotDto;
+import by.egrius.app.entity.enums.FileEventType;
+import by.egrius.app.event.FileEvent;
+import by.egrius.app.event.FileProgressEvent;
+import by.egrius.app.exception.ServiceOverloadedException;
+import by.egrius.app.service.FileProgressService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileProgressServiceUnitTest {
+
+    private final Queue<SseEmitter> emitters = new ConcurrentLinkedQueue<>();
+    private FileProgressService fileProgressService;
+
+    @BeforeEach
+    void setup() {
+        fileProgressService = new FileProgressService() {
+            @Override
+            protected SseEmitter createEmitter(long timeoutMillis) {
+                return emitters.remove();
+            }
+        };
+        ReflectionTestUtils.setField(fileProgressService, "timeoutMillis", 60_000L);
+        ReflectionTestUtils.setField(fileProgressService, "heartbeatMillis", 60_000L);
+        ReflectionTestUtils.setField(fileProgressService, "maxSubscribers", 2);
+        ReflectionTestUtils.setField(fileProgressService, "senderThreads", 2);
+        ReflectionTestUtils.setField(fileProgressService, "maxQueuedEvents", 4);
+        ReflectionTestUtils.invokeMethod(fileProgressService, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(fileProgressService, "stop");
+    }
+
+    @Test
+    void onProgress_shouldNotWaitForSlowSubscriber() throws InterruptedException {
+        UUID fileId = UUID.randomUUID();
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = subscribe(fileId, release);
+        RecordingEmitter fast = subscribe(fileId, null);
+
+        fileProgressService.onProgress(new FileProgressEvent(this, fileId, FileProgressEvent.Job.ANALYSIS, 50));
+
+        assertNotNull(fast.sent.poll(5, TimeUnit.SECONDS), "SNAPSHOT");
+        assertNotNull(fast.sent.poll(5, TimeUnit.SECONDS), "PROGRESS");
+        assertTrue(slow.sent.isEmpty());
+
+        release.countDown();
+        assertNotNull(slow.sent.poll(5, TimeUnit.SECONDS));
+        assertNotNull(slow.sent.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void subscribe_shouldRejectOverLimitWithRetryAfter() {
+        subscribe(UUID.randomUUID(), null);
+        subscribe(UUID.randomUUID(), null);
+
+        ServiceOverloadedException e = assertThrows(ServiceOverloadedException.class,
+                () -> fileProgressService.subscribe(UUID.randomUUID(), this::emptySnapshot));
+
+        assertTrue(e.getRetryAfterSeconds() > 0);
+        assertEquals(2, fileProgressService.getSubscriberCount());
+    }
+
+    @Test
+    void onProgress_shouldDropSubscriberWhoseQueueOverflows() throws InterruptedException {
+        UUID fileId = UUID.randomUUID();
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = subscribe(fileId, release);
+
+        for (int percent = 0; percent < 10; percent++) {
+            fileProgressService.onProgress(new FileProgressEvent(this, fileId, FileProgressEvent.Job.REGEX, percent));
+        }
+
+        assertEquals(0, fileProgressService.getSubscriberCount());
+        release.countDown();
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+        assertTrue(slow.sent.size() <= 1);
+    }
+
+    @Test
+    void onFileEvent_shouldCompleteStreamAfterDeleted() throws InterruptedException {
+        UUID fileId = UUID.randomUUID();
+        RecordingEmitter emitter = subscribe(fileId, null);
+
+        fileProgressService.onFileEvent(new FileEvent(this, fileId, FileEventType.DELETED, Timestamp.from(Instant.now())));
+
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(2, emitter.sent.size());
+    }
+
+    private RecordingEmitter subscribe(UUID fileId, CountDownLatch release) {
+        RecordingEmitter emitter = new RecordingEmitter(release);
+        emitters.add(emitter);
+        fileProgressService.subscribe(fileId, this::emptySnapshot);
+        return emitter;
+    }
+
+    private FileProgressSnapshotDto emptySnapshot() {
+        return new FileProgressSnapshotDto(false, false);
+    }
+
+    // Эмиттер без HTTP-ответа: запоминает события, send может ждать, как запись медленному клиенту
+    private static class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<SseEventBuilder> sent = new LinkedBlockingQueue<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            sent.add(builder);
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+}
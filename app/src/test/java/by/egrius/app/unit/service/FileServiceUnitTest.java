@@ -8,15 +8,27 @@ import by.egrius.app.entity.User;
 import by.egrius.app.entity.enums.ContentType;
 import by.egrius.app.mapper.fileMapper.UploadedFileReadMapper;
 import by.egrius.app.publisher.FileEventPublisher;
+import by.egrius.app.repository.FileContentRepository;
 import by.egrius.app.repository.UploadedFileRepository;
 import by.egrius.app.repository.UserRepository;
+import by.egrius.app.security.UserPrincipal;
+import by.egrius.app.service.FileSearchIndexService;
+import by.egrius.app.service.FilenameIndexService;
+import by.egrius.app.service.PositionalIndexService;
 import by.egrius.app.service.UploadedFileService;
 import by.egrius.app.service.UserService;
+import by.egrius.app.service.FileStatsViewService;
+import by.egrius.app.service.FileBulkDeleteService;
+import by.egrius.app.text.LanguageDetector;
+import by.egrius.app.text.csv.CsvProfiler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -61,6 +73,33 @@ class FileServiceUnitTest {
     @Mock
     private FileEventPublisher fileEventPublisher;
 
+    @Mock
+    private LanguageDetector languageDetector;
+
+    @Mock
+    private CsvProfiler csvProfiler;
+
+    @Mock
+    private FileContentRepository fileContentRepository;
+
+    @Mock
+    private FileSearchIndexService fileSearchIndexService;
+
+    @Mock
+    private FilenameIndexService filenameIndexService;
+
+    @Mock
+    private PositionalIndexService positionalIndexService;
+
+    @Mock
+    private FileStatsViewService fileStatsViewService;
+
+    @Mock
+    private FileBulkDeleteService fileBulkDeleteService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private UploadedFileService fileService;
 
@@ -112,7 +151,7 @@ class FileServiceUnitTest {
         verify(userRepository).findById(user.getUserId());
         verify(uploadedFileRepository).save(any(UploadedFile.class));
         verify(uploadedFileReadMapper).map(any(UploadedFile.class));
-        verify(fileEventPublisher).publishUpload(fileId);
+        verify(fileEventPublisher).publishUpload(fileId, user.getUserId());
     }
 
     @Test
@@ -215,8 +254,7 @@ class FileServiceUnitTest {
                 uploadedFile.getContentType()
         );
 
-        when(uploadedFileRepository.findByFileIdAndUserId(any(UUID.class), any(UUID.class))).thenReturn(Optional.of(uploadedFile));
-        when(uploadedFileReadMapper.map(any(UploadedFile.class))).thenReturn(expectedFileDto);
+        when(uploadedFileRepository.findReadDtoByIdAndUserId(any(UUID.class), any(UUID.class))).thenReturn(Optional.of(expectedFileDto));
 
         UploadedFileReadDto actualResult = fileService.showUploadedFileById(expectedFileUUID, expectedUserUUID);
 
@@ -229,7 +267,7 @@ class FileServiceUnitTest {
         UUID wrongUserId = UUID.randomUUID();
         UUID fileId = UUID.randomUUID();
 
-        when(uploadedFileRepository.findByFileIdAndUserId(fileId, wrongUserId))
+        when(uploadedFileRepository.findReadDtoByIdAndUserId(fileId, wrongUserId))
                 .thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class,
@@ -253,10 +291,9 @@ class FileServiceUnitTest {
                 file.getId(), file.getFilename(), file.getUploadTime(), file.getContentType()
         );
 
-        Page<UploadedFile> page = new PageImpl<>(List.of(file), pageable, 1);
+        Page<UploadedFileReadDto> page = new PageImpl<>(List.of(dto), pageable, 1);
 
-        when(uploadedFileRepository.findAllFilesByUserId(userId, pageable)).thenReturn(page);
-        when(uploadedFileReadMapper.map(file)).thenReturn(dto);
+        when(uploadedFileRepository.findReadDtosByUserId(userId, pageable)).thenReturn(page);
 
         Page<UploadedFileReadDto> result = fileService.showAllUploadedFilesByUserId(userId, pageable);
 
@@ -381,16 +418,16 @@ class FileServiceUnitTest {
                 .filename("file.txt")
                 .build();
 
-        when(userService.getCurrentUser()).thenReturn(currentUser);
-        when(uploadedFileRepository.findByFileIdAndUserId(fileId, userId))
-                .thenReturn(Optional.of(file));
+        when(userService.getCurrentUser()).thenReturn(new UserPrincipal(currentUser));
+        when(uploadedFileRepository.findReadDtoByIdAndUserId(fileId, userId))
+                .thenReturn(Optional.of(readDto(file)));
         when(passwordEncoder.matches(rawPassword, currentUser.getPassword())).thenReturn(true);
 
         assertDoesNotThrow(() -> fileService.removeFileById(userId, rawPassword, fileId));
 
         verify(userService).getCurrentUser();
-        verify(uploadedFileRepository).delete(file);
-        verify(fileEventPublisher).publishDeleted(fileId);
+        verify(fileBulkDeleteService).removeFiles(userId, List.of(fileId));
+        verify(fileEventPublisher).publishDeleted(fileId, userId);
     }
 
     @Test
@@ -411,16 +448,16 @@ class FileServiceUnitTest {
                 .filename("file.txt")
                 .build();
 
-        when(userService.getCurrentUser()).thenReturn(currentUser);
-        when(uploadedFileRepository.findByFileIdAndUserId(fileId, userId))
-                .thenReturn(Optional.of(file));
+        when(userService.getCurrentUser()).thenReturn(new UserPrincipal(currentUser));
+        when(uploadedFileRepository.findReadDtoByIdAndUserId(fileId, userId))
+                .thenReturn(Optional.of(readDto(file)));
         when(passwordEncoder.matches(rawPassword, currentUser.getPassword())).thenReturn(false);
 
         assertThrows(AccessDeniedException.class,
                 () -> fileService.removeFileById(userId, rawPassword, fileId));
 
-        verify(uploadedFileRepository, never()).delete(any());
-        verify(fileEventPublisher, never()).publishDeleted(any());
+        verify(fileBulkDeleteService, never()).removeFiles(any(), any());
+        verify(fileEventPublisher, never()).publishDeleted(any(), any());
     }
 
     @Test
@@ -435,17 +472,17 @@ class FileServiceUnitTest {
                 .username("test")
                 .build();
 
-        when(userService.getCurrentUser()).thenReturn(currentUser);
+        when(userService.getCurrentUser()).thenReturn(new UserPrincipal(currentUser));
 
-        when(uploadedFileRepository.findByFileIdAndUserId(fileId, userId))
+        when(uploadedFileRepository.findReadDtoByIdAndUserId(fileId, userId))
                 .thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class,
                 () -> fileService.removeFileById(userId, rawPassword, fileId));
 
         verify(passwordEncoder, never()).matches(any(), any());
-        verify(uploadedFileRepository, never()).delete(any());
-        verify(fileEventPublisher, never()).publishDeleted(any());
+        verify(fileBulkDeleteService, never()).removeFiles(any(), any());
+        verify(fileEventPublisher, never()).publishDeleted(any(), any());
     }
 
     @Test
@@ -467,16 +504,16 @@ class FileServiceUnitTest {
                 .filename(filename)
                 .build();
 
-        when(userService.getCurrentUser()).thenReturn(currentUser);
-        when(uploadedFileRepository.findByFilenameAndUserId(filename, userId))
-                .thenReturn(Optional.of(file));
+        when(userService.getCurrentUser()).thenReturn(new UserPrincipal(currentUser));
+        when(uploadedFileRepository.findReadDtoByFilenameAndUserId(filename, userId))
+                .thenReturn(Optional.of(readDto(file)));
         when(passwordEncoder.matches(rawPassword, currentUser.getPassword())).thenReturn(true);
 
         fileService.removeFileByFilename(userId, rawPassword, filename);
 
         verify(userService).getCurrentUser();
-        verify(uploadedFileRepository).delete(file);
-        verify(fileEventPublisher).publishDeleted(fileId);
+        verify(fileBulkDeleteService).removeFiles(userId, List.of(fileId));
+        verify(fileEventPublisher).publishDeleted(fileId, userId);
     }
 
     @Test
@@ -491,13 +528,13 @@ class FileServiceUnitTest {
                 .username("test")
                 .build();
 
-        when(userService.getCurrentUser()).thenReturn(currentUser);
+        when(userService.getCurrentUser()).thenReturn(new UserPrincipal(currentUser));
 
-        when(uploadedFileRepository.findByFileIdAndUserId(fileId, userId)).thenReturn(Optional.empty());
+        when(uploadedFileRepository.findReadDtoByIdAndUserId(fileId, userId)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> fileService.removeFileById(userId, rawPassword,fileId));
         verify(passwordEncoder, never()).matches(any(), any());
-        verify(uploadedFileRepository, never()).deleteById(any());
+        verify(fileBulkDeleteService, never()).removeFiles(any(), any());
     }
 
     @Test
@@ -513,12 +550,12 @@ class FileServiceUnitTest {
                 .username("TestUser")
                 .build();
 
-        when(userService.getCurrentUser()).thenReturn(currentUser);
+        when(userService.getCurrentUser()).thenReturn(new UserPrincipal(currentUser));
 
         assertThrows(AccessDeniedException.class,
                 () -> fileService.removeFileById(userId, rawPassword, fileId));
 
-        verify(uploadedFileRepository, never()).findByFileIdAndUserId(any(), any());
+        verify(uploadedFileRepository, never()).findReadDtoByIdAndUserId(any(), any());
         verify(passwordEncoder, never()).matches(any(), any());
     }
 
@@ -541,17 +578,17 @@ class FileServiceUnitTest {
                 .build();
 
 
-        when(userService.getCurrentUser()).thenReturn(user);
+        when(userService.getCurrentUser()).thenReturn(new UserPrincipal(user));
 
-        when(uploadedFileRepository.findByFilenameAndUserId(filename, userId))
-                .thenReturn(Optional.of(file));
+        when(uploadedFileRepository.findReadDtoByFilenameAndUserId(filename, userId))
+                .thenReturn(Optional.of(readDto(file)));
         when(passwordEncoder.matches(rawPassword, user.getPassword())).thenReturn(false);
 
         assertThrows(AccessDeniedException.class,
                 () -> fileService.removeFileByFilename(userId, rawPassword, filename));
 
-        verify(uploadedFileRepository, never()).delete(any());
-        verify(fileEventPublisher, never()).publishDeleted(any());
+        verify(fileBulkDeleteService, never()).removeFiles(any(), any());
+        verify(fileEventPublisher, never()).publishDeleted(any(), any());
     }
 
     @Test
@@ -566,16 +603,20 @@ class FileServiceUnitTest {
                 .username("test")
                 .build();
 
-        when(userService.getCurrentUser()).thenReturn(currentUser);
+        when(userService.getCurrentUser()).thenReturn(new UserPrincipal(currentUser));
 
-        when(uploadedFileRepository.findByFilenameAndUserId(filename, userId))
+        when(uploadedFileRepository.findReadDtoByFilenameAndUserId(filename, userId))
                 .thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class,
                 () -> fileService.removeFileByFilename(userId, rawPassword, filename));
 
         verify(passwordEncoder, never()).matches(any(), any());
-        verify(uploadedFileRepository, never()).delete(any());
-        verify(fileEventPublisher, never()).publishDeleted(any());
+        verify(fileBulkDeleteService, never()).removeFiles(any(), any());
+        verify(fileEventPublisher, never()).publishDeleted(any(), any());
+    }
+
+    private static UploadedFileReadDto readDto(UploadedFile file) {
+        return new UploadedFileReadDto(file.getId(), file.getFilename(), file.getUploadTime(), file.getContentType());
     }
-}
\ No newline at end of file
+}
@@ -6,17 +6,23 @@ import by.egrius.app.entity.PatternMatches;
 import by.egrius.app.entity.RegexMatch;
 import by.egrius.app.entity.UploadedFile;
 import by.egrius.app.entity.enums.ContentType;
+import by.egrius.app.entity.enums.FileEventType;
 import by.egrius.app.entity.enums.PatternType;
 import by.egrius.app.mapper.RegexMatchReadMapper;
+import by.egrius.app.publisher.FileEventPublisher;
 import by.egrius.app.repository.PatternMatchesRepository;
 import by.egrius.app.repository.RegexMatchRepository;
 import by.egrius.app.repository.UploadedFileRepository;
 import by.egrius.app.service.RegexMatchService;
 import by.egrius.app.service.UploadedFileService;
+import by.egrius.app.service.FileStatsViewService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.sql.Timestamp;
@@ -44,6 +50,15 @@ class RegexMatchServiceUnitTest {
     @Mock
     PatternMatchesRepository patternMatchesRepository;
 
+    @Mock
+    private FileEventPublisher fileEventPublisher;
+
+    @Mock
+    private FileStatsViewService fileStatsViewService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private RegexMatchService regexMatchService;
 
@@ -114,6 +129,9 @@ class RegexMatchServiceUnitTest {
         verify(regexMatchRepository).save(any(RegexMatch.class));
         verify(regexMatchReadMapper).map(any(RegexMatch.class));
 
+        assertEquals(1, meterRegistry.get("file.regex.scan").tag("pattern", "EMAIL").timer().count());
+        assertEquals(3.0, meterRegistry.get("file.regex.matches").tag("pattern", "PHONE").summary().totalAmount());
+
         System.out.println("Match count: " + actual.matchCount());
         System.out.println("Emails: " + actual.emailMatches());
         System.out.println("Phones:  " + actual.phoneMatches());
@@ -263,4 +281,26 @@ class RegexMatchServiceUnitTest {
 
         verify(regexMatchRepository, never()).delete(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void createRegexMatch_shouldPublishErrorWhenSaveFails() {
+
+        UUID fileId = UUID.randomUUID();
+        UploadedFile mockFile = UploadedFile.builder()
+                .id(fileId)
+                .fileContent(FileContent.builder().rawText("IP: 10.0.0.1").build())
+                .build();
+
+        when(uploadedFileRepository.findById(fileId)).thenReturn(Optional.of(mockFile));
+        when(regexMatchRepository.findByUploadedFileId(fileId)).thenReturn(Optional.empty());
+        when(regexMatchRepository.save(any(RegexMatch.class))).thenThrow(new IllegalStateException("db down"));
+
+        assertThrows(IllegalStateException.class,
+                () -> regexMatchService.createRegexMatch(fileId, Set.of(PatternType.IP)));
+
+        verify(fileEventPublisher).publish(FileEventType.REGEX_START, fileId);
+        verify(fileEventPublisher).publishError(fileId);
+        verify(fileEventPublisher, never()).publish(FileEventType.REGEX_END, fileId);
+        verify(fileStatsViewService, never()).regexWritten(any(), any());
+    }
+}
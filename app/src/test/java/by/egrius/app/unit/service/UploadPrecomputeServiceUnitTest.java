@@ -0,0 +1,156 @@
+package by.egrius.app.unit.service;
+
+import by.egrius.app.entity.enums.PatternType;
+import by.egrius.app.service.FileAnalysisService;
+import by.egrius.app.service.RegexMatchService;
+import by.egrius.app.service.UploadPrecomputeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UploadPrecomputeServiceUnitTest {
+
+    @Mock
+    private FileAnalysisService fileAnalysisService;
+
+    @Mock
+    private RegexMatchService regexMatchService;
+
+    @InjectMocks
+    private UploadPrecomputeService precomputeService;
+
+    private void start(int threads, int maxPendingPerUser) {
+        ReflectionTestUtils.setField(precomputeService, "threads", threads);
+        ReflectionTestUtils.setField(precomputeService, "maxPendingPerUser", maxPendingPerUser);
+        ReflectionTestUtils.setField(precomputeService, "maxPending", 100);
+        ReflectionTestUtils.setField(precomputeService, "topN", 10);
+        ReflectionTestUtils.invokeMethod(precomputeService, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(precomputeService, "stop");
+    }
+
+    @Test
+    void submit_shouldCreateAnalysisAndRegexMatches() throws InterruptedException {
+        UUID fileId = UUID.randomUUID();
+        CountDownLatch done = new CountDownLatch(1);
+        when(regexMatchService.createRegexMatch(eq(fileId), any())).thenAnswer(invocation -> {
+            done.countDown();
+            return null;
+        });
+
+        start(1, 10);
+        assertTrue(precomputeService.submit(UUID.randomUUID(), fileId));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        verify(fileAnalysisService).createAnalysis(fileId, 10, true);
+        verify(regexMatchService).createRegexMatch(fileId, EnumSet.allOf(PatternType.class));
+    }
+
+    @Test
+    void submit_shouldSkipAlreadyComputedResults() throws InterruptedException {
+        UUID fileId = UUID.randomUUID();
+        CountDownLatch done = new CountDownLatch(1);
+        when(fileAnalysisService.hasAnalysis(fileId)).thenReturn(true);
+        when(regexMatchService.hasRegexMatch(fileId)).thenAnswer(invocation -> {
+            done.countDown();
+            return true;
+        });
+
+        start(1, 10);
+        precomputeService.submit(UUID.randomUUID(), fileId);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        verify(fileAnalysisService, never()).createAnalysis(any(), anyInt(), anyBoolean());
+        verify(regexMatchService, never()).createRegexMatch(any(), any());
+    }
+
+    @Test
+    void submit_shouldKeepWorkerAliveAfterError() throws InterruptedException {
+        UUID brokenFile = UUID.randomUUID();
+        UUID nextFile = UUID.randomUUID();
+        CountDownLatch done = new CountDownLatch(1);
+        when(fileAnalysisService.hasAnalysis(brokenFile)).thenThrow(new StackOverflowError());
+        when(fileAnalysisService.hasAnalysis(nextFile)).thenReturn(true);
+        when(regexMatchService.hasRegexMatch(nextFile)).thenAnswer(invocation -> {
+            done.countDown();
+            return true;
+        });
+
+        start(1, 10);
+        precomputeService.submit(UUID.randomUUID(), brokenFile);
+        precomputeService.submit(UUID.randomUUID(), nextFile);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void submit_shouldAlternateBetweenUsers() throws InterruptedException {
+        UUID heavyUser = UUID.randomUUID();
+        UUID lightUser = UUID.randomUUID();
+        List<UUID> heavyFiles = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        UUID lightFile = UUID.randomUUID();
+
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch allDone = new CountDownLatch(4);
+        List<UUID> order = Collections.synchronizedList(new ArrayList<>());
+
+        when(fileAnalysisService.hasAnalysis(any())).thenAnswer(invocation -> {
+            UUID fileId = invocation.getArgument(0);
+            order.add(fileId);
+            if (fileId.equals(heavyFiles.get(0))) {
+                firstStarted.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            allDone.countDown();
+            return true;
+        });
+        when(regexMatchService.hasRegexMatch(any())).thenReturn(true);
+
+        start(1, 10);
+        heavyFiles.forEach(fileId -> precomputeService.submit(heavyUser, fileId));
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+        precomputeService.submit(lightUser, lightFile);
+        release.countDown();
+
+        assertTrue(allDone.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(heavyFiles.get(0), lightFile, heavyFiles.get(1), heavyFiles.get(2)), order);
+    }
+
+    @Test
+    void submit_shouldRejectWhenUserQueueIsFull() throws InterruptedException {
+        UUID userId = UUID.randomUUID();
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(fileAnalysisService.hasAnalysis(any())).thenAnswer(invocation -> {
+            blocked.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+        lenient().when(regexMatchService.hasRegexMatch(any())).thenReturn(true);
+
+        start(1, 1);
+        assertTrue(precomputeService.submit(userId, UUID.randomUUID()));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        assertTrue(precomputeService.submit(userId, UUID.randomUUID()));
+        assertFalse(precomputeService.submit(userId, UUID.randomUUID()));
+        release.countDown();
+    }
+}
@@ -9,6 +9,8 @@ import by.egrius.app.mapper.userMapper.UserCreateMapper;
 import by.egrius.app.mapper.userMapper.UserReadMapper;
 import by.egrius.app.mapper.userMapper.UserUpdateMapper;
 import by.egrius.app.repository.UserRepository;
+import by.egrius.app.security.UserDetailsCache;
+import by.egrius.app.service.UserPurgeService;
 import by.egrius.app.service.UserService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Validator;
@@ -48,6 +50,12 @@ class UserServiceUnitTest {
     @Mock
     private Validator validator;
 
+    @Mock
+    private UserPurgeService userPurgeService;
+
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
     @InjectMocks
     private UserService userService;
 
@@ -234,7 +242,9 @@ class UserServiceUnitTest {
 
         userService.deleteUser(id, "1234");
 
-        verify(userRepository).delete(eq(userToDelete));
+        assertNotNull(userToDelete.getDeletedAt());
+        verify(userPurgeService).schedule(id);
+        verify(userRepository, never()).delete(any());
     }
 
     void deleteUser_shouldThrowWhenPasswordInvalid() {
@@ -251,7 +261,7 @@ class UserServiceUnitTest {
         when(passwordEncoder.matches("wrong", "encoded")).thenReturn(false);
 
         assertThrows(SecurityException.class, () -> userService.deleteUser(id, "wrong"));
-        verify(userRepository, never()).delete(any());
+        verify(userPurgeService, never()).schedule(any());
     }
 
     @Test
@@ -260,6 +270,6 @@ class UserServiceUnitTest {
         when(userRepository.findById(id)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> userService.deleteUser(id, "1234"));
-        verify(userRepository, never()).delete(any());
+        verify(userPurgeService, never()).schedule(any());
     }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package by.egrius.app.unit.text;
+
+import by.egrius.app.text.AnalysisCodec;
+import by.egrius.app.text.WordLengthStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisCodecUnitTest {
+
+    @Test
+    void decode_shouldRestorePayloadAndTopWordsOrder() {
+        Map<String, Long> topWords = new LinkedHashMap<>();
+        topWords.put("привет", 5_000_000_000L);
+        topWords.put("мир", 42L);
+        topWords.put("a", 1L);
+        Map<String, Integer> wordLengths = Map.of("привет", 6, "мир", 3, "a", 1, "😀x", 3);
+
+        AnalysisCodec.Payload payload = new AnalysisCodec.Payload(
+                topWords, Map.of('п', 7L, 'м', 3L), Map.of('!', 2L, '—', 1L),
+                WordLengthStats.of(wordLengths.keySet(), 2), wordLengths);
+
+        AnalysisCodec.Payload decoded = AnalysisCodec.decode(AnalysisCodec.encode(payload));
+
+        assertEquals(payload, decoded);
+        assertEquals(List.of("привет", "мир", "a"), List.copyOf(decoded.topWords().keySet()));
+        assertEquals(Map.of(1, 1L, 3, 2L, 6, 1L), decoded.wordLengthStats().histogram());
+    }
+
+    @Test
+    void decode_shouldKeepMissingWordLengthMap() {
+        WordLengthStats stats = new WordLengthStats(Map.of(), List.of(), List.of());
+        AnalysisCodec.Payload empty = new AnalysisCodec.Payload(Map.of(), Map.of(), Map.of(), stats, null);
+
+        byte[] encoded = AnalysisCodec.encode(empty);
+
+        assertEquals(8, encoded.length);
+        assertNull(AnalysisCodec.decode(encoded).wordLengthMap());
+        assertEquals(empty, AnalysisCodec.decode(encoded));
+    }
+
+    @Test
+    void decode_shouldRejectUnknownVersion() {
+        assertThrows(IllegalArgumentException.class, () -> AnalysisCodec.decode(new byte[]{99, 0, 0, 0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> AnalysisCodec.decode(new byte[]{1, 0, 0, 0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> AnalysisCodec.decode(new byte[0]));
+    }
+
+    @Test
+    void wordLengthStats_shouldPickLongestAndShortestWithTiesByWord() {
+        WordLengthStats stats = WordLengthStats.of(List.of("bb", "a", "ccc", "dd", "e", "ffff", "aa"), 3);
+
+        assertEquals(List.of("ffff", "ccc", "aa"), stats.longestWords());
+        assertEquals(List.of("a", "e", "aa"), stats.shortestWords());
+        assertEquals(List.of(), WordLengthStats.of(List.of("a"), 0).longestWords());
+    }
+}
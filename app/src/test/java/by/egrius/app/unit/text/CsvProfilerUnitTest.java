@@ -0,0 +1,100 @@
+package by.egrius.app.unit.text;
+
+import by.egrius.app.entity.CsvColumnStats;
+import by.egrius.app.entity.CsvProfile;
+import by.egrius.app.entity.enums.CsvColumnType;
+import by.egrius.app.text.csv.CsvProfiler;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvProfilerUnitTest {
+
+    private final CsvProfiler csvProfiler = new CsvProfiler();
+
+    @Test
+    void profile_shouldHandleQuotedFieldsAndDetectDelimiter() throws IOException {
+        String csv = "id;name;price;active;note\r\n"
+                + "1;\"Smith; John\";10.5;true;\r\n"
+                + "2;\"Say \"\"hi\"\"\nthere\";-3;FALSE;x\r\n"
+                + "\r\n"
+                + "3;Bob;1e2;true\n";
+
+        CsvProfile profile = profile(csv);
+
+        assertEquals(3L, profile.getRowCount());
+        assertEquals(";", profile.getDelimiter());
+        assertEquals(5, profile.getColumns().size());
+
+        CsvColumnStats id = profile.getColumns().get(0);
+        assertEquals(CsvColumnType.INTEGER, id.getType());
+        assertEquals(1.0, id.getMinValue());
+        assertEquals(3.0, id.getMaxValue());
+        assertEquals(2.0, id.getMeanValue());
+
+        CsvColumnStats name = profile.getColumns().get(1);
+        assertEquals(CsvColumnType.STRING, name.getType());
+        assertEquals(3L, name.getApproxDistinct());
+        assertNull(name.getMinValue());
+
+        CsvColumnStats price = profile.getColumns().get(2);
+        assertEquals(CsvColumnType.DECIMAL, price.getType());
+        assertEquals(-3.0, price.getMinValue());
+        assertEquals(100.0, price.getMaxValue());
+
+        assertEquals(CsvColumnType.BOOLEAN, profile.getColumns().get(3).getType());
+
+        // Пустое значение и отсутствующая в последней строке ячейка считаются null
+        CsvColumnStats note = profile.getColumns().get(4);
+        assertEquals(2L, note.getNullCount());
+        assertEquals(1L, note.getNonNullCount());
+    }
+
+    @Test
+    void profile_shouldEstimateDistinctValues() throws IOException {
+        StringBuilder csv = new StringBuilder("key,group\n");
+        for (int i = 0; i < 20_000; i++) {
+            csv.append(i).append(",g").append(i % 100).append('\n');
+        }
+
+        CsvProfile profile = profile(csv.toString());
+
+        assertEquals(20_000L, profile.getRowCount());
+        long keys = profile.getColumns().get(0).getApproxDistinct();
+        long groups = profile.getColumns().get(1).getApproxDistinct();
+        assertTrue(Math.abs(keys - 20_000) < 20_000 * 0.05, "keys estimate: " + keys);
+        assertTrue(Math.abs(groups - 100) <= 5, "groups estimate: " + groups);
+    }
+
+    @Test
+    void profile_shouldCountPaddedValuesAsSameDistinctValue() throws IOException {
+        String csv = "name,code\n"
+                + "a,1\n"
+                + " a,1 \n"
+                + "a\t, 1\n"
+                + "  a  ,\t1\n"
+                + "b,2\n";
+
+        CsvProfile profile = profile(csv);
+
+        assertEquals(2L, profile.getColumns().get(0).getApproxDistinct());
+        assertEquals(2L, profile.getColumns().get(1).getApproxDistinct());
+        assertEquals(CsvColumnType.INTEGER, profile.getColumns().get(1).getType());
+    }
+
+    @Test
+    void profile_shouldReturnEmptyProfileForEmptyInput() throws IOException {
+        CsvProfile profile = profile("");
+
+        assertEquals(0L, profile.getRowCount());
+        assertTrue(profile.getColumns().isEmpty());
+    }
+
+    private CsvProfile profile(String csv) throws IOException {
+        return csvProfiler.profile(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+}
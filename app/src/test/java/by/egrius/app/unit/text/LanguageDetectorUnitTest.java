@@ -0,0 +1,54 @@
+package by.egrius.app.unit.text;
+
+import by.egrius.app.entity.enums.Language;
+import by.egrius.app.text.LanguageDetector;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LanguageDetectorUnitTest {
+
+    private final LanguageDetector languageDetector = new LanguageDetector();
+
+    @Test
+    void detect_shouldRecognizeRussianText() {
+        String text = "Москва — столица России, крупнейший по численности населения город страны.";
+
+        assertEquals(Language.RU, languageDetector.detect(text));
+    }
+
+    @Test
+    void detect_shouldRecognizeEnglishText() {
+        String text = "The quick brown fox jumps over the lazy dog and runs into the forest.";
+
+        assertEquals(Language.EN, languageDetector.detect(text));
+    }
+
+    @Test
+    void detect_shouldPreferDominantLanguageInMixedText() {
+        String text = "Отчёт за квартал подготовлен отделом продаж, данные по регионам приведены ниже. Status: OK";
+
+        assertEquals(Language.RU, languageDetector.detect(text));
+    }
+
+    @Test
+    void detect_shouldReturnUnknownWhenTextHasNoLetters() {
+        assertEquals(Language.UNKNOWN, languageDetector.detect("123 456, 789!"));
+        assertEquals(Language.UNKNOWN, languageDetector.detect(""));
+        assertEquals(Language.UNKNOWN, languageDetector.detect(null));
+    }
+
+    // Повтор триграммы ничего не добавляет к профилю, но сдвигает ранги остальных
+    @Test
+    void profiles_shouldNotContainDuplicateTrigrams() {
+        for (String field : new String[]{"RU_TRIGRAMS", "EN_TRIGRAMS"}) {
+            String[] trigrams = (String[]) ReflectionTestUtils.getField(LanguageDetector.class, field);
+            assertNotNull(trigrams);
+            assertEquals(trigrams.length, new HashSet<>(Arrays.asList(trigrams)).size(), field);
+        }
+    }
+}
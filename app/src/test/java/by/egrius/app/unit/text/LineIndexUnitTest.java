@@ -0,0 +1,67 @@
+package by.egrius.app.unit.text;
+
+import by.egrius.app.text.LineIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineIndexUnitTest {
+
+    @Test
+    void build_shouldCountLinesLikeStringLines() {
+        String text = "first\r\nsecond\rthird\n\nfifth\n";
+
+        LineIndex index = LineIndex.build(text);
+
+        assertEquals(text.lines().count(), index.lineCount());
+        assertEquals(0, index.lineStart(0));
+        assertEquals(7, index.lineStart(1));
+        assertEquals(14, index.lineStart(2));
+        assertEquals(text.length(), index.lineEnd(4));
+    }
+
+    @Test
+    void lineRange_shouldReturnRequestedLinesAcrossBlocks() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 1; i <= 500; i++) {
+            text.append("line ").append(i).append('\n');
+        }
+        LineIndex index = LineIndex.fromBytes(LineIndex.build(text).toBytes());
+
+        String range = text.substring(index.lineStart(62), index.lineEnd(129));
+        List<String> lines = range.lines().toList();
+
+        assertEquals(500, index.lineCount());
+        assertEquals(68, lines.size());
+        assertEquals("line 63", lines.getFirst());
+        assertEquals("line 130", lines.getLast());
+    }
+
+    @Test
+    void lineOf_shouldMapOffsetToLine() {
+        String text = "alpha\nbeta\r\ngamma";
+        LineIndex index = LineIndex.build(text);
+
+        assertEquals(0, index.lineOf(0));
+        assertEquals(0, index.lineOf(5));
+        assertEquals(1, index.lineOf(text.indexOf("beta")));
+        assertEquals(1, index.lineOf(text.indexOf("\r\n") + 1));
+        assertEquals(2, index.lineOf(text.indexOf("gamma")));
+    }
+
+    @Test
+    void build_shouldFlagSurrogatePairs() {
+        assertFalse(LineIndex.build("plain text").hasSurrogates());
+        assertTrue(LineIndex.build("emoji 😀 inside").hasSurrogates());
+    }
+
+    @Test
+    void build_shouldHandleEmptyText() {
+        LineIndex index = LineIndex.build("");
+
+        assertEquals(0, index.lineCount());
+        assertThrows(IndexOutOfBoundsException.class, () -> index.lineStart(0));
+    }
+}
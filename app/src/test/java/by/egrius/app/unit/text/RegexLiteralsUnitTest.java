@@ -0,0 +1,47 @@
+package by.egrius.app.unit.text;
+
+import by.egrius.app.text.RegexLiterals;
+import by.egrius.app.text.TrigramFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegexLiteralsUnitTest {
+
+    @Test
+    void requiredLiterals_shouldSplitOnMetacharacters() {
+        assertEquals(List.of("error", "timeout"), RegexLiterals.requiredLiterals("error\\s+\\d{3}.*timeout"));
+        assertEquals(List.of("foo.bar"), RegexLiterals.requiredLiterals("foo\\.bar"));
+        assertEquals(List.of("abc"), RegexLiterals.requiredLiterals("^abc[0-9]+(x|y)$"));
+    }
+
+    @Test
+    void requiredLiterals_shouldDropOptionalAtoms() {
+        // 'r' может отсутствовать, а '+' оставляет символ, но разрывает литерал
+        assertEquals(List.of("colo", "uuu"), RegexLiterals.requiredLiterals("color?ur+uuu"));
+        assertEquals(List.of("abc"), RegexLiterals.requiredLiterals("abcd{0,2}"));
+        assertEquals(List.of("abcd"), RegexLiterals.requiredLiterals("abcd{2}e"));
+    }
+
+    @Test
+    void requiredLiterals_shouldGiveUpOnUnsupportedConstructs() {
+        assertTrue(RegexLiterals.requiredLiterals("error|warning").isEmpty());
+        assertTrue(RegexLiterals.requiredLiterals("\\x41bcdef").isEmpty());
+        assertTrue(RegexLiterals.requiredLiterals("(?x) a b c d").isEmpty());
+        assertTrue(RegexLiterals.requiredLiterals("[]abc]def").isEmpty());
+        assertTrue(RegexLiterals.requiredLiterals("ab").isEmpty());
+    }
+
+    @Test
+    void trigramFilter_shouldNeverRejectTextContainingLiterals() {
+        byte[] filter = TrigramFilter.build("Connection TIMEOUT after 30s\nПовторная попытка");
+
+        assertTrue(TrigramFilter.mightContainAll(filter, List.of("timeout", "connection")));
+        assertTrue(TrigramFilter.mightContainAll(filter, List.of("ПОВТОРНАЯ")));
+        assertTrue(TrigramFilter.mightContainAll(filter, List.of()));
+        assertFalse(TrigramFilter.mightContainAll(filter, List.of("stacktrace")));
+        assertEquals(TrigramFilter.BYTES, filter.length);
+    }
+}
@@ -0,0 +1,35 @@
+package by.egrius.app.unit.text;
+
+import by.egrius.app.text.TextTokenizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextTokenizerUnitTest {
+
+    @Test
+    void tokenize_shouldSplitOnWhitespaceAndDropPunctuation() {
+        List<String> words = TextTokenizer.tokenize("  Привет, мир!\tHello (world).\r\nкто-то   ");
+
+        assertEquals(List.of("привет", "мир", "hello", "world", "кто-то"), words);
+    }
+
+    @Test
+    void tokenize_shouldSkipTokensMadeOfPunctuation() {
+        assertEquals(List.of("a", "b"), TextTokenizer.tokenize("a ... !!! b"));
+        assertTrue(TextTokenizer.tokenize("").isEmpty());
+    }
+
+    @Test
+    void scan_shouldReportRawWordBounds() {
+        String text = "Hello, (world)!\n  кто-то";
+        List<String> spans = new ArrayList<>();
+
+        TextTokenizer.scan(text, (word, start, end) -> spans.add(word + "=" + text.substring(start, end)));
+
+        assertEquals(List.of("hello=Hello,", "world=(world)!", "кто-то=кто-то"), spans);
+    }
+}